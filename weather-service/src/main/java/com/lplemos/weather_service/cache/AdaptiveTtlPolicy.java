@@ -0,0 +1,107 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-entry expiry derived from the provider's update schedule
+ * Current weather carries its observation time (dt) and is republished every
+ * current-update-interval, so it stays fresh until the next expected observation; forecasts are
+ * issued on a fixed UTC grid (3 hours for OpenWeatherMap), so they stay fresh until the next grid
+ * boundary. Both get update-delay on top for publication lag, at least min-ttl, and a +/- jitter
+ * fraction derived from the key hash, so entries that share a timestamp do not all expire in the
+ * same instant while every replica still computes the same expiry. The hard TTL keeps the
+ * configured stale window (hard minus soft) after the soft expiry. Entries without a usable
+ * timestamp, and all entries when disabled, use the static cache spec
+ */
+@Component
+public class AdaptiveTtlPolicy {
+
+    private final CacheProperties.AdaptiveTtl properties;
+    private final Map<WeatherCacheKey.Kind, CacheProperties.CacheSpec> specs = new EnumMap<>(WeatherCacheKey.Kind.class);
+
+    public AdaptiveTtlPolicy(CacheProperties cacheProperties) {
+        this.properties = cacheProperties.getAdaptiveTtl();
+        for (WeatherCacheKey.Kind kind : WeatherCacheKey.Kind.values()) {
+            specs.put(kind, cacheProperties.getCacheSpec(kind.getCacheName()));
+        }
+    }
+
+    /**
+     * Computes the soft and hard TTL of an entry, both counted from its fetch time
+     * @param key the cache key, used for jitter
+     * @param entry the cached entry
+     * @return the entry's TTLs
+     */
+    public EntryTtl ttl(WeatherCacheKey key, CachedWeather entry) {
+        CacheProperties.CacheSpec spec = specs.get(key.kind());
+        long staticSoft = spec.getSoftTtl().toMillis();
+        long staleWindow = Math.max(0L, spec.getHardTtl().toMillis() - staticSoft);
+        if (!properties.isEnabled() || entry.fetchedAt() == 0L) {
+            return new EntryTtl(staticSoft, staticSoft + staleWindow);
+        }
+        long nextUpdate = nextUpdate(key.kind(), entry);
+        if (nextUpdate < 0) {
+            return new EntryTtl(staticSoft, staticSoft + staleWindow);
+        }
+        long maxSoft = interval(key.kind()) + properties.getUpdateDelay().toMillis();
+        long soft = Math.min(nextUpdate + properties.getUpdateDelay().toMillis() - entry.fetchedAt(), maxSoft);
+        soft = Math.max(jitter(key, soft), properties.getMinTtl().toMillis());
+        return new EntryTtl(soft, soft + staleWindow);
+    }
+
+    /**
+     * Gets the time an entry stops being served fresh, 0 when its fetch time is unknown
+     * @param key the cache key
+     * @param entry the cached entry
+     * @return soft expiry time in milliseconds
+     */
+    public long softExpiresAt(WeatherCacheKey key, CachedWeather entry) {
+        return entry.fetchedAt() == 0L ? 0L : entry.fetchedAt() + ttl(key, entry).softMillis();
+    }
+
+    /**
+     * Gets the time the provider is expected to publish newer data, or -1 when unknown
+     */
+    private long nextUpdate(WeatherCacheKey.Kind kind, CachedWeather entry) {
+        if (kind == WeatherCacheKey.Kind.CURRENT) {
+            return entry.data().get("dt") instanceof Number dt
+                ? dt.longValue() * 1000L + properties.getCurrentUpdateInterval().toMillis()
+                : -1L;
+        }
+        if (!entry.data().containsKey("list")) {
+            return -1L;
+        }
+        long grid = properties.getForecastInterval().toMillis();
+        return (entry.fetchedAt() / grid + 1) * grid;
+    }
+
+    private long interval(WeatherCacheKey.Kind kind) {
+        return kind == WeatherCacheKey.Kind.CURRENT
+            ? properties.getCurrentUpdateInterval().toMillis()
+            : properties.getForecastInterval().toMillis();
+    }
+
+    /**
+     * Spreads a TTL by up to +/- jitter of its length, deterministically per key
+     */
+    private long jitter(WeatherCacheKey key, long ttl) {
+        long mixed = key.hashCode() * 0x9E3779B97F4A7C15L;
+        double unit = (mixed >>> 11) * 0x1.0p-53;
+        return Math.round(ttl * (1.0 + properties.getJitter() * (2.0 * unit - 1.0)));
+    }
+
+    /**
+     * Soft (served fresh) and hard (served at all) TTL of an entry in milliseconds
+     */
+    public record EntryTtl(long softMillis, long hardMillis) {
+
+        public Duration hard() {
+            return Duration.ofMillis(hardMillis);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer instrumentation of the hierarchical cache
+ * Meters are tagged by tier (l1, l2, provider), cache name and endpoint:
+ * <ul>
+ *   <li>weather.cache.gets - lookups per tier, result=hit|miss</li>
+ *   <li>weather.cache.loads - provider calls, result=success|failure</li>
+ *   <li>weather.cache.latency - lookup/load latency histogram per tier</li>
+ *   <li>weather.cache.evictions - L1 size/expiry evictions and explicit L2 deletes</li>
+ *   <li>weather.cache.size - L1 entry count</li>
+ *   <li>weather.cache.negative - "not found" entries served per tier (result=hit) and stored (result=stored)</li>
+ * </ul>
+ * Meters are cached per tag combination so the hot path never searches the registry, and the
+ * same meters back the snapshot returned by the cache stats endpoint
+ */
+@Component
+public class CacheMetrics {
+
+    public static final String GETS = "weather.cache.gets";
+    public static final String LOADS = "weather.cache.loads";
+    public static final String LATENCY = "weather.cache.latency";
+    public static final String EVICTIONS = "weather.cache.evictions";
+    public static final String SIZE = "weather.cache.size";
+    public static final String NEGATIVE = "weather.cache.negative";
+
+    private final MeterRegistry registry;
+    private final Map<MeterKey, TierMeters> meters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> l2Evictions = new ConcurrentHashMap<>();
+    private final Map<NegativeKey, Counter> negatives = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry registry, @Qualifier("localCacheManager") CacheManager localCacheManager) {
+        this.registry = registry;
+        localCacheManager.getCacheNames().forEach(name -> {
+            Cache cache = localCacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof BoundedLocalCache localCache) {
+                bindLocalCache(localCache);
+            }
+        });
+    }
+
+    /**
+     * Records a lookup that found an entry
+     * @param tier the tier looked up
+     * @param cacheName the cache name
+     * @param endpoint the service endpoint
+     * @param nanos lookup latency
+     */
+    public void recordHit(CacheTier tier, String cacheName, String endpoint, long nanos) {
+        TierMeters tierMeters = meters(tier, cacheName, endpoint);
+        tierMeters.success.increment();
+        tierMeters.latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a lookup that found nothing
+     * @param tier the tier looked up
+     * @param cacheName the cache name
+     * @param endpoint the service endpoint
+     * @param nanos lookup latency
+     */
+    public void recordMiss(CacheTier tier, String cacheName, String endpoint, long nanos) {
+        TierMeters tierMeters = meters(tier, cacheName, endpoint);
+        tierMeters.failure.increment();
+        tierMeters.latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a provider call
+     * @param cacheName the cache name
+     * @param endpoint the service endpoint
+     * @param nanos call latency
+     * @param success whether the provider returned data
+     */
+    public void recordLoad(String cacheName, String endpoint, long nanos, boolean success) {
+        TierMeters tierMeters = meters(CacheTier.PROVIDER, cacheName, endpoint);
+        (success ? tierMeters.success : tierMeters.failure).increment();
+        tierMeters.latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records explicit deletes from Redis
+     * @param cacheName the cache name
+     * @param count number of keys removed
+     */
+    public void recordL2Eviction(String cacheName, long count) {
+        l2Evictions.computeIfAbsent(cacheName, name -> Counter.builder(EVICTIONS)
+                .tags(Tags.of("tier", CacheTier.L2.getTag(), "cache", name, "cause", "explicit"))
+                .register(registry))
+            .increment(count);
+    }
+
+    /**
+     * Records a lookup answered by a negative entry
+     * @param tier the tier that held the entry
+     * @param cacheName the cache name
+     */
+    public void recordNegativeHit(CacheTier tier, String cacheName) {
+        negativeCounter(new NegativeKey(tier, cacheName, "hit")).increment();
+    }
+
+    /**
+     * Records a provider "not found" response stored as a negative entry
+     * @param cacheName the cache name
+     */
+    public void recordNegativeStore(String cacheName) {
+        negativeCounter(new NegativeKey(CacheTier.PROVIDER, cacheName, "stored")).increment();
+    }
+
+    /**
+     * Gets the recorded numbers per cache, endpoint and tier, plus totals per tier
+     * @return snapshot map
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Map<String, Map<String, Object>>> byCache = new TreeMap<>();
+        Map<CacheTier, long[]> totals = new LinkedHashMap<>();
+        meters.forEach((key, tierMeters) -> {
+            long success = (long) tierMeters.success.count();
+            long failure = (long) tierMeters.failure.count();
+            byCache.computeIfAbsent(key.cacheName(), name -> new TreeMap<>())
+                .computeIfAbsent(key.endpoint(), endpoint -> new LinkedHashMap<>())
+                .put(key.tier().getTag(), tierSnapshot(key.tier(), success, failure, tierMeters.latency));
+            long[] total = totals.computeIfAbsent(key.tier(), tier -> new long[2]);
+            total[0] += success;
+            total[1] += failure;
+        });
+
+        Map<String, Object> tiers = new LinkedHashMap<>();
+        for (CacheTier tier : CacheTier.values()) {
+            long[] total = totals.getOrDefault(tier, new long[2]);
+            Map<String, Object> tierTotals = new LinkedHashMap<>();
+            putCounts(tierTotals, tier, total[0], total[1]);
+            tiers.put(tier.getTag(), tierTotals);
+        }
+        Map<String, Object> l2Deletes = new TreeMap<>();
+        l2Evictions.forEach((cacheName, counter) -> l2Deletes.put(cacheName, (long) counter.count()));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("tiers", tiers);
+        snapshot.put("caches", byCache);
+        snapshot.put("l2Evictions", l2Deletes);
+        Map<String, Map<String, Object>> negativeCounts = new TreeMap<>();
+        negatives.forEach((key, counter) -> negativeCounts
+            .computeIfAbsent(key.cacheName(), name -> new TreeMap<>())
+            .put(key.result().equals("stored") ? "stored" : key.tier().getTag() + "Hits", (long) counter.count()));
+        snapshot.put("negative", negativeCounts);
+        return snapshot;
+    }
+
+    private void bindLocalCache(BoundedLocalCache cache) {
+        Tags tags = Tags.of("tier", CacheTier.L1.getTag(), "cache", cache.getName());
+        Gauge.builder(SIZE, cache, BoundedLocalCache::size)
+            .tags(tags)
+            .register(registry);
+        FunctionCounter.builder(EVICTIONS, cache, BoundedLocalCache::getEvictionCount)
+            .tags(tags.and("cause", "size"))
+            .register(registry);
+        FunctionCounter.builder(EVICTIONS, cache, BoundedLocalCache::getExpiredCount)
+            .tags(tags.and("cause", "expired"))
+            .register(registry);
+    }
+
+    private Counter negativeCounter(NegativeKey key) {
+        return negatives.computeIfAbsent(key, k -> Counter.builder(NEGATIVE)
+            .tags(Tags.of("tier", k.tier().getTag(), "cache", k.cacheName(), "result", k.result()))
+            .register(registry));
+    }
+
+    private TierMeters meters(CacheTier tier, String cacheName, String endpoint) {
+        return meters.computeIfAbsent(new MeterKey(tier, cacheName, endpoint), this::createMeters);
+    }
+
+    private TierMeters createMeters(MeterKey key) {
+        Tags tags = Tags.of("tier", key.tier().getTag(), "cache", key.cacheName(), "endpoint", key.endpoint());
+        boolean provider = key.tier() == CacheTier.PROVIDER;
+        String counterName = provider ? LOADS : GETS;
+        return new TierMeters(
+            Counter.builder(counterName).tags(tags).tag("result", provider ? "success" : "hit").register(registry),
+            Counter.builder(counterName).tags(tags).tag("result", provider ? "failure" : "miss").register(registry),
+            Timer.builder(LATENCY)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(50_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry));
+    }
+
+    private static Map<String, Object> tierSnapshot(CacheTier tier, long success, long failure, Timer latency) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        putCounts(snapshot, tier, success, failure);
+        snapshot.put("meanLatencyMs", latency.mean(TimeUnit.MILLISECONDS));
+        snapshot.put("maxLatencyMs", latency.max(TimeUnit.MILLISECONDS));
+        return snapshot;
+    }
+
+    private static void putCounts(Map<String, Object> target, CacheTier tier, long success, long failure) {
+        long total = success + failure;
+        if (tier == CacheTier.PROVIDER) {
+            target.put("loads", success);
+            target.put("loadFailures", failure);
+        } else {
+            target.put("hits", success);
+            target.put("misses", failure);
+            target.put("hitRatio", total == 0 ? 0.0 : (double) success / total);
+        }
+    }
+
+    private record MeterKey(CacheTier tier, String cacheName, String endpoint) {
+    }
+
+    private record NegativeKey(CacheTier tier, String cacheName, String result) {
+    }
+
+    /**
+     * Hit/miss (or load success/failure) counters and latency timer of one tag combination
+     */
+    private record TierMeters(Counter success, Counter failure, Timer latency) {
+    }
+}
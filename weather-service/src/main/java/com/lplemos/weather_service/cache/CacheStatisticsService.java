@@ -1,11 +1,20 @@
 package com.lplemos.weather_service.cache;
 
+import com.lplemos.weather_service.cache.bloom.KnownCityFilter;
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.cache.localization.ConditionLocalizer;
+import com.lplemos.weather_service.cache.redis.CacheInvalidationBus;
+import com.lplemos.weather_service.cache.redis.CacheNamespace;
+import com.lplemos.weather_service.cache.redis.RedisCacheTier;
+import com.lplemos.weather_service.cache.refresh.HeavyHitterTracker;
+import com.lplemos.weather_service.cache.refresh.RefreshAheadScheduler;
+import com.lplemos.weather_service.cache.warmup.CacheWarmupService;
 import com.lplemos.weather_service.service.WeatherServiceConstants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
@@ -22,16 +31,43 @@ public class CacheStatisticsService {
     private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsService.class);
     
     private final CacheManager localCacheManager;
-    private final CacheManager redisCacheManager;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCacheTier redisCacheTier;
+    private final SingleFlightRegistry singleFlightRegistry;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheMetrics cacheMetrics;
+    private final CacheWarmupService cacheWarmupService;
+    private final RefreshAheadScheduler refreshAheadScheduler;
+    private final CacheNamespace cacheNamespace;
+    private final ConditionLocalizer conditionLocalizer;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final DerivedViewCache derivedViewCache;
+    private final KnownCityFilter knownCityFilter;
     
     public CacheStatisticsService(
-            CacheManager localCacheManager,
-            CacheManager redisCacheManager,
-            RedisTemplate<String, Object> redisTemplate) {
+            @Qualifier("localCacheManager") CacheManager localCacheManager,
+            RedisCacheTier redisCacheTier,
+            SingleFlightRegistry singleFlightRegistry,
+            CacheInvalidationBus invalidationBus,
+            CacheMetrics cacheMetrics,
+            CacheWarmupService cacheWarmupService,
+            RefreshAheadScheduler refreshAheadScheduler,
+            CacheNamespace cacheNamespace,
+            ConditionLocalizer conditionLocalizer,
+            HeavyHitterTracker heavyHitterTracker,
+            DerivedViewCache derivedViewCache,
+            KnownCityFilter knownCityFilter) {
         this.localCacheManager = localCacheManager;
-        this.redisCacheManager = redisCacheManager;
-        this.redisTemplate = redisTemplate;
+        this.redisCacheTier = redisCacheTier;
+        this.singleFlightRegistry = singleFlightRegistry;
+        this.invalidationBus = invalidationBus;
+        this.cacheMetrics = cacheMetrics;
+        this.cacheWarmupService = cacheWarmupService;
+        this.refreshAheadScheduler = refreshAheadScheduler;
+        this.cacheNamespace = cacheNamespace;
+        this.conditionLocalizer = conditionLocalizer;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.derivedViewCache = derivedViewCache;
+        this.knownCityFilter = knownCityFilter;
     }
     
     /**
@@ -43,24 +79,38 @@ public class CacheStatisticsService {
         return Mono.fromCallable(() -> {
             Map<String, Object> stats = new HashMap<>();
             
-            try {
-                logger.info("Getting local cache stats...");
-                addLocalCacheStats(stats);
-                
-                logger.info("Getting Redis info...");
-                addRedisInfo(stats);
-                
-                stats.put("cacheAvailable", true);
-                logger.info("=== CacheStatisticsService.getCacheStats END (SUCCESS) ===");
-                
-            } catch (Exception e) {
-                logger.error("Error getting cache stats: {}", e.getMessage(), e);
-                stats.put("cacheAvailable", false);
-                stats.put("error", e.getMessage());
-                logger.info("=== CacheStatisticsService.getCacheStats END (ERROR) ===");
-            }
+            logger.info("Getting local cache stats...");
+            addLocalCacheStats(stats);
             
+            stats.put("tierMetrics", cacheMetrics.snapshot());
+            stats.put("singleFlightStats", singleFlightRegistry.getStats());
+            stats.put("redisTierStats", redisCacheTier.getStats());
+            stats.put("invalidationStats", invalidationBus.getStats());
+            stats.put("warmupStats", cacheWarmupService.getStats());
+            stats.put("refreshAheadStats", refreshAheadScheduler.getStats());
+            stats.put("namespaceStats", cacheNamespace.getStats());
+            stats.put("localizationStats", conditionLocalizer.getStats());
+            stats.put("heavyHitterStats", heavyHitterTracker.getStats());
+            stats.put("derivedViewStats", derivedViewCache.getStats());
+            stats.put("knownCityStats", knownCityFilter.getStats());
             return stats;
+        })
+        .flatMap(stats -> {
+            logger.info("Getting Redis info...");
+            return redisCacheTier.info()
+                    .map(redisInfo -> {
+                        stats.put("redisInfo", redisInfo);
+                        stats.put("cacheAvailable", true);
+                        logger.info("=== CacheStatisticsService.getCacheStats END (SUCCESS) ===");
+                        return stats;
+                    })
+                    .onErrorResume(e -> {
+                        logger.error("Error getting cache stats: {}", e.getMessage(), e);
+                        stats.put("cacheAvailable", false);
+                        stats.put("error", e.getMessage());
+                        logger.info("=== CacheStatisticsService.getCacheStats END (ERROR) ===");
+                        return Mono.just(stats);
+                    });
         });
     }
     
@@ -70,28 +120,22 @@ public class CacheStatisticsService {
      */
     public Mono<Map<String, Boolean>> getCacheHealth() {
         logger.info("=== CacheStatisticsService.getCacheHealth START ===");
-        return Mono.fromCallable(() -> {
-            Map<String, Boolean> health = new HashMap<>();
-            
-            // Check local cache
-            logger.info("Checking local cache health...");
-            health.put("localCacheAvailable", true); // Local cache is always available
-            logger.info("Local cache is available");
-            
-            // Check Redis cache
-            logger.info("Checking Redis cache health...");
-            try {
-                redisTemplate.getConnectionFactory().getConnection().ping();
-                health.put("redisCacheAvailable", true);
-                logger.info("Redis cache is available");
-            } catch (Exception e) {
-                logger.warn("Redis cache not available: {}", e.getMessage());
-                health.put("redisCacheAvailable", false);
-            }
-            
-            logger.info("=== CacheStatisticsService.getCacheHealth END ===");
-            return health;
-        });
+        
+        // Check Redis cache
+        logger.info("Checking Redis cache health...");
+        return redisCacheTier.ping()
+                .map(redisAvailable -> {
+                    Map<String, Boolean> health = new HashMap<>();
+                    health.put("localCacheAvailable", true); // Local cache is always available
+                    health.put("redisCacheAvailable", redisAvailable);
+                    if (redisAvailable) {
+                        logger.info("Redis cache is available");
+                    } else {
+                        logger.warn("Redis cache not available");
+                    }
+                    logger.info("=== CacheStatisticsService.getCacheHealth END ===");
+                    return health;
+                });
     }
     
     /**
@@ -103,41 +147,23 @@ public class CacheStatisticsService {
         Cache localForecastCache = localCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST);
         
         if (localCurrentCache != null) {
-            Object nativeCache = localCurrentCache.getNativeCache();
-            if (nativeCache instanceof java.util.concurrent.ConcurrentHashMap) {
-                java.util.concurrent.ConcurrentHashMap<?, ?> map = (java.util.concurrent.ConcurrentHashMap<?, ?>) nativeCache;
-                Map<String, Object> cacheStats = new HashMap<>();
-                cacheStats.put("size", map.size());
-                cacheStats.put("cacheName", localCurrentCache.getName());
+            if (localCurrentCache.getNativeCache() instanceof BoundedLocalCache boundedCache) {
+                Map<String, Object> cacheStats = boundedCache.getStats();
                 stats.put("localCurrentStats", cacheStats);
-                logger.info("Local current cache stats retrieved - Size: {}", map.size());
+                logger.info("Local current cache stats retrieved - Size: {}", cacheStats.get("size"));
             }
         } else {
             logger.warn("Local current cache is null");
         }
         
         if (localForecastCache != null) {
-            Object nativeCache = localForecastCache.getNativeCache();
-            if (nativeCache instanceof java.util.concurrent.ConcurrentHashMap) {
-                java.util.concurrent.ConcurrentHashMap<?, ?> map = (java.util.concurrent.ConcurrentHashMap<?, ?>) nativeCache;
-                Map<String, Object> cacheStats = new HashMap<>();
-                cacheStats.put("size", map.size());
-                cacheStats.put("cacheName", localForecastCache.getName());
+            if (localForecastCache.getNativeCache() instanceof BoundedLocalCache boundedCache) {
+                Map<String, Object> cacheStats = boundedCache.getStats();
                 stats.put("localForecastStats", cacheStats);
-                logger.info("Local forecast cache stats retrieved - Size: {}", map.size());
+                logger.info("Local forecast cache stats retrieved - Size: {}", cacheStats.get("size"));
             }
         } else {
             logger.warn("Local forecast cache is null");
         }
     }
-    
-    /**
-     * Adds Redis information to the stats map
-     * @param stats the stats map to populate
-     */
-    private void addRedisInfo(Map<String, Object> stats) {
-        java.util.Properties redisInfo = redisTemplate.getConnectionFactory().getConnection().serverCommands().info();
-        stats.put("redisInfo", redisInfo);
-        logger.info("Redis info retrieved");
-    }
-} 
\ No newline at end of file
+}
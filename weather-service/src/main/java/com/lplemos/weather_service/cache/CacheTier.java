@@ -0,0 +1,21 @@
+package com.lplemos.weather_service.cache;
+
+/**
+ * Tiers of the hierarchical cache, used as the "tier" metric tag
+ */
+public enum CacheTier {
+
+    L1("l1"),
+    L2("l2"),
+    PROVIDER("provider");
+
+    private final String tag;
+
+    CacheTier(String tag) {
+        this.tag = tag;
+    }
+
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,50 @@
+package com.lplemos.weather_service.cache;
+
+import java.util.Map;
+
+/**
+ * Weather payload as stored in the hierarchical cache tiers
+ * Carries the time the payload was fetched from the provider so readers can
+ * tell fresh, stale (servable while revalidating) and expired entries apart.
+ * An entry with an empty payload is a negative entry: the provider reported the
+ * location as not found
+ */
+public record CachedWeather(
+    Map<String, Object> data,
+    long fetchedAt
+) {
+
+    /**
+     * Wraps a payload fetched from the provider just now
+     * @param data the provider payload
+     * @return cache entry stamped with the current time
+     */
+    public static CachedWeather fetchedNow(Map<String, Object> data) {
+        return new CachedWeather(data, System.currentTimeMillis());
+    }
+
+    /**
+     * Creates a negative entry for a location the provider does not know
+     * @return empty entry stamped with the current time
+     */
+    public static CachedWeather notFound() {
+        return new CachedWeather(Map.of(), System.currentTimeMillis());
+    }
+
+    /**
+     * Checks whether this is a negative entry
+     * @return true when the provider reported the location as not found
+     */
+    public boolean isNegative() {
+        return data.isEmpty();
+    }
+
+    /**
+     * Gets the age of the payload
+     * @param now current time in epoch milliseconds
+     * @return milliseconds elapsed since the payload was fetched
+     */
+    public long ageMillis(long now) {
+        return now - fetchedAt;
+    }
+}
@@ -0,0 +1,101 @@
+package com.lplemos.weather_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherResponse;
+import com.lplemos.weather_service.model.WeatherSummary;
+import com.lplemos.weather_service.service.WeatherServiceConstants;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Memoized typed views of cached current-weather payloads
+ * The structured and summary endpoints are served from the same cached payload as the raw
+ * endpoint; the structured response derived from it is kept per key together with the fetch time
+ * of the entry it came from. A hit requires the same fetch time, so a refreshed entry is converted
+ * again and no explicit invalidation is needed, while copies of the same entry (a localized payload,
+ * an entry reloaded from Redis or from disk) still hit. Entries without a fetch time are never
+ * memoized. Summaries are built from the memoized response on every call, so their timestamp is
+ * the time they are served. Memos live in a {@link BoundedLocalCache} sized and timed like the
+ * local current-weather cache
+ */
+@Component
+public class DerivedViewCache {
+
+    private final ObjectMapper objectMapper;
+    private final long maximumSize;
+    private final BoundedLocalCache memos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DerivedViewCache(CacheProperties cacheProperties, ObjectMapper objectMapper, CoarseClock clock) {
+        CacheProperties.CacheSpec spec = cacheProperties.getCacheSpec(WeatherServiceConstants.CACHE_WEATHER_CURRENT);
+        this.objectMapper = objectMapper;
+        this.maximumSize = spec.getMaximumSize();
+        this.memos = new BoundedLocalCache("derived-views", spec.getHardTtl(), maximumSize, clock);
+    }
+
+    /**
+     * Gets the structured response for a cached current-weather payload
+     * @param key the key the payload was looked up with
+     * @param fetchedAt fetch time of the cache entry holding the payload
+     * @param data supplier of the payload, only called when the view has to be derived
+     * @return the structured response
+     */
+    public WeatherResponse weatherResponse(WeatherCacheKey key, long fetchedAt, Supplier<Map<String, Object>> data) {
+        if (fetchedAt == 0L) {
+            // Legacy entries all share fetch time 0, so it cannot tell their payloads apart
+            misses.increment();
+            return derive(data.get());
+        }
+        if (memos.get(key, Memo.class) instanceof Memo memo && memo.fetchedAt() == fetchedAt) {
+            hits.increment();
+            return memo.response();
+        }
+        misses.increment();
+        WeatherResponse response = derive(data.get());
+        // Best effort: a racing derivation of an older entry only costs the next caller a miss
+        if (!(memos.get(key, Memo.class) instanceof Memo current) || current.fetchedAt() <= fetchedAt) {
+            memos.put(key, new Memo(fetchedAt, response));
+        }
+        return response;
+    }
+
+    /**
+     * Gets the summary for a cached current-weather payload, stamped with the current time
+     * @param key the key the payload was looked up with
+     * @param fetchedAt fetch time of the cache entry holding the payload
+     * @param data supplier of the payload, only called when the view has to be derived
+     * @return the summary
+     */
+    public WeatherSummary weatherSummary(WeatherCacheKey key, long fetchedAt, Supplier<Map<String, Object>> data) {
+        return WeatherSummary.fromWeatherResponse(weatherResponse(key, fetchedAt, data));
+    }
+
+    /**
+     * Gets memo hit and miss counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", memos.size());
+        stats.put("maximumSize", maximumSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+
+    private WeatherResponse derive(Map<String, Object> payload) {
+        return objectMapper.convertValue(payload, WeatherResponse.class);
+    }
+
+    private record Memo(long fetchedAt, WeatherResponse response) {
+    }
+}
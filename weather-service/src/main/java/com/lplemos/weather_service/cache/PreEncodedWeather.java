@@ -0,0 +1,132 @@
+package com.lplemos.weather_service.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only weather payload that carries its own encoded JSON response body
+ * Stored as the data of local cache entries when pre-encoding is enabled: the JSON bytes (and a
+ * gzip variant for larger payloads) are produced on the first hit and reused by every later hit,
+ * so the response writer copies bytes instead of walking the object graph. The bytes belong to
+ * the entry object, so replacing or evicting the entry discards them as well.
+ * The payload is deep-copied into unmodifiable maps and lists when wrapped, so the bytes can never
+ * drift from the data: neither the caller's payload nor readers of this map can change it later
+ */
+public final class PreEncodedWeather extends AbstractMap<String, Object> {
+
+    private final Map<String, Object> data;
+    private final int gzipMinSize;
+    private volatile byte[] json;
+    private volatile byte[] gzip;
+
+    private PreEncodedWeather(Map<String, Object> data, int gzipMinSize) {
+        this.data = immutableMap(data);
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    /**
+     * Wraps a payload, unless it already is pre-encoded
+     * @param data the payload
+     * @param gzipMinSize smallest JSON body, in bytes, that also gets a gzip variant
+     * @return the pre-encoded payload
+     */
+    public static PreEncodedWeather of(Map<String, Object> data, int gzipMinSize) {
+        return data instanceof PreEncodedWeather preEncoded ? preEncoded : new PreEncodedWeather(data, gzipMinSize);
+    }
+
+    /**
+     * Gets the JSON body, encoding it on first use
+     * @param objectMapper the mapper of the JSON encoder, so pre-encoded and regular bodies are identical
+     * @return the JSON bytes; callers must not modify the array
+     */
+    public byte[] json(ObjectMapper objectMapper) {
+        byte[] bytes = json;
+        if (bytes == null) {
+            try {
+                bytes = objectMapper.writeValueAsBytes(data);
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException("Failed to pre-encode weather payload", e);
+            }
+            json = bytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Gets the gzip-compressed JSON body, compressing it on first use
+     * @param objectMapper the mapper of the JSON encoder
+     * @return the gzip bytes, or null when the body is too small to be worth compressing
+     */
+    public byte[] gzip(ObjectMapper objectMapper) {
+        byte[] bytes = gzip;
+        if (bytes == null) {
+            byte[] body = json(objectMapper);
+            if (body.length < gzipMinSize) {
+                return null;
+            }
+            bytes = compress(body);
+            gzip = bytes;
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return data.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return data.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return data.entrySet();
+    }
+
+    private static Map<String, Object> immutableMap(Map<?, ?> map) {
+        Map<String, Object> copy = new LinkedHashMap<>(map.size() * 2);
+        map.forEach((key, value) -> copy.put(String.valueOf(key), immutableValue(value)));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static Object immutableValue(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            return immutableMap(map);
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(element -> copy.add(immutableValue(element)));
+            return Collections.unmodifiableList(copy);
+        }
+        return value;
+    }
+
+    private static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress weather payload", e);
+        }
+        return out.toByteArray();
+    }
+}
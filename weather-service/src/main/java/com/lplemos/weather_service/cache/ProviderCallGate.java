@@ -0,0 +1,35 @@
+package com.lplemos.weather_service.cache;
+
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * Hook a caller puts in the Reactor context to be held back before each provider call
+ * Cache hits never reach the gate, so a caller pacing its own load (such as the warm-up)
+ * spends its budget on provider calls only
+ */
+@FunctionalInterface
+public interface ProviderCallGate {
+
+    /**
+     * Completes once the next provider call may start
+     */
+    Mono<Void> acquire();
+
+    /**
+     * Adds this gate to a subscriber context
+     */
+    default Context putIn(Context context) {
+        return context.put(ProviderCallGate.class, this);
+    }
+
+    /**
+     * Waits on the gate found in the subscriber context, if any
+     * @return Mono completing immediately when no gate is set
+     */
+    static Mono<Void> awaitFromContext() {
+        return Mono.deferContextual(context -> context.<ProviderCallGate>getOrEmpty(ProviderCallGate.class)
+                .map(ProviderCallGate::acquire)
+                .orElse(Mono.empty()));
+    }
+}
@@ -0,0 +1,129 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-flight registry that coalesces concurrent loads of the same cache key
+ * The first caller (leader) triggers the load; every caller that arrives while it is
+ * still running subscribes to the same shared Mono instead of starting another one.
+ * The key is released before the result is emitted, and the result is kept with the shared
+ * Mono, so a caller that picked it up just before completion gets the result instead of
+ * starting a second load
+ */
+@Component
+public class SingleFlightRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightRegistry.class);
+
+    private final ConcurrentHashMap<Object, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private final CacheProperties.SingleFlight properties;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+
+    public SingleFlightRegistry(CacheProperties cacheProperties) {
+        this.properties = cacheProperties.getSingleFlight();
+    }
+
+    /**
+     * Runs the loader for the given key, or joins the load already in flight for it
+     * Errors and timeouts are delivered to every waiter and the key is released so the
+     * next call retries; the upstream is only cancelled once every waiter has cancelled
+     * @param key the cache key identifying the load
+     * @param loader supplier of the Mono performing the actual load
+     * @return Mono shared by all concurrent callers for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> execute(Object key, Supplier<Mono<T>> loader) {
+        if (!properties.isEnabled()) {
+            return Mono.defer(loader);
+        }
+        return Mono.defer(() -> {
+            boolean[] created = new boolean[1];
+            Mono<?> shared = inFlight.computeIfAbsent(key, k -> {
+                created[0] = true;
+                return createShared(k, loader);
+            });
+            if (created[0]) {
+                leaders.increment();
+            } else {
+                coalesced.increment();
+                logger.debug("Coalesced load for key: {}", key);
+            }
+            return (Mono<T>) shared;
+        });
+    }
+
+    /**
+     * Checks whether a load is currently running for the given key
+     * @param key the cache key
+     * @return true if a load is in flight
+     */
+    public boolean isInFlight(Object key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * Gets coalescing counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("inFlight", inFlight.size());
+        stats.put("loads", leaders.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("cancellations", cancellations.sum());
+        return stats;
+    }
+
+    private <T> Mono<T> createShared(Object key, Supplier<Mono<T>> loader) {
+        AtomicReference<Mono<T>> self = new AtomicReference<>();
+        AtomicReference<Signal<T>> result = new AtomicReference<>();
+        Mono<Signal<T>> load = Mono.defer(loader)
+                .timeout(properties.getTimeout())
+                .doOnError(error -> {
+                    if (error instanceof TimeoutException) {
+                        timeouts.increment();
+                        logger.warn("In-flight load timed out after {} for key: {}", properties.getTimeout(), key);
+                    } else {
+                        failures.increment();
+                    }
+                })
+                .materialize()
+                // Runs before the shared Mono emits, so no caller can join a finished load
+                .doOnNext(signal -> {
+                    result.set(signal);
+                    inFlight.remove(key, self.get());
+                })
+                .doOnCancel(() -> {
+                    cancellations.increment();
+                    inFlight.remove(key, self.get());
+                })
+                .share();
+        Mono<T> shared = Mono.defer(() -> {
+            Signal<T> done = result.get();
+            return done != null ? Mono.just(done) : load;
+        }).dematerialize();
+        self.set(shared);
+        return shared;
+    }
+}
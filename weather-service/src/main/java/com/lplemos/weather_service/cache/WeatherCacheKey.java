@@ -0,0 +1,221 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.cache.geo.GeoCell;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import com.lplemos.weather_service.service.WeatherServiceConstants;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable key of a hierarchical cache entry
+ * Identifies the kind of payload, the location (normalized city name, geohash cell or exact
+ * coordinates), the provider, the language and the units. The hash code is computed once and
+ * the string form used for Redis keys and invalidation messages is built lazily, so local cache
+ * hits never allocate a key string. The target cache is a property of the kind
+ */
+public final class WeatherCacheKey {
+
+    private static final String SEPARATOR = "|";
+    private static final String CITY_PREFIX = "city:";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Payload kinds and the cache each one lives in
+     */
+    public enum Kind {
+
+        CURRENT("current", WeatherServiceConstants.CACHE_WEATHER_CURRENT),
+        FORECAST("forecast", WeatherServiceConstants.CACHE_WEATHER_FORECAST);
+
+        private final String code;
+        private final String cacheName;
+
+        Kind(String code, String cacheName) {
+            this.code = code;
+            this.cacheName = cacheName;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public String getCacheName() {
+            return cacheName;
+        }
+
+        static Kind fromCode(String code) {
+            for (Kind kind : values()) {
+                if (kind.code.equals(code)) {
+                    return kind;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cache key kind: " + code);
+        }
+    }
+
+    private final Kind kind;
+    private final String location;
+    private final WeatherProviderType provider;
+    private final String language;
+    private final String units;
+    private final int hash;
+    private String asString;
+
+    private WeatherCacheKey(Kind kind, String location, WeatherProviderType provider, String language, String units) {
+        this.kind = Objects.requireNonNull(kind, "kind");
+        this.location = Objects.requireNonNull(location, "location");
+        this.provider = Objects.requireNonNull(provider, "provider");
+        this.language = normalizeCode(language, WeatherServiceConstants.DEFAULT_LANGUAGE);
+        this.units = normalizeCode(units, WeatherServiceConstants.DEFAULT_UNITS);
+        int result = kind.ordinal();
+        result = 31 * result + location.hashCode();
+        result = 31 * result + provider.ordinal();
+        result = 31 * result + this.language.hashCode();
+        result = 31 * result + this.units.hashCode();
+        this.hash = result;
+    }
+
+    /**
+     * Creates a key for a city name lookup; case, accents composition and whitespace
+     * variants of the same name produce the same key
+     */
+    public static WeatherCacheKey city(Kind kind, String cityName, WeatherProviderType provider, String language, String units) {
+        return new WeatherCacheKey(kind, cityLocation(cityName), provider, language, units);
+    }
+
+    /**
+     * Gets the location of a city name lookup, as used in keys and the location index
+     * @param cityName the city name as received
+     * @return location such as "city:lisboa"
+     */
+    public static String cityLocation(String cityName) {
+        return CITY_PREFIX + normalizeCity(cityName);
+    }
+
+    /**
+     * Checks whether a location is a city name location
+     * @param location a key or index location
+     * @return true for locations such as "city:lisboa"
+     */
+    public static boolean isCityLocation(String location) {
+        return location.startsWith(CITY_PREFIX);
+    }
+
+    /**
+     * Creates a key for a provider city ID lookup
+     */
+    public static WeatherCacheKey cityId(Kind kind, int cityId, WeatherProviderType provider, String language, String units) {
+        return new WeatherCacheKey(kind, "id:" + cityId, provider, language, units);
+    }
+
+    /**
+     * Creates a key for a coordinate lookup snapped to a geohash cell
+     */
+    public static WeatherCacheKey cell(Kind kind, GeoCell cell, WeatherProviderType provider, String language, String units) {
+        return new WeatherCacheKey(kind, "geo:" + cell.geohash(), provider, language, units);
+    }
+
+    /**
+     * Creates a key for an exact coordinate lookup
+     */
+    public static WeatherCacheKey coordinates(Kind kind, double lat, double lon, WeatherProviderType provider, String language, String units) {
+        return new WeatherCacheKey(kind, String.format(Locale.ROOT, "coords:%.6f,%.6f", lat, lon), provider, language, units);
+    }
+
+    /**
+     * Parses the string form produced by {@link #asString()}
+     * @param value the string form
+     * @return the key
+     */
+    public static WeatherCacheKey parse(String value) {
+        String[] parts = value.split(Pattern.quote(SEPARATOR), -1);
+        if (parts.length != 5) {
+            throw new IllegalArgumentException("Malformed cache key: " + value);
+        }
+        return new WeatherCacheKey(Kind.fromCode(parts[0]), parts[1], WeatherProviderType.fromCode(parts[2]), parts[3], parts[4]);
+    }
+
+    /**
+     * Normalizes a city name: NFC, trimmed, inner whitespace collapsed, lower case
+     * @param cityName the city name as received
+     * @return the normalized name
+     */
+    public static String normalizeCity(String cityName) {
+        String composed = Normalizer.normalize(cityName, Normalizer.Form.NFC).trim();
+        return WHITESPACE.matcher(composed).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static String normalizeCode(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    public String location() {
+        return location;
+    }
+
+    public WeatherProviderType provider() {
+        return provider;
+    }
+
+    public String language() {
+        return language;
+    }
+
+    public String units() {
+        return units;
+    }
+
+    /**
+     * Gets the name of the cache this key belongs to
+     */
+    public String cacheName() {
+        return kind.getCacheName();
+    }
+
+    /**
+     * Gets the string form used for Redis keys and invalidation messages:
+     * kind|location|provider|language|units
+     */
+    public String asString() {
+        String value = asString;
+        if (value == null) {
+            value = kind.getCode() + SEPARATOR + location + SEPARATOR + provider.getCode()
+                + SEPARATOR + language + SEPARATOR + units;
+            asString = value;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WeatherCacheKey other)) {
+            return false;
+        }
+        return hash == other.hash
+            && kind == other.kind
+            && provider == other.provider
+            && location.equals(other.location)
+            && language.equals(other.language)
+            && units.equals(other.units);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return asString();
+    }
+}
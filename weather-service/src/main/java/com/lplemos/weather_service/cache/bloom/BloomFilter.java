@@ -0,0 +1,145 @@
+package com.lplemos.weather_service.cache.bloom;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed-size Bloom filter over strings
+ * Bits are laid out as in a Redis bitmap (bit i is the most significant bit first of byte i / 8),
+ * so {@link #toBytes()} can be stored with SET and combined with BITOP, and {@link #positions(String)}
+ * are valid SETBIT offsets. Positions come from a 64-bit FNV-1a hash split into two halves for
+ * double hashing; the hash does not depend on the JVM, so every node computes the same positions
+ */
+public final class BloomFilter {
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final long bitCount;
+    private final int hashCount;
+    private final byte[] bits;
+
+    private BloomFilter(byte[] bits, int hashCount) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length * 8;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates an empty filter sized for a number of insertions at a false positive rate
+     * @param expectedInsertions number of distinct values expected
+     * @param falsePositiveRate wanted false positive rate once that many values were added
+     */
+    public static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(expectedInsertions, 1);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int bytes = (int) Math.min((m + 7) / 8, Integer.MAX_VALUE - 8);
+        int k = (int) Math.max(1, Math.round((double) bytes * 8 / n * Math.log(2)));
+        return new BloomFilter(new byte[bytes], k);
+    }
+
+    /**
+     * Creates a filter of the same size and hash count holding a copy of the given bits
+     * @param bits bitmap as returned by {@link #toBytes()}
+     */
+    public BloomFilter withBits(byte[] bits) {
+        BloomFilter filter = new BloomFilter(new byte[this.bits.length], hashCount);
+        filter.merge(bits);
+        return filter;
+    }
+
+    /**
+     * Adds a value
+     * @return true when at least one bit changed, i.e. the value was definitely not present before
+     */
+    public synchronized boolean put(String value) {
+        boolean changed = false;
+        for (long position : positions(value)) {
+            int index = (int) (position >>> 3);
+            int mask = 0x80 >>> (int) (position & 7);
+            if ((bits[index] & mask) == 0) {
+                bits[index] |= (byte) mask;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks whether a value may have been added
+     * @return false when the value was definitely never added
+     */
+    public synchronized boolean mightContain(String value) {
+        for (long position : positions(value)) {
+            if ((bits[(int) (position >>> 3)] & (0x80 >>> (int) (position & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the bit offsets a value sets
+     */
+    public long[] positions(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        long[] positions = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            positions[i] = Math.floorMod(h1 + i * h2, bitCount);
+        }
+        return positions;
+    }
+
+    /**
+     * ORs another bitmap into this filter; bytes past the end of either bitmap are ignored
+     */
+    public synchronized void merge(byte[] other) {
+        int length = Math.min(bits.length, other.length);
+        for (int i = 0; i < length; i++) {
+            bits[i] |= other[i];
+        }
+    }
+
+    /**
+     * Gets a copy of the bitmap
+     */
+    public synchronized byte[] toBytes() {
+        return Arrays.copyOf(bits, bits.length);
+    }
+
+    /**
+     * Gets the share of bits set; the false positive rate is roughly this to the power of the hash count
+     */
+    public synchronized double fillRatio() {
+        long set = 0;
+        for (byte b : bits) {
+            set += Integer.bitCount(b & 0xFF);
+        }
+        return (double) set / bitCount;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    public int byteSize() {
+        return bits.length;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return z ^ (z >>> 33);
+    }
+}
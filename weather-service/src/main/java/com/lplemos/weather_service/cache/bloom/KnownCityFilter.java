@@ -0,0 +1,288 @@
+package com.lplemos.weather_service.cache.bloom;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.redis.RedisCacheTier;
+import com.lplemos.weather_service.cache.refresh.ProviderCallBudget;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.exception.CityNotFoundException;
+import com.lplemos.weather_service.exception.WeatherServiceException;
+import com.lplemos.weather_service.repository.CityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReactiveStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.BitOperation;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Probabilistic set of city names known to exist
+ * A {@link BloomFilter} of city locations (e.g. "city:lisboa") built from the cities table every
+ * rebuild-interval and extended with the names of successful provider responses. Nodes share one
+ * copy in Redis: a rebuild ORs the freshly built filter into the shared bitmap and loads the result,
+ * and learned names are set in the shared bitmap straight away, so a name one node learned is known
+ * everywhere after the next rebuild. Once the shared bitmap is too full it is reset from the table.
+ * Lookups of names the filter has definitely never seen follow the {@link UnknownCityPolicy}, so
+ * junk names cannot spend provider quota at the rate of real lookups. Until the first rebuild
+ * completes every lookup is admitted
+ */
+@Component
+public class KnownCityFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(KnownCityFilter.class);
+
+    /**
+     * SETBIT every offset in ARGV on the shared bitmap
+     */
+    private static final RedisScript<Long> LEARN_SCRIPT = RedisScript.of(
+        "for i = 1, #ARGV do redis.call('SETBIT', KEYS[1], ARGV[i], 1) end " +
+        "return #ARGV",
+        Long.class);
+
+    private final CityRepository cityRepository;
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final ProviderCallBudget providerCallBudget;
+    private final CacheProperties.KnownCities properties;
+    private final CacheProperties.Redis redisProperties;
+    private volatile BloomFilter filter;
+    private volatile Disposable ticker;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder unseen = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder learned = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private final LongAdder rebuildFailures = new LongAdder();
+    private final LongAdder sharedFailures = new LongAdder();
+    private final LongAdder resets = new LongAdder();
+
+    public KnownCityFilter(CityRepository cityRepository, ReactiveStringRedisTemplate redisTemplate,
+                           ProviderCallBudget providerCallBudget, CacheProperties cacheProperties) {
+        this.cityRepository = cityRepository;
+        this.redisTemplate = redisTemplate;
+        this.providerCallBudget = providerCallBudget;
+        this.properties = cacheProperties.getKnownCities();
+        this.redisProperties = cacheProperties.getRedis();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Known-city filter disabled");
+            return;
+        }
+        logger.info("Starting known-city filter: policy {}, rebuild every {}",
+            properties.getPolicy(), properties.getRebuildInterval());
+        ticker = Flux.interval(Duration.ZERO, properties.getRebuildInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> rebuild(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Checks whether a lookup may go to the provider
+     * @param key the cache key about to be loaded
+     * @return empty Mono when admitted; CityNotFoundException (REJECT) or a 429
+     *         WeatherServiceException (LOW_PRIORITY, budget used up) for unseen names. When the
+     *         budget cannot be read within the Redis read timeout the lookup is admitted
+     */
+    public Mono<Void> admit(WeatherCacheKey key) {
+        BloomFilter current = filter;
+        String location = key.location();
+        if (!properties.isEnabled() || current == null || !WeatherCacheKey.isCityLocation(location)) {
+            return Mono.empty();
+        }
+        checks.increment();
+        if (current.mightContain(location)) {
+            return Mono.empty();
+        }
+        unseen.increment();
+        return switch (properties.getPolicy()) {
+            case OFF -> Mono.empty();
+            case REJECT -> {
+                rejected.increment();
+                logger.debug("Rejecting unknown city: {}", location);
+                yield Mono.error(new CityNotFoundException(location.substring(location.indexOf(':') + 1)));
+            }
+            case LOW_PRIORITY -> providerCallBudget.tryAcquireOrAllow(properties.getUnknownBudgetKey(),
+                    properties.getUnknownCallsPerWindow(), properties.getUnknownWindow(), redisProperties.getReadTimeout())
+                    .flatMap(granted -> {
+                        if (granted) {
+                            return Mono.<Void>empty();
+                        }
+                        throttled.increment();
+                        logger.debug("Throttling unknown city: {}", location);
+                        return Mono.<Void>error(new WeatherServiceException(
+                            "Too many lookups of unknown cities, try again later", "UNKNOWN_CITY_THROTTLED", 429));
+                    });
+        };
+    }
+
+    /**
+     * Adds the city names of a successful provider response, locally and to the shared bitmap
+     * @param key the cache key that was loaded
+     * @param entry the provider response
+     */
+    public void learn(WeatherCacheKey key, CachedWeather entry) {
+        BloomFilter current = filter;
+        if (!properties.isEnabled() || current == null || entry.isNegative()) {
+            return;
+        }
+        List<String> offsets = new ArrayList<>();
+        for (String location : RedisCacheTier.indexLocations(key, entry)) {
+            if (WeatherCacheKey.isCityLocation(location) && current.put(location)) {
+                learned.increment();
+                for (long position : current.positions(location)) {
+                    offsets.add(Long.toString(position));
+                }
+            }
+        }
+        if (offsets.isEmpty()) {
+            return;
+        }
+        redisTemplate.execute(LEARN_SCRIPT, List.of(properties.getRedisKey()), offsets)
+                .timeout(redisProperties.getWriteTimeout())
+                .subscribe(
+                    set -> { },
+                    error -> {
+                        sharedFailures.increment();
+                        logger.debug("Known-city learn write failed: {}", error.getMessage());
+                    });
+    }
+
+    /**
+     * Builds a fresh filter from the cities table, merges it with the shared copy and installs the
+     * result; when Redis is unavailable the fresh filter is merged with the local one instead
+     */
+    Mono<Void> rebuild() {
+        BloomFilter fresh = BloomFilter.create(properties.getExpectedInsertions(), properties.getFalsePositiveRate());
+        return cityRepository.findAll()
+                .doOnNext(city -> fresh.put(WeatherCacheKey.cityLocation(city.name())))
+                .then(Mono.defer(() -> share(fresh)
+                        .onErrorResume(error -> {
+                            sharedFailures.increment();
+                            logger.warn("Shared known-city filter unavailable, using local copy: {}", error.getMessage());
+                            return Mono.fromSupplier(() -> mergeLocal(fresh));
+                        })))
+                .doOnNext(result -> {
+                    filter = result;
+                    rebuilds.increment();
+                    logger.debug("Known-city filter rebuilt, fill ratio {}", result.fillRatio());
+                })
+                .onErrorResume(error -> {
+                    rebuildFailures.increment();
+                    logger.warn("Known-city filter rebuild failed: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Gets filter counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        BloomFilter current = filter;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("policy", properties.getPolicy().name());
+        stats.put("ready", current != null);
+        if (current != null) {
+            stats.put("bitCount", current.bitCount());
+            stats.put("hashCount", current.hashCount());
+            stats.put("fillRatio", current.fillRatio());
+        }
+        stats.put("checks", checks.sum());
+        stats.put("unseen", unseen.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("learned", learned.sum());
+        stats.put("rebuilds", rebuilds.sum());
+        stats.put("rebuildFailures", rebuildFailures.sum());
+        stats.put("sharedFailures", sharedFailures.sum());
+        stats.put("resets", resets.sum());
+        return stats;
+    }
+
+    /**
+     * ORs the fresh filter into the shared bitmap through a temporary key and loads the merged bits.
+     * A shared bitmap of another size (settings changed) or past max-fill-ratio is replaced. The
+     * temporary key extends the shared one, so with a hash tag in redis-key both are in the same
+     * Redis Cluster slot as BITOP requires
+     */
+    private Mono<BloomFilter> share(BloomFilter fresh) {
+        byte[] freshBytes = fresh.toBytes();
+        String tmpKey = properties.getRedisKey() + ":rebuild:" + UUID.randomUUID();
+        return redisTemplate.execute(connection -> {
+                    ReactiveStringCommands commands = connection.stringCommands();
+                    return commands.set(buffer(tmpKey), ByteBuffer.wrap(freshBytes),
+                                    Expiration.from(properties.getRebuildInterval()), SetOption.UPSERT)
+                            .then(commands.bitOp(List.of(buffer(properties.getRedisKey()), buffer(tmpKey)),
+                                BitOperation.OR, buffer(properties.getRedisKey())))
+                            .then(connection.keyCommands().del(buffer(tmpKey)))
+                            .then(commands.get(buffer(properties.getRedisKey())))
+                            .map(KnownCityFilter::bytes)
+                            .flatMap(shared -> {
+                                BloomFilter merged = fresh.withBits(shared);
+                                if (shared.length == freshBytes.length && merged.fillRatio() <= properties.getMaxFillRatio()) {
+                                    return Mono.just(merged);
+                                }
+                                resets.increment();
+                                logger.info("Resetting shared known-city filter from the cities table");
+                                return commands.set(buffer(properties.getRedisKey()), ByteBuffer.wrap(freshBytes))
+                                        .thenReturn(fresh.withBits(freshBytes));
+                            })
+                            .switchIfEmpty(Mono.fromSupplier(() -> fresh.withBits(freshBytes)));
+                })
+                .next()
+                .timeout(redisProperties.getReadTimeout());
+    }
+
+    /**
+     * Keeps names learned since the last rebuild when the shared copy cannot be used
+     */
+    private BloomFilter mergeLocal(BloomFilter fresh) {
+        BloomFilter previous = filter;
+        if (previous != null && previous.byteSize() == fresh.byteSize()) {
+            fresh.merge(previous.toBytes());
+        }
+        return fresh;
+    }
+
+    private static ByteBuffer buffer(String key) {
+        return ByteBuffer.wrap(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
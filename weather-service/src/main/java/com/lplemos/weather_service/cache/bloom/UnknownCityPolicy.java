@@ -0,0 +1,22 @@
+package com.lplemos.weather_service.cache.bloom;
+
+/**
+ * What happens to a lookup of a city name the known-city filter has never seen
+ */
+public enum UnknownCityPolicy {
+
+    /**
+     * Lookup proceeds as usual; the name is only counted
+     */
+    OFF,
+
+    /**
+     * Lookup shares a small cluster-wide call budget and fails with 429 once it is used up
+     */
+    LOW_PRIORITY,
+
+    /**
+     * Lookup fails with 404 without calling the provider
+     */
+    REJECT
+}
@@ -0,0 +1,179 @@
+package com.lplemos.weather_service.cache.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.config.CacheProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary codec for weather payloads stored in Redis
+ * Every value starts with a fixed header so that readers can decode any format or
+ * compression written by older or newer instances during a rollout:
+ * <pre>
+ * magic(1) | version(1) | format(1) | compression(1) | fetchedAt(8) | [rawLength(4)] | payload
+ * </pre>
+ * rawLength is only present for compressed payloads. The magic byte can never start a
+ * JSON document, which lets callers tell codec values apart from legacy JSON values
+ */
+@Component
+public class CacheValueCodec {
+
+    static final byte MAGIC = (byte) 0xB7;
+    static final byte VERSION = 1;
+    private static final int HEADER_LENGTH = 12;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final Map<CodecFormat, ObjectMapper> mappers = new EnumMap<>(CodecFormat.class);
+    private final CodecFormat format;
+    private final CodecCompression compression;
+    private final int compressionThreshold;
+
+    public CacheValueCodec(CacheProperties cacheProperties, ObjectMapper objectMapper) {
+        CacheProperties.Codec codec = cacheProperties.getCodec();
+        this.format = codec.getFormat();
+        this.compression = codec.getCompression();
+        this.compressionThreshold = codec.getCompressionThreshold();
+        // Both formats share the application's Jackson configuration
+        mappers.put(CodecFormat.JSON, objectMapper);
+        mappers.put(CodecFormat.SMILE, objectMapper.copyWith(new SmileFactory()));
+    }
+
+    /**
+     * Checks whether the bytes were written by this codec
+     * @param bytes the stored value
+     * @return true if the value starts with the codec header
+     */
+    public static boolean isEncoded(byte[] bytes) {
+        return bytes != null && bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC;
+    }
+
+    /**
+     * Encodes an entry with the configured format, compressing payloads above the threshold
+     * @param value the entry to encode
+     * @return header followed by the (possibly compressed) payload
+     */
+    public byte[] encode(CachedWeather value) {
+        byte[] payload = write(format, value.data());
+        CodecCompression applied = payload.length >= compressionThreshold ? compression : CodecCompression.NONE;
+        byte[] body = applied == CodecCompression.DEFLATE ? deflate(payload) : payload;
+        if (applied != CodecCompression.NONE && body.length >= payload.length) {
+            // Not worth it: store raw
+            applied = CodecCompression.NONE;
+            body = payload;
+        }
+
+        boolean compressed = applied != CodecCompression.NONE;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + (compressed ? 4 : 0) + body.length);
+        buffer.put(MAGIC)
+              .put(VERSION)
+              .put(format.getId())
+              .put(applied.getId())
+              .putLong(value.fetchedAt());
+        if (compressed) {
+            buffer.putInt(payload.length);
+        }
+        buffer.put(body);
+        return buffer.array();
+    }
+
+    /**
+     * Decodes an entry written by any supported format and compression
+     * @param bytes header followed by the payload
+     * @return the decoded entry
+     */
+    public CachedWeather decode(byte[] bytes) {
+        if (!isEncoded(bytes)) {
+            throw new IllegalArgumentException("Value does not carry a cache codec header");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.get(); // magic
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported cache value version: " + version);
+        }
+        CodecFormat valueFormat = CodecFormat.fromId(buffer.get());
+        CodecCompression valueCompression = CodecCompression.fromId(buffer.get());
+        long fetchedAt = buffer.getLong();
+
+        byte[] payload;
+        if (valueCompression == CodecCompression.NONE) {
+            payload = new byte[buffer.remaining()];
+            buffer.get(payload);
+        } else {
+            int rawLength = buffer.getInt();
+            byte[] body = new byte[buffer.remaining()];
+            buffer.get(body);
+            payload = inflate(body, rawLength);
+        }
+        return new CachedWeather(read(valueFormat, payload), fetchedAt);
+    }
+
+    private byte[] write(CodecFormat valueFormat, Map<String, Object> data) {
+        try {
+            return mappers.get(valueFormat).writeValueAsBytes(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode cache value as " + valueFormat, e);
+        }
+    }
+
+    private Map<String, Object> read(CodecFormat valueFormat, byte[] payload) {
+        try {
+            return mappers.get(valueFormat).readValue(payload, MAP_TYPE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode cache value as " + valueFormat, e);
+        }
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] body, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body);
+            byte[] payload = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int read = inflater.inflate(payload, offset, rawLength - offset);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += read;
+            }
+            if (offset != rawLength) {
+                throw new IllegalArgumentException("Truncated compressed cache value");
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lplemos.weather_service.cache.codec;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Redis value serializer backed by the binary cache value codec
+ * Weather entries are written in the codec format; any other value, and any stored value
+ * without the codec header (JSON written before the codec was introduced), goes through
+ * the legacy JSON serializer so both formats stay readable side by side
+ */
+public class CachedWeatherRedisSerializer implements RedisSerializer<Object> {
+
+    private final CacheValueCodec codec;
+    private final GenericJackson2JsonRedisSerializer legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    public CachedWeatherRedisSerializer(CacheValueCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value instanceof CachedWeather cachedWeather) {
+            try {
+                return codec.encode(cachedWeather);
+            } catch (RuntimeException e) {
+                throw new SerializationException("Could not encode cached weather", e);
+            }
+        }
+        return legacySerializer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (CacheValueCodec.isEncoded(bytes)) {
+            try {
+                return codec.decode(bytes);
+            } catch (RuntimeException e) {
+                throw new SerializationException("Could not decode cached weather", e);
+            }
+        }
+        return legacySerializer.deserialize(bytes);
+    }
+}
@@ -0,0 +1,30 @@
+package com.lplemos.weather_service.cache.codec;
+
+/**
+ * Payload compressions understood by the cache value codec
+ * The id is written to the value header, so ids must never be reused or renumbered
+ */
+public enum CodecCompression {
+
+    NONE((byte) 0),
+    DEFLATE((byte) 1);
+
+    private final byte id;
+
+    CodecCompression(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    static CodecCompression fromId(byte id) {
+        for (CodecCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache value compression id: " + id);
+    }
+}
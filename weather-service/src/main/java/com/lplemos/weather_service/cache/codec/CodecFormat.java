@@ -0,0 +1,30 @@
+package com.lplemos.weather_service.cache.codec;
+
+/**
+ * Payload encodings understood by the cache value codec
+ * The id is written to the value header, so ids must never be reused or renumbered
+ */
+public enum CodecFormat {
+
+    JSON((byte) 1),
+    SMILE((byte) 2);
+
+    private final byte id;
+
+    CodecFormat(byte id) {
+        this.id = id;
+    }
+
+    public byte getId() {
+        return id;
+    }
+
+    static CodecFormat fromId(byte id) {
+        for (CodecFormat format : values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown cache value format id: " + id);
+    }
+}
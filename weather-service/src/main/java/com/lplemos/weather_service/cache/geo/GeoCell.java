@@ -0,0 +1,43 @@
+package com.lplemos.weather_service.cache.geo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Geohash cell a coordinate lookup is snapped to
+ * Every point inside the cell shares the same cache entry and the provider is queried
+ * at the cell center
+ */
+public record GeoCell(
+    String geohash,
+    int precision,
+    double latitude,
+    double longitude
+) {
+
+    /**
+     * Snaps a point to its cell
+     * @param latitude latitude in degrees
+     * @param longitude longitude in degrees
+     * @param precision geohash length
+     * @return the cell containing the point
+     */
+    public static GeoCell snap(double latitude, double longitude, int precision) {
+        String geohash = GeoHash.encode(latitude, longitude, precision);
+        double[] center = GeoHash.decodeCenter(geohash);
+        return new GeoCell(geohash, precision, center[0], center[1]);
+    }
+
+    /**
+     * Gets the cell as reported in weather responses
+     * @return map with geohash, precision and cell center
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("geohash", geohash);
+        map.put("precision", precision);
+        map.put("lat", latitude);
+        map.put("lon", longitude);
+        return map;
+    }
+}
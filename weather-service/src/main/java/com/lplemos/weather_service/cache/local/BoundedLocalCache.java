@@ -0,0 +1,637 @@
+package com.lplemos.weather_service.cache.local;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Size-bounded local cache with W-TinyLFU admission and per-entry TTL
+ * New entries land in a small LRU admission window (1% of capacity); entries leaving the
+ * window compete with the main space's LRU victim and are only admitted when the frequency
+ * sketch says they are more popular, so one-hit wonders (scrapers, coordinate sweeps) cannot
+ * flush hot cities. The main space is a segmented LRU: probation (20%) and protected (80%).
+ * Reads are lock free: they are recorded in a lossy, striped ring buffer (a CAS per read, dropped
+ * when full or contended) that is replayed under the eviction lock.
+ * Expiry is driven by a hierarchical timer wheel advanced on writes and by periodic maintenance,
+ * and reads compare against a coarse clock, so there is no full-map cleanup scan.
+ */
+public class BoundedLocalCache implements Cache {
+
+    private static final int READ_DRAIN_THRESHOLD = 16;
+    private static final double WINDOW_PERCENT = 0.01;
+    private static final double PROTECTED_PERCENT = 0.80;
+    private static final int ADMIT_HASHDOS_THRESHOLD = 6;
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int DEAD = -1;
+
+    private final String name;
+    private final Duration ttl;
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final ToIntFunction<Object> weigher;
+    private final CoarseClock clock;
+
+    private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<Node> readBuffer = new ReadBuffer<>();
+    private final FrequencySketch sketch;
+
+    // Guarded by evictionLock
+    private final AccessOrderDeque window = new AccessOrderDeque();
+    private final AccessOrderDeque probation = new AccessOrderDeque();
+    private final AccessOrderDeque protectedQueue = new AccessOrderDeque();
+    private final TimerWheel timerWheel;
+    private long windowWeight;
+    private long protectedWeight;
+    private long weightedSize;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    /**
+     * Creates a cache bounded by entry count
+     */
+    public BoundedLocalCache(String name, Duration ttl, long maximumSize, CoarseClock clock) {
+        this(name, ttl, maximumSize, value -> 1, clock);
+    }
+
+    /**
+     * Creates a cache bounded by total weight as computed by the weigher
+     */
+    public BoundedLocalCache(String name, Duration ttl, long maximumWeight, ToIntFunction<Object> weigher,
+                             CoarseClock clock) {
+        if (maximumWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive for cache: " + name);
+        }
+        this.name = name;
+        this.ttl = ttl;
+        this.maximum = maximumWeight;
+        this.windowMaximum = Math.max(1, (long) (maximumWeight * WINDOW_PERCENT));
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * PROTECTED_PERCENT);
+        this.weigher = weigher;
+        this.clock = clock;
+        this.sketch = new FrequencySketch(maximumWeight);
+        this.timerWheel = new TimerWheel(clock.now(), this::expireNode);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Node node = data.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+        if (node.isExpired(clock.now())) {
+            removeExpired(node);
+            missCount.increment();
+            return null;
+        }
+        Object value = loadValue(node.value);
+        if (value == null) {
+            // Only possible while racing with the removal of the entry
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        afterRead(node);
+        return new SimpleValueWrapper(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        return wrapper != null ? (T) wrapper.get() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        put(key, value, ttl);
+    }
+
+    /**
+     * Stores a value with its own time to live instead of the cache default
+     */
+    public void put(Object key, Object value, Duration timeToLive) {
+        write(key, value, timeToLive, true);
+    }
+
+    /**
+     * Stores a value without calling {@link #onWrite}, for entries restored from a copy that already holds them
+     */
+    protected void restore(Object key, Object value, Duration timeToLive) {
+        write(key, value, timeToLive, false);
+    }
+
+    private void write(Object key, Object value, Duration timeToLive, boolean notify) {
+        Object stored = storeValue(value);
+        if (stored == null) {
+            // Could not be stored: drop the previous value rather than keep serving it
+            evictIfPresent(key);
+            return;
+        }
+        Node node = new Node(key, stored, weigher.applyAsInt(value), clock.now() + timeToLive.toMillis());
+        evictionLock.lock();
+        try {
+            Node prior = data.put(key, node);
+            int queue = WINDOW;
+            if (prior != null && prior.queue != DEAD) {
+                queue = prior.queue;
+                unlink(prior);
+            }
+            link(node, queue);
+            if (notify) {
+                onWrite(key, value, timeToLive);
+            }
+            timerWheel.schedule(node);
+            sketch.increment(key);
+            drainReadBuffer();
+            timerWheel.advance(clock.now());
+            evictEntries();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        evictionLock.lock();
+        try {
+            Node existing = data.get(key);
+            if (existing != null && !existing.isExpired(clock.now())) {
+                return new SimpleValueWrapper(loadValue(existing.value));
+            }
+            put(key, value);
+            return null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictIfPresent(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        evictionLock.lock();
+        try {
+            Node node = data.remove(key);
+            if (node == null) {
+                return false;
+            }
+            unlink(node);
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        evictionLock.lock();
+        try {
+            data.values().forEach(node -> {
+                if (node.queue != DEAD) {
+                    node.queue = DEAD;
+                    onRemoval(node.key, node.value);
+                }
+            });
+            data.clear();
+            readBuffer.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            timerWheel.clear();
+            windowWeight = 0;
+            protectedWeight = 0;
+            weightedSize = 0;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Replays buffered reads and advances the timer wheel, expiring entries whose TTL elapsed
+     * Cost is proportional to the entries expired, not to the cache size
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            timerWheel.advance(clock.now());
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of entries currently held
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * Gets the number of entries evicted to stay within capacity
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Gets the number of entries dropped after their time to live
+     */
+    public long getExpiredCount() {
+        return expiredCount.sum();
+    }
+
+    /**
+     * Gets size, capacity and hit/miss/eviction counters
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("cacheName", name);
+        stats.put("size", data.size());
+        evictionLock.lock();
+        try {
+            stats.put("weightedSize", weightedSize);
+        } finally {
+            evictionLock.unlock();
+        }
+        stats.put("maximumWeight", maximum);
+        stats.put("hitCount", hitCount.sum());
+        stats.put("missCount", missCount.sum());
+        stats.put("evictionCount", evictionCount.sum());
+        stats.put("evictionWeight", evictionWeight.sum());
+        stats.put("expiredCount", expiredCount.sum());
+        return stats;
+    }
+
+    /**
+     * Converts a value before it is stored; subclasses may move it out of the heap
+     * @param value the value passed to put
+     * @return the value to keep in the entry, or null when it cannot be stored
+     */
+    protected Object storeValue(Object value) {
+        return value;
+    }
+
+    /**
+     * Converts a stored value back into the value returned to readers
+     * @param stored the value kept in the entry
+     * @return the value, or null when it can no longer be read
+     */
+    protected Object loadValue(Object stored) {
+        return stored;
+    }
+
+    /**
+     * Called under the eviction lock for every value written, after the replaced value (if any)
+     * was reported to {@link #onRemoval} and before any eviction the write causes
+     * @param key the entry key
+     * @param value the value passed to put
+     * @param timeToLive the entry's time to live
+     */
+    protected void onWrite(Object key, Object value, Duration timeToLive) {
+    }
+
+    /**
+     * Called once, under the eviction lock, for every stored value that leaves the cache
+     * (replaced, evicted, expired or cleared)
+     * @param key the entry key
+     * @param stored the value kept in the entry
+     */
+    protected void onRemoval(Object key, Object stored) {
+    }
+
+    private void afterRead(Node node) {
+        boolean buffered = readBuffer.offer(node);
+        if ((!buffered || readBuffer.hasPending(READ_DRAIN_THRESHOLD)) && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainReadBuffer() {
+        readBuffer.drainTo(node -> {
+            if (node.queue != DEAD) {
+                sketch.increment(node.key);
+                onAccess(node);
+            }
+        });
+    }
+
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW -> window.moveToBack(node);
+            case PROBATION -> {
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+                demoteFromProtected();
+            }
+            case PROTECTED -> protectedQueue.moveToBack(node);
+            default -> { }
+        }
+    }
+
+    private void demoteFromProtected() {
+        while (protectedWeight > protectedMaximum) {
+            Node demoted = protectedQueue.peekFirst();
+            if (demoted == null) {
+                return;
+            }
+            protectedQueue.remove(demoted);
+            protectedWeight -= demoted.weight;
+            demoted.queue = PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    private void evictEntries() {
+        Node candidate = evictFromWindow();
+        evictFromMain(candidate);
+    }
+
+    /**
+     * Moves entries overflowing the admission window to the probation tail
+     * @return the first entry moved, i.e. the oldest admission candidate
+     */
+    private Node evictFromWindow() {
+        Node first = null;
+        while (windowWeight > windowMaximum) {
+            Node node = window.peekFirst();
+            if (node == null) {
+                break;
+            }
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            if (first == null) {
+                first = node;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Evicts until the cache fits, pitting each candidate against the probation LRU victim
+     */
+    private void evictFromMain(Node candidate) {
+        Node victim = probation.peekFirst();
+        while (weightedSize > maximum) {
+            if (victim == null && candidate == null) {
+                Node fallback = protectedQueue.peekFirst();
+                if (fallback == null) {
+                    fallback = window.peekFirst();
+                }
+                if (fallback == null) {
+                    return;
+                }
+                evictNode(fallback);
+                continue;
+            }
+            if (victim == null || victim == candidate) {
+                Node next = candidate.next;
+                evictNode(candidate);
+                candidate = next;
+                victim = candidate;
+                continue;
+            }
+            if (candidate == null) {
+                Node next = victim.next;
+                evictNode(victim);
+                victim = next;
+                continue;
+            }
+            if (candidate.weight > maximum || !admit(candidate.key, victim.key)) {
+                Node next = candidate.next;
+                evictNode(candidate);
+                candidate = next;
+            } else {
+                Node next = victim.next;
+                evictNode(victim);
+                victim = next;
+            }
+        }
+    }
+
+    private boolean admit(Object candidateKey, Object victimKey) {
+        int candidateFrequency = sketch.frequency(candidateKey);
+        int victimFrequency = sketch.frequency(victimKey);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        // A little randomness keeps an attacker from pinning a victim via hash collisions
+        return candidateFrequency >= ADMIT_HASHDOS_THRESHOLD
+            && ThreadLocalRandom.current().nextInt(128) == 0;
+    }
+
+    private void evictNode(Node node) {
+        data.remove(node.key, node);
+        unlink(node);
+        evictionCount.increment();
+        evictionWeight.add(node.weight);
+    }
+
+    /**
+     * Timer wheel callback for an entry whose expiration time has passed
+     */
+    private void expireNode(Node node) {
+        if (data.remove(node.key, node)) {
+            unlink(node);
+            expiredCount.increment();
+        }
+    }
+
+    private void removeExpired(Node node) {
+        evictionLock.lock();
+        try {
+            if (data.remove(node.key, node)) {
+                unlink(node);
+                expiredCount.increment();
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void link(Node node, int queue) {
+        node.queue = queue;
+        switch (queue) {
+            case PROBATION -> probation.addLast(node);
+            case PROTECTED -> {
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+            }
+            default -> {
+                window.addLast(node);
+                windowWeight += node.weight;
+            }
+        }
+        weightedSize += node.weight;
+    }
+
+    private void unlink(Node node) {
+        if (node.queue == DEAD) {
+            return;
+        }
+        timerWheel.deschedule(node);
+        switch (node.queue) {
+            case WINDOW -> {
+                window.remove(node);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> {
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+            }
+            default -> {
+                return;
+            }
+        }
+        weightedSize -= node.weight;
+        node.queue = DEAD;
+        onRemoval(node.key, node.value);
+    }
+
+    /**
+     * Cache entry that is also a link in one of the access-order queues and in a timer wheel bucket
+     */
+    static final class Node {
+        final Object key;
+        final Object value;
+        final int weight;
+        final long expirationTime;
+
+        // Guarded by evictionLock
+        volatile int queue = DEAD;
+        Node prev;
+        Node next;
+        Node prevInTimer;
+        Node nextInTimer;
+
+        Node(Object key, Object value, int weight, long expirationTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expirationTime = expirationTime;
+        }
+
+        /**
+         * Creates the head of an empty timer wheel bucket
+         */
+        static Node sentinel() {
+            Node sentinel = new Node(null, null, 0, Long.MAX_VALUE);
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+            return sentinel;
+        }
+
+        boolean isExpired(long now) {
+            return now > expirationTime;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked list ordered from least to most recently used
+     */
+    static final class AccessOrderDeque {
+        private Node first;
+        private Node last;
+
+        Node peekFirst() {
+            return first;
+        }
+
+        void addLast(Node node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        void clear() {
+            first = null;
+            last = null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.lplemos.weather_service.cache.local;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Clock whose reading is refreshed periodically instead of on every call
+ * Cache reads compare expiration times against this cached value, so the hot path
+ * is a single volatile read rather than a System.currentTimeMillis() call
+ */
+public class CoarseClock {
+
+    private final LongSupplier source;
+    private volatile long now;
+
+    public CoarseClock(LongSupplier source) {
+        this.source = source;
+        this.now = source.getAsLong();
+    }
+
+    /**
+     * Creates a clock backed by the system wall clock
+     */
+    public static CoarseClock system() {
+        return new CoarseClock(System::currentTimeMillis);
+    }
+
+    /**
+     * Gets the last sampled time
+     * @return epoch milliseconds as of the last tick
+     */
+    public long now() {
+        return now;
+    }
+
+    /**
+     * Samples the underlying time source; called by the owning scheduler
+     */
+    public void tick() {
+        now = source.getAsLong();
+    }
+}
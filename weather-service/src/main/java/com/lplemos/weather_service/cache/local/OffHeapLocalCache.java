@@ -0,0 +1,60 @@
+package com.lplemos.weather_service.cache.local;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bounded local cache that keeps weather payloads in off-heap slabs
+ * Entries are encoded with the cache value codec (the same compact format as Redis) and copied
+ * into an {@link OffHeapSlabStore}; only the index (keys, queue links and slab references) stays
+ * on the heap, so heap usage does not grow with the size of the payloads. Each hit decodes a fresh
+ * copy, which trades some CPU per hit for a flat old generation; pre-encoded bodies are not kept.
+ * Negative entries and other values are tiny and stay on the heap. When the slabs are full a new
+ * payload is not cached locally and is served from Redis instead
+ */
+public class OffHeapLocalCache extends BoundedLocalCache {
+
+    private final OffHeapSlabStore slabStore;
+    private final CacheValueCodec codec;
+
+    public OffHeapLocalCache(String name, Duration ttl, long maximumSize, CoarseClock clock,
+                             OffHeapSlabStore slabStore, CacheValueCodec codec) {
+        super(name, ttl, maximumSize, clock);
+        this.slabStore = slabStore;
+        this.codec = codec;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = super.getStats();
+        stats.put("offHeap", slabStore.getStats());
+        return stats;
+    }
+
+    @Override
+    protected Object storeValue(Object value) {
+        if (value instanceof CachedWeather entry && !entry.isNegative()) {
+            return slabStore.store(codec.encode(entry));
+        }
+        return value;
+    }
+
+    @Override
+    protected Object loadValue(Object stored) {
+        if (stored instanceof OffHeapSlabStore.SlabRef ref) {
+            byte[] bytes = slabStore.read(ref);
+            return bytes != null ? codec.decode(bytes) : null;
+        }
+        return stored;
+    }
+
+    @Override
+    protected void onRemoval(Object key, Object stored) {
+        if (stored instanceof OffHeapSlabStore.SlabRef ref) {
+            slabStore.release(ref);
+        }
+    }
+}
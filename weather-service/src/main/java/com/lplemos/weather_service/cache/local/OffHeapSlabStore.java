@@ -0,0 +1,193 @@
+package com.lplemos.weather_service.cache.local;
+
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte storage in direct (off-heap) memory, carved out of fixed-size slabs
+ * Values are appended to the current slab; a slab is recycled as a whole once every value in it
+ * has been released, so there is no per-value free list and no compaction. Cached values expire
+ * within the hard TTL, so slabs drain on their own. Each slab has a generation that is bumped when
+ * it is recycled: a {@link SlabRef} taken before the recycle no longer reads, which makes a read
+ * racing with the release of its value return null instead of another value's bytes
+ */
+public class OffHeapSlabStore {
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final ByteBuffer[] slabs;
+    private final AtomicIntegerArray generations;
+
+    // Guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final int[] liveValues;
+    private final long[] liveBytes;
+    private final ArrayDeque<Integer> freeSlabs = new ArrayDeque<>();
+    private int allocatedSlabs;
+    private int current = -1;
+    private int position;
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder staleReads = new LongAdder();
+
+    public OffHeapSlabStore(int slabSize, int maxSlabs) {
+        if (slabSize <= 0 || maxSlabs <= 0) {
+            throw new IllegalArgumentException("Slab size and slab count must be positive");
+        }
+        this.slabSize = slabSize;
+        this.maxSlabs = maxSlabs;
+        this.slabs = new ByteBuffer[maxSlabs];
+        this.generations = new AtomicIntegerArray(maxSlabs);
+        this.liveValues = new int[maxSlabs];
+        this.liveBytes = new long[maxSlabs];
+    }
+
+    /**
+     * Copies bytes into off-heap memory
+     * @param bytes the value
+     * @return reference to the stored bytes, or null when the value is larger than a slab or all
+     * slabs are in use
+     */
+    public SlabRef store(byte[] bytes) {
+        if (bytes.length > slabSize) {
+            rejected.increment();
+            return null;
+        }
+        lock.lock();
+        try {
+            if (current < 0 || position + bytes.length > slabSize) {
+                if (!nextSlab()) {
+                    rejected.increment();
+                    return null;
+                }
+            }
+            int offset = position;
+            slabs[current].put(offset, bytes);
+            position += bytes.length;
+            liveValues[current]++;
+            liveBytes[current] += bytes.length;
+            stored.increment();
+            return new SlabRef(current, offset, bytes.length, generations.get(current));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copies stored bytes back onto the heap
+     * @param ref the reference returned by store
+     * @return the bytes, or null when the value was released and its slab reused
+     */
+    public byte[] read(SlabRef ref) {
+        if (generations.get(ref.slab()) != ref.generation()) {
+            staleReads.increment();
+            return null;
+        }
+        byte[] bytes = new byte[ref.length()];
+        slabs[ref.slab()].get(ref.offset(), bytes);
+        // The copy must complete before the generation is checked again
+        VarHandle.loadLoadFence();
+        if (generations.get(ref.slab()) != ref.generation()) {
+            staleReads.increment();
+            return null;
+        }
+        return bytes;
+    }
+
+    /**
+     * Releases a stored value; its slab is recycled once no live value is left in it
+     * @param ref the reference returned by store
+     */
+    public void release(SlabRef ref) {
+        lock.lock();
+        try {
+            int slab = ref.slab();
+            if (generations.get(slab) != ref.generation()) {
+                return;
+            }
+            liveBytes[slab] -= ref.length();
+            if (--liveValues[slab] == 0) {
+                if (slab == current) {
+                    // Reuse the current slab in place
+                    recycle(slab);
+                    position = 0;
+                } else {
+                    recycle(slab);
+                    freeSlabs.add(slab);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets slab usage and store counters
+     * @return map of statistic name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            long values = 0;
+            long bytes = 0;
+            for (int slab = 0; slab < allocatedSlabs; slab++) {
+                values += liveValues[slab];
+                bytes += liveBytes[slab];
+            }
+            stats.put("slabSize", slabSize);
+            stats.put("allocatedSlabs", allocatedSlabs);
+            stats.put("maxSlabs", maxSlabs);
+            stats.put("freeSlabs", freeSlabs.size());
+            stats.put("reservedBytes", (long) allocatedSlabs * slabSize);
+            stats.put("liveBytes", bytes);
+            stats.put("liveValues", values);
+        } finally {
+            lock.unlock();
+        }
+        stats.put("stored", stored.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("recycled", recycled.sum());
+        stats.put("staleReads", staleReads.sum());
+        return stats;
+    }
+
+    /**
+     * Moves on to a free slab, allocating one while under the slab limit
+     */
+    private boolean nextSlab() {
+        Integer free = freeSlabs.poll();
+        if (free != null) {
+            current = free;
+        } else if (allocatedSlabs < maxSlabs) {
+            current = allocatedSlabs++;
+            slabs[current] = ByteBuffer.allocateDirect(slabSize);
+        } else {
+            return false;
+        }
+        position = 0;
+        return true;
+    }
+
+    private void recycle(int slab) {
+        generations.incrementAndGet(slab);
+        // Readers must see the new generation before any of the slab's new bytes
+        VarHandle.storeStoreFence();
+        liveBytes[slab] = 0;
+        recycled.increment();
+    }
+
+    /**
+     * Location of a stored value: slab, offset and length, plus the slab generation it was written in
+     */
+    public record SlabRef(int slab, int offset, int length, int generation) {
+    }
+}
@@ -0,0 +1,90 @@
+package com.lplemos.weather_service.cache.local;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Bounded local cache mirrored to a memory-mapped segment file, so it survives restarts
+ * Every weather entry written is also appended to the {@link PersistentSegment}, codec-encoded
+ * with its expiry time, and every entry that leaves the cache (evicted, expired, invalidated) is
+ * recorded as removed. Both are recorded under the eviction lock, in the same order as the
+ * in-memory changes, so a replay never brings back an entry that was removed after it was written. {@link #reload()} fills the cache from the file at startup, skipping
+ * entries past their TTL, so a restarted node serves hits before Redis or the provider are asked.
+ * Invalidations published while the node was down are not seen; reloaded entries are bounded by
+ * their remaining TTL
+ */
+public class PersistentLocalCache extends BoundedLocalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentLocalCache.class);
+
+    private final PersistentSegment segment;
+    private final CacheValueCodec codec;
+
+    public PersistentLocalCache(String name, Duration ttl, long maximumWeight, ToIntFunction<Object> weigher,
+                                CoarseClock clock, PersistentSegment segment, CacheValueCodec codec) {
+        super(name, ttl, maximumWeight, weigher, clock);
+        this.segment = segment;
+        this.codec = codec;
+    }
+
+    /**
+     * Opens the segment file and loads its unexpired entries; on failure the cache runs in memory only
+     * @return number of entries loaded
+     */
+    public int reload() {
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try {
+            for (PersistentSegment.Entry entry : segment.open(now)) {
+                try {
+                    // Straight into memory: the entry is already in the file
+                    restore(WeatherCacheKey.parse(entry.key()), codec.decode(entry.value()),
+                        Duration.ofMillis(entry.expiresAt() - now));
+                    loaded++;
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Skipping unreadable persisted entry {}: {}", entry.key(), e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cache '{}' not persisted, segment file unavailable: {}", getName(), e.getMessage());
+        }
+        logger.info("Cache '{}' reloaded {} entries from disk", getName(), loaded);
+        return loaded;
+    }
+
+    /**
+     * Flushes and closes the segment file
+     */
+    public void close() {
+        segment.close();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = super.getStats();
+        stats.put("persistent", segment.getStats());
+        return stats;
+    }
+
+    @Override
+    protected void onWrite(Object key, Object value, Duration timeToLive) {
+        if (key instanceof WeatherCacheKey cacheKey && value instanceof CachedWeather entry) {
+            segment.append(cacheKey.asString(), System.currentTimeMillis() + timeToLive.toMillis(), codec.encode(entry));
+        }
+    }
+
+    @Override
+    protected void onRemoval(Object key, Object stored) {
+        if (key instanceof WeatherCacheKey cacheKey) {
+            segment.remove(cacheKey.asString());
+        }
+    }
+}
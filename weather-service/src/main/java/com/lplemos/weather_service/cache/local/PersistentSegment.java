@@ -0,0 +1,263 @@
+package com.lplemos.weather_service.cache.local;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only, memory-mapped file of cache entries
+ * Every write and every removal appends a record; an on-heap index maps each key to the offset of
+ * its latest record. When the file is full it is compacted: the records the index points to, minus
+ * expired ones, are copied into a fresh file that replaces the old one. Opening a segment scans
+ * the existing file, compacts it and returns the live entries. Writes go to the mapped pages, so
+ * they survive a process restart without an explicit flush
+ * <pre>
+ * header: magic(4) | version(4)
+ * record: marker(4) | keyLength(4) | valueLength(4) | expiresAt(8) | key | value
+ * </pre>
+ * A valueLength of -1 marks a removal. The marker is written last, so a record cut short by a
+ * crash reads as zeros and ends the scan
+ */
+public class PersistentSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersistentSegment.class);
+
+    private static final int MAGIC = 0x57435347;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 8;
+    private static final int RECORD_MARKER = 0x52454331;
+    private static final int RECORD_HEADER_LENGTH = 20;
+    private static final int TOMBSTONE = -1;
+
+    private final Path path;
+    private final int capacity;
+
+    // Guarded by this
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int position;
+    private Map<String, Integer> index = new LinkedHashMap<>();
+
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder removed = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public PersistentSegment(Path path, int capacity) {
+        if (capacity <= HEADER_LENGTH) {
+            throw new IllegalArgumentException("Segment capacity too small: " + capacity);
+        }
+        this.path = path;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Opens the segment file, creating it if needed, and compacts it
+     * @param now current time in epoch milliseconds; entries expiring before it are discarded
+     * @return the live entries, oldest write first
+     * @throws IOException if the file cannot be read or written
+     */
+    public synchronized List<Entry> open(long now) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        if (Files.exists(path)) {
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(channel.size(), capacity));
+            scan();
+        }
+        compact(now);
+        List<Entry> entries = new ArrayList<>(index.size());
+        index.forEach((key, offset) -> entries.add(read(key, offset)));
+        logger.info("Opened cache segment {}: {} live entries, {} bytes", path, entries.size(), position);
+        return entries;
+    }
+
+    /**
+     * Records a write
+     * @param key the cache key
+     * @param expiresAt expiry time in epoch milliseconds
+     * @param value the encoded value
+     */
+    public synchronized void append(String key, long expiresAt, byte[] value) {
+        if (appendRecord(key, expiresAt, value)) {
+            appended.increment();
+        }
+    }
+
+    /**
+     * Records a removal; keys without a live record are ignored
+     * @param key the cache key
+     */
+    public synchronized void remove(String key) {
+        if (index.containsKey(key) && appendRecord(key, 0L, null)) {
+            removed.increment();
+        }
+    }
+
+    /**
+     * Flushes the mapped pages and closes the file
+     */
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close cache segment {}: {}", path, e.getMessage());
+        }
+        channel = null;
+        buffer = null;
+    }
+
+    /**
+     * Gets file usage and write counters
+     * @return map of statistic name to value
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("path", path.toString());
+        stats.put("open", channel != null);
+        stats.put("capacity", capacity);
+        stats.put("usedBytes", position);
+        stats.put("liveKeys", index.size());
+        stats.put("appended", appended.sum());
+        stats.put("removed", removed.sum());
+        stats.put("compactions", compactions.sum());
+        stats.put("dropped", dropped.sum());
+        return stats;
+    }
+
+    private boolean appendRecord(String key, long expiresAt, byte[] value) {
+        if (buffer == null) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_LENGTH + keyBytes.length + (value != null ? value.length : 0);
+        if (position + length > capacity && (!compact(System.currentTimeMillis()) || position + length > capacity)) {
+            dropped.increment();
+            return false;
+        }
+        int offset = position;
+        buffer.putInt(offset + 4, keyBytes.length)
+              .putInt(offset + 8, value != null ? value.length : TOMBSTONE)
+              .putLong(offset + 12, expiresAt)
+              .put(offset + RECORD_HEADER_LENGTH, keyBytes);
+        if (value != null) {
+            buffer.put(offset + RECORD_HEADER_LENGTH + keyBytes.length, value);
+        }
+        buffer.putInt(offset, RECORD_MARKER);
+        position += length;
+        // Re-inserted so the index stays in write order
+        index.remove(key);
+        if (value != null) {
+            index.put(key, offset);
+        }
+        return true;
+    }
+
+    /**
+     * Rebuilds the index from the mapped file, stopping at the first incomplete record
+     */
+    private void scan() {
+        if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            logger.warn("Discarding cache segment {} with unknown header", path);
+            return;
+        }
+        int offset = HEADER_LENGTH;
+        while (offset + RECORD_HEADER_LENGTH <= buffer.limit() && buffer.getInt(offset) == RECORD_MARKER) {
+            int keyLength = buffer.getInt(offset + 4);
+            int valueLength = buffer.getInt(offset + 8);
+            int length = RECORD_HEADER_LENGTH + keyLength + Math.max(valueLength, 0);
+            if (keyLength <= 0 || valueLength < TOMBSTONE || offset + length > buffer.limit()) {
+                break;
+            }
+            String key = readKey(buffer, offset, keyLength);
+            index.remove(key);
+            if (valueLength != TOMBSTONE) {
+                index.put(key, offset);
+            }
+            offset += length;
+        }
+        position = offset;
+    }
+
+    /**
+     * Copies the unexpired records the index points to into a fresh file that replaces the current one
+     * @return true if the segment was compacted
+     */
+    private boolean compact(long now) {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel target = null;
+        try {
+            target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer targetBuffer = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            targetBuffer.putInt(0, MAGIC).putInt(4, VERSION);
+            Map<String, Integer> targetIndex = new LinkedHashMap<>();
+            int targetPosition = HEADER_LENGTH;
+            for (Map.Entry<String, Integer> live : index.entrySet()) {
+                int offset = live.getValue();
+                if (buffer.getLong(offset + 12) <= now) {
+                    continue;
+                }
+                int length = RECORD_HEADER_LENGTH + buffer.getInt(offset + 4) + buffer.getInt(offset + 8);
+                targetBuffer.put(targetPosition, buffer, offset, length);
+                targetIndex.put(live.getKey(), targetPosition);
+                targetPosition += length;
+            }
+            Files.move(compacted, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (channel != null) {
+                channel.close();
+            }
+            channel = target;
+            buffer = targetBuffer;
+            position = targetPosition;
+            index = targetIndex;
+            compactions.increment();
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to compact cache segment {}: {}", path, e.getMessage());
+            if (target != null) {
+                try {
+                    target.close();
+                } catch (IOException ignored) {
+                    // Nothing left to release
+                }
+            }
+            return false;
+        }
+    }
+
+    private Entry read(String key, int offset) {
+        int keyLength = buffer.getInt(offset + 4);
+        byte[] value = new byte[buffer.getInt(offset + 8)];
+        buffer.get(offset + RECORD_HEADER_LENGTH + keyLength, value);
+        return new Entry(key, buffer.getLong(offset + 12), value);
+    }
+
+    private static String readKey(MappedByteBuffer buffer, int offset, int keyLength) {
+        byte[] keyBytes = new byte[keyLength];
+        buffer.get(offset + RECORD_HEADER_LENGTH, keyBytes);
+        return new String(keyBytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Live entry read back from the file
+     */
+    public record Entry(String key, long expiresAt, byte[] value) {
+    }
+}
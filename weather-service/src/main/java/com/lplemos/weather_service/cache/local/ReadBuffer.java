@@ -0,0 +1,104 @@
+package com.lplemos.weather_service.cache.local;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Lossy, striped ring buffer recording cache reads for later replay
+ * Readers pick a stripe by thread and claim a slot with a single CAS; a full stripe or a lost
+ * CAS drops the read instead of waiting, since an access-order hint is not worth blocking for.
+ * Draining is single-consumer: callers must hold the owning cache's eviction lock
+ */
+final class ReadBuffer<E> {
+
+    private static final int STRIPES = 4;
+    private static final int STRIPE_SIZE = 32;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private final List<Stripe<E>> stripes;
+
+    ReadBuffer() {
+        List<Stripe<E>> created = new ArrayList<>(STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            created.add(new Stripe<>());
+        }
+        stripes = List.copyOf(created);
+    }
+
+    /**
+     * Records an element without blocking
+     * @return whether the element was recorded; false when the stripe was full or contended
+     */
+    boolean offer(E element) {
+        return stripes.get((int) (Thread.currentThread().threadId() & (STRIPES - 1))).offer(element);
+    }
+
+    /**
+     * Checks whether any stripe holds at least {@code threshold} pending elements
+     */
+    boolean hasPending(int threshold) {
+        for (Stripe<E> stripe : stripes) {
+            if (stripe.size() >= threshold) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Hands every published element to the consumer and frees its slot
+     */
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe<E> stripe : stripes) {
+            stripe.drainTo(consumer);
+        }
+    }
+
+    /**
+     * Discards every pending element
+     */
+    void clear() {
+        drainTo(element -> { });
+    }
+
+    private static final class Stripe<E> {
+
+        private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        boolean offer(E element) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            if (tail - head >= STRIPE_SIZE || !writeCounter.compareAndSet(tail, tail + 1)) {
+                return false;
+            }
+            slots.lazySet((int) (tail & STRIPE_MASK), element);
+            return true;
+        }
+
+        int size() {
+            return (int) (writeCounter.get() - readCounter);
+        }
+
+        void drainTo(Consumer<E> consumer) {
+            long head = readCounter;
+            long tail = writeCounter.get();
+            while (head < tail) {
+                int index = (int) (head & STRIPE_MASK);
+                E element = slots.get(index);
+                if (element == null) {
+                    // Slot claimed but not yet published; pick it up on the next drain
+                    break;
+                }
+                slots.lazySet(index, null);
+                consumer.accept(element);
+                head++;
+            }
+            readCounter = head;
+        }
+    }
+}
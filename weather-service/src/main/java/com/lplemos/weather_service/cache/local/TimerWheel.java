@@ -0,0 +1,132 @@
+package com.lplemos.weather_service.cache.local;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel that expires cache entries in O(1) amortized time
+ * Each level is a ring of buckets whose tick is the full span of the level below:
+ * ~1s x 64, ~65s x 64, ~70m x 32, ~37h x 4 and a single overflow bucket. Advancing the
+ * wheel only visits the buckets whose tick has elapsed; entries found there are either
+ * expired or cascaded down to a finer level, so no scan over the whole cache is needed.
+ * Not thread safe: callers must hold the owning cache's eviction lock
+ */
+final class TimerWheel {
+
+    private static final int[] BUCKETS = {64, 64, 32, 4, 1};
+    private static final int[] SHIFT = {10, 16, 22, 27, 29};
+    private static final long[] SPANS = {
+        1L << 10,   // 1.02s
+        1L << 16,   // 1.09m
+        1L << 22,   // 1.17h
+        1L << 27,   // 1.55d
+        1L << 29,   // 6.21d
+        1L << 29    // 6.21d
+    };
+
+    private final BoundedLocalCache.Node[][] wheel;
+    private final Consumer<BoundedLocalCache.Node> onExpired;
+    private long currentTime;
+
+    TimerWheel(long now, Consumer<BoundedLocalCache.Node> onExpired) {
+        this.currentTime = now;
+        this.onExpired = onExpired;
+        this.wheel = new BoundedLocalCache.Node[BUCKETS.length][];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new BoundedLocalCache.Node[BUCKETS[i]];
+            for (int j = 0; j < wheel[i].length; j++) {
+                wheel[i][j] = BoundedLocalCache.Node.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Advances the wheel to the given time, expiring or cascading entries in elapsed buckets
+     */
+    void advance(long now) {
+        long previousTime = currentTime;
+        currentTime = now;
+        for (int i = 0; i < SHIFT.length; i++) {
+            long previousTicks = previousTime >>> SHIFT[i];
+            long currentTicks = now >>> SHIFT[i];
+            long delta = currentTicks - previousTicks;
+            if (delta <= 0L) {
+                break;
+            }
+            expire(i, previousTicks, delta);
+        }
+    }
+
+    /**
+     * Places the entry in the bucket matching its expiration time
+     */
+    void schedule(BoundedLocalCache.Node node) {
+        BoundedLocalCache.Node sentinel = findBucket(node.expirationTime);
+        node.prevInTimer = sentinel.prevInTimer;
+        node.nextInTimer = sentinel;
+        sentinel.prevInTimer.nextInTimer = node;
+        sentinel.prevInTimer = node;
+    }
+
+    /**
+     * Removes the entry from its bucket, if it is scheduled
+     */
+    void deschedule(BoundedLocalCache.Node node) {
+        if (node.nextInTimer != null) {
+            node.nextInTimer.prevInTimer = node.prevInTimer;
+            node.prevInTimer.nextInTimer = node.nextInTimer;
+            node.nextInTimer = null;
+            node.prevInTimer = null;
+        }
+    }
+
+    /**
+     * Drops every scheduled entry
+     */
+    void clear() {
+        for (BoundedLocalCache.Node[] level : wheel) {
+            for (BoundedLocalCache.Node sentinel : level) {
+                sentinel.prevInTimer = sentinel;
+                sentinel.nextInTimer = sentinel;
+            }
+        }
+    }
+
+    private void expire(int level, long previousTicks, long delta) {
+        BoundedLocalCache.Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(1 + delta, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int end = start + steps;
+        for (int i = start; i < end; i++) {
+            BoundedLocalCache.Node sentinel = buckets[i & mask];
+            BoundedLocalCache.Node node = sentinel.nextInTimer;
+            sentinel.prevInTimer = sentinel;
+            sentinel.nextInTimer = sentinel;
+
+            while (node != sentinel) {
+                BoundedLocalCache.Node next = node.nextInTimer;
+                node.prevInTimer = null;
+                node.nextInTimer = null;
+                if (node.expirationTime > currentTime) {
+                    schedule(node);
+                } else {
+                    onExpired.accept(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    private BoundedLocalCache.Node findBucket(long time) {
+        long duration = time - currentTime;
+        int length = wheel.length - 1;
+        for (int i = 0; i < length; i++) {
+            if (duration < SPANS[i + 1]) {
+                long ticks = time >>> SHIFT[i];
+                int index = (int) (ticks & (wheel[i].length - 1));
+                return wheel[i][index];
+            }
+        }
+        return wheel[length][0];
+    }
+}
@@ -0,0 +1,157 @@
+package com.lplemos.weather_service.cache.localization;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rewrites OpenWeatherMap condition descriptions into the requested language
+ * Payloads are fetched and cached once per location in the canonical language; the only
+ * language-dependent text, weather[].description (also inside each forecast slot), is looked
+ * up by condition ID in the tables loaded from classpath:i18n/weather-conditions_*.properties.
+ * Languages without a table are not localizable and keep their own cache entries
+ */
+@Component
+public class ConditionLocalizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConditionLocalizer.class);
+    private static final String TABLES = "classpath*:i18n/weather-conditions_*.properties";
+
+    private final CacheProperties.Localization properties;
+    private final String canonicalLanguage;
+    private final Map<String, Map<Integer, String>> tables;
+
+    private final LongAdder localized = new LongAdder();
+    private final LongAdder untranslated = new LongAdder();
+
+    public ConditionLocalizer(CacheProperties cacheProperties) {
+        this.properties = cacheProperties.getLocalization();
+        this.canonicalLanguage = properties.getCanonicalLanguage().toLowerCase(Locale.ROOT);
+        this.tables = loadTables();
+        logger.info("Condition localization tables loaded for languages {}", new TreeSet<>(tables.keySet()));
+    }
+
+    /**
+     * Gets the language a request is fetched and cached in
+     * @param language the requested language
+     * @return the canonical language when the request can be localized, the requested one otherwise
+     */
+    public String cacheLanguage(String language) {
+        return isLocalizable(language) ? canonicalLanguage : language;
+    }
+
+    /**
+     * Rewrites condition descriptions of a canonical-language payload
+     * @param data the payload, which is never modified
+     * @param language the requested language
+     * @return the payload itself when no rewrite is needed, otherwise a localized copy
+     */
+    public Map<String, Object> localize(Map<String, Object> data, String language) {
+        if (!isLocalizable(language) || normalize(language).equals(canonicalLanguage)) {
+            return data;
+        }
+        Map<Integer, String> table = tables.get(normalize(language));
+        Map<String, Object> result = new LinkedHashMap<>(data);
+        if (data.get("weather") instanceof List<?> conditions) {
+            result.put("weather", localizeConditions(conditions, table));
+        }
+        if (data.get("list") instanceof List<?> slots) {
+            List<Object> localizedSlots = new ArrayList<>(slots.size());
+            for (Object slot : slots) {
+                if (slot instanceof Map<?, ?> slotMap && slotMap.get("weather") instanceof List<?> conditions) {
+                    Map<Object, Object> copy = new LinkedHashMap<>(slotMap);
+                    copy.put("weather", localizeConditions(conditions, table));
+                    localizedSlots.add(copy);
+                } else {
+                    localizedSlots.add(slot);
+                }
+            }
+            result.put("list", localizedSlots);
+        }
+        localized.increment();
+        return result;
+    }
+
+    /**
+     * Gets localization counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("canonicalLanguage", canonicalLanguage);
+        stats.put("languages", new TreeSet<>(tables.keySet()));
+        stats.put("localized", localized.sum());
+        stats.put("untranslated", untranslated.sum());
+        return stats;
+    }
+
+    private boolean isLocalizable(String language) {
+        if (!properties.isEnabled()) {
+            return false;
+        }
+        String normalized = normalize(language);
+        return normalized.equals(canonicalLanguage) || tables.containsKey(normalized);
+    }
+
+    private List<Object> localizeConditions(List<?> conditions, Map<Integer, String> table) {
+        List<Object> result = new ArrayList<>(conditions.size());
+        for (Object condition : conditions) {
+            if (condition instanceof Map<?, ?> conditionMap && conditionMap.get("id") instanceof Number id) {
+                String description = table.get(id.intValue());
+                if (description != null) {
+                    Map<Object, Object> copy = new LinkedHashMap<>(conditionMap);
+                    copy.put("description", description);
+                    result.add(copy);
+                    continue;
+                }
+                untranslated.increment();
+            }
+            result.add(condition);
+        }
+        return result;
+    }
+
+    private String normalize(String language) {
+        return language == null || language.isBlank() ? canonicalLanguage : language.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, Map<Integer, String>> loadTables() {
+        Map<String, Map<Integer, String>> tables = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(TABLES)) {
+                String filename = resource.getFilename();
+                String language = filename.substring(filename.lastIndexOf('_') + 1, filename.lastIndexOf('.'));
+                Properties entries = new Properties();
+                try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+                    entries.load(reader);
+                }
+                Map<Integer, String> table = new HashMap<>();
+                entries.forEach((id, description) -> table.put(Integer.valueOf(id.toString()), description.toString()));
+                tables.put(language.toLowerCase(Locale.ROOT), Collections.unmodifiableMap(table));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load weather condition tables", e);
+        }
+        return Collections.unmodifiableMap(tables);
+    }
+}
@@ -0,0 +1,320 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts local (L1) cache invalidations to every replica over Redis pub/sub
+ * Invalidations are queued, deduplicated and flushed in batches. Each batch is stamped with a
+ * generation taken from a Redis counter by the same Lua script that publishes it, so every node
+ * sees generations in order: a gap means messages were lost (e.g. during a reconnect) and the
+ * node clears its whole L1. A periodic generation check catches losses that no later message
+ * would reveal
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    /**
+     * INCR + PUBLISH in one atomic step so generations reach subscribers in increasing order
+     */
+    private static final RedisScript<Long> PUBLISH_SCRIPT = RedisScript.of(
+        "local generation = redis.call('INCR', KEYS[1]) " +
+        "redis.call('PUBLISH', ARGV[1], generation .. ':' .. ARGV[2]) " +
+        "return generation",
+        Long.class);
+
+    private static final TypeReference<InvalidationBatch> BATCH_TYPE = new TypeReference<>() {};
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final CacheManager localCacheManager;
+    private final CacheNamespace cacheNamespace;
+    private final CacheProperties.Invalidation properties;
+    private final ObjectMapper objectMapper;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Queue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastSeenGeneration = new AtomicLong(-1);
+    private volatile long suspectedGeneration;
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    private final LongAdder batchesPublished = new LongAdder();
+    private final LongAdder invalidationsPublished = new LongAdder();
+    private final LongAdder invalidationsApplied = new LongAdder();
+    private final LongAdder publishFailures = new LongAdder();
+    private final LongAdder resyncs = new LongAdder();
+
+    public CacheInvalidationBus(
+            ReactiveStringRedisTemplate redisTemplate,
+            @Qualifier("localCacheManager") CacheManager localCacheManager,
+            CacheNamespace cacheNamespace,
+            CacheProperties cacheProperties,
+            ObjectMapper objectMapper) {
+        this.redisTemplate = redisTemplate;
+        this.localCacheManager = localCacheManager;
+        this.cacheNamespace = cacheNamespace;
+        this.properties = cacheProperties.getInvalidation();
+        this.objectMapper = objectMapper;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Cache invalidation bus disabled");
+            return;
+        }
+        logger.info("Starting cache invalidation bus on channel {} (node {})", properties.getChannel(), nodeId);
+
+        subscriptions.add(redisTemplate.listenToChannel(properties.getChannel())
+                .doOnSubscribe(subscription -> checkGeneration().subscribe())
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe(message -> onMessage(message.getMessage()),
+                    error -> logger.error("Cache invalidation subscription terminated: {}", error.getMessage())));
+
+        subscriptions.add(Flux.interval(properties.getBatchWindow())
+                .onBackpressureDrop()
+                .concatMap(tick -> flush(), 1)
+                .subscribe());
+
+        subscriptions.add(Flux.interval(properties.getResyncInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> checkGeneration(), 1)
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Queues the invalidation of a single key on every other node
+     * @param key the cache key
+     */
+    public void publishKey(WeatherCacheKey key) {
+        enqueue(new Invalidation(key.cacheName(), key.asString()));
+    }
+
+    /**
+     * Queues the invalidation of a whole cache on every other node
+     * @param cacheName the cache name
+     */
+    public void publishClear(String cacheName) {
+        enqueue(new Invalidation(cacheName, null));
+    }
+
+    /**
+     * Gets bus counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("nodeId", nodeId);
+        stats.put("generation", lastSeenGeneration.get());
+        stats.put("pending", pending.size());
+        stats.put("batchesPublished", batchesPublished.sum());
+        stats.put("invalidationsPublished", invalidationsPublished.sum());
+        stats.put("invalidationsApplied", invalidationsApplied.sum());
+        stats.put("publishFailures", publishFailures.sum());
+        stats.put("resyncs", resyncs.sum());
+        return stats;
+    }
+
+    private void enqueue(Invalidation invalidation) {
+        if (properties.isEnabled()) {
+            pending.add(invalidation);
+        }
+    }
+
+    /**
+     * Drains the queue into deduplicated batches and publishes them
+     */
+    Mono<Void> flush() {
+        if (pending.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Invalidation> drained = new ArrayList<>();
+        Invalidation next;
+        while ((next = pending.poll()) != null) {
+            drained.add(next);
+        }
+        List<Invalidation> deduplicated = deduplicate(drained);
+        List<List<Invalidation>> batches = new ArrayList<>();
+        for (int i = 0; i < deduplicated.size(); i += properties.getBatchSize()) {
+            batches.add(deduplicated.subList(i, Math.min(i + properties.getBatchSize(), deduplicated.size())));
+        }
+        return Flux.fromIterable(batches)
+                .concatMap(this::publish)
+                .then();
+    }
+
+    private Mono<Void> publish(List<Invalidation> batch) {
+        String body;
+        try {
+            body = objectMapper.writeValueAsString(new InvalidationBatch(nodeId, batch));
+        } catch (JsonProcessingException e) {
+            logger.error("Could not encode cache invalidation batch: {}", e.getMessage());
+            return Mono.empty();
+        }
+        return redisTemplate.execute(PUBLISH_SCRIPT,
+                    List.of(properties.getChannel() + ":generation"),
+                    List.of(properties.getChannel(), body))
+                .next()
+                .doOnNext(generation -> {
+                    batchesPublished.increment();
+                    invalidationsPublished.add(batch.size());
+                    logger.debug("Published {} cache invalidations (generation {})", batch.size(), generation);
+                })
+                .onErrorResume(error -> {
+                    publishFailures.increment();
+                    logger.warn("Could not publish {} cache invalidations: {}", batch.size(), error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Handles a published batch: "generation:json"
+     */
+    void onMessage(String message) {
+        int separator = message.indexOf(':');
+        long generation;
+        InvalidationBatch batch;
+        try {
+            generation = Long.parseLong(message.substring(0, separator));
+            batch = objectMapper.readValue(message.substring(separator + 1), BATCH_TYPE);
+        } catch (RuntimeException | JsonProcessingException e) {
+            logger.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+            return;
+        }
+
+        long previous = lastSeenGeneration.getAndAccumulate(generation, Math::max);
+        if (previous >= 0 && generation > previous + 1) {
+            logger.warn("Cache invalidation gap (generation {} after {}), clearing local cache", generation, previous);
+            resync();
+        }
+        if (nodeId.equals(batch.nodeId())) {
+            return;
+        }
+        batch.invalidations().forEach(this::apply);
+    }
+
+    /**
+     * Compares the local generation with Redis; a generation ahead of ours for a whole
+     * check interval means its messages were lost
+     */
+    Mono<Void> checkGeneration() {
+        return redisTemplate.opsForValue().get(properties.getChannel() + ":generation")
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L)
+                .doOnNext(remote -> {
+                    long local = lastSeenGeneration.get();
+                    if (local < 0) {
+                        lastSeenGeneration.compareAndSet(local, remote);
+                    } else if (remote > local && suspectedGeneration > 0 && local < suspectedGeneration) {
+                        logger.warn("Cache invalidation generation {} behind Redis ({}), clearing local cache", local, remote);
+                        lastSeenGeneration.accumulateAndGet(remote, Math::max);
+                        resync();
+                        suspectedGeneration = 0;
+                    } else {
+                        suspectedGeneration = remote > local ? remote : 0;
+                    }
+                })
+                .onErrorResume(error -> {
+                    logger.debug("Cache invalidation generation check failed: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void apply(Invalidation invalidation) {
+        Cache cache = localCacheManager.getCache(invalidation.cacheName());
+        if (cache == null) {
+            return;
+        }
+        if (invalidation.key() == null) {
+            cache.clear();
+            // A clear comes with a namespace bump: load it, then drop anything read from the old namespace meanwhile
+            cacheNamespace.refresh().then(Mono.fromRunnable(cache::clear)).subscribe();
+        } else {
+            try {
+                cache.evict(WeatherCacheKey.parse(invalidation.key()));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring invalidation of malformed key: {}", invalidation.key());
+                return;
+            }
+        }
+        invalidationsApplied.increment();
+    }
+
+    private void resync() {
+        resyncs.increment();
+        localCacheManager.getCacheNames().forEach(name -> {
+            Cache cache = localCacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    /**
+     * Removes duplicates and keys already covered by a whole-cache invalidation
+     */
+    static List<Invalidation> deduplicate(List<Invalidation> invalidations) {
+        Set<String> clearedCaches = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.key() == null) {
+                clearedCaches.add(invalidation.cacheName());
+            }
+        }
+        Set<Invalidation> unique = new LinkedHashSet<>();
+        for (Invalidation invalidation : invalidations) {
+            if (invalidation.key() == null || !clearedCaches.contains(invalidation.cacheName())) {
+                unique.add(invalidation);
+            }
+        }
+        return new ArrayList<>(unique);
+    }
+
+    /**
+     * Invalidation of one key, or of the whole cache when key is null
+     */
+    record Invalidation(String cacheName, String key) {
+    }
+
+    record InvalidationBatch(String nodeId, List<Invalidation> invalidations) {
+    }
+}
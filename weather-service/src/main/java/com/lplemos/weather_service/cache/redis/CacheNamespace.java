@@ -0,0 +1,186 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Versioned namespaces of the Redis tier keys
+ * Every Redis key embeds a global version and the version of its provider ("v3.1"). Clearing
+ * everything, or everything of one provider, is a single INCR of the matching version: keys of
+ * older versions are no longer read and expire through their own TTL, so a mass invalidation
+ * costs the same whatever the size of the keyspace. Versions are cached locally and reloaded
+ * when a clear arrives over the invalidation bus, and periodically as a fallback
+ */
+@Component
+public class CacheNamespace {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheNamespace.class);
+    private static final WeatherProviderType[] PROVIDERS = WeatherProviderType.values();
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final CacheProperties.Namespace properties;
+    private final CacheProperties.Redis redisProperties;
+    private final List<String> versionKeys = new ArrayList<>();
+
+    private volatile long globalVersion;
+    private final long[] providerVersions = new long[PROVIDERS.length];
+    // "v<global>.<provider>" per provider ordinal, rebuilt whenever a version changes
+    private volatile String[] prefixes;
+    private volatile Disposable refresher;
+
+    private final LongAdder bumps = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public CacheNamespace(ReactiveStringRedisTemplate redisTemplate, CacheProperties cacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = cacheProperties.getNamespace();
+        this.redisProperties = cacheProperties.getRedis();
+        versionKeys.add(properties.getKeyPrefix());
+        for (WeatherProviderType provider : PROVIDERS) {
+            versionKeys.add(providerKey(provider));
+        }
+        rebuildPrefixes();
+    }
+
+    @PostConstruct
+    public void start() {
+        // Load the current versions before serving, so this node never reads a cleared namespace
+        refresh().block();
+        refresher = Flux.interval(properties.getRefreshInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refresh(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = refresher;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Gets the namespace prefix of a provider's keys
+     * @param provider the provider of the entry
+     * @return prefix such as "v3.1"
+     */
+    public String prefix(WeatherProviderType provider) {
+        return prefixes[provider.ordinal()];
+    }
+
+    /**
+     * Gets the global version, which also scopes secondary index keys
+     */
+    public long globalVersion() {
+        return globalVersion;
+    }
+
+    /**
+     * Moves every key of every provider to a new, empty namespace
+     * @return Mono emitting the new global version
+     */
+    public Mono<Long> bumpAll() {
+        return redisTemplate.opsForValue().increment(properties.getKeyPrefix())
+                .doOnNext(version -> {
+                    synchronized (this) {
+                        globalVersion = version;
+                        rebuildPrefixes();
+                    }
+                    bumps.increment();
+                    logger.info("Cache namespace moved to global version {}", version);
+                });
+    }
+
+    /**
+     * Moves every key of one provider to a new, empty namespace
+     * @param provider the provider to clear
+     * @return Mono emitting the provider's new version
+     */
+    public Mono<Long> bumpProvider(WeatherProviderType provider) {
+        return redisTemplate.opsForValue().increment(providerKey(provider))
+                .doOnNext(version -> {
+                    synchronized (this) {
+                        providerVersions[provider.ordinal()] = version;
+                        rebuildPrefixes();
+                    }
+                    bumps.increment();
+                    logger.info("Cache namespace of {} moved to version {}", provider.getCode(), version);
+                });
+    }
+
+    /**
+     * Reloads all versions from Redis in one MGET; on failure the cached versions are kept
+     * @return Mono completing once the versions are loaded
+     */
+    public Mono<Void> refresh() {
+        return redisTemplate.opsForValue().multiGet(versionKeys)
+                .timeout(redisProperties.getReadTimeout())
+                .doOnNext(this::apply)
+                .onErrorResume(error -> {
+                    refreshFailures.increment();
+                    logger.warn("Could not load cache namespace versions: {}", error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Gets the current versions
+     * @return map of version name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("globalVersion", globalVersion);
+        Map<String, Object> providers = new LinkedHashMap<>();
+        for (WeatherProviderType provider : PROVIDERS) {
+            providers.put(provider.getCode(), prefix(provider));
+        }
+        stats.put("prefixes", providers);
+        stats.put("bumps", bumps.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        return stats;
+    }
+
+    /**
+     * Applies versions read from Redis, in versionKeys order; missing counters are version 0
+     */
+    synchronized void apply(List<String> values) {
+        globalVersion = parse(values.get(0));
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            providerVersions[i] = parse(values.get(i + 1));
+        }
+        rebuildPrefixes();
+    }
+
+    private void rebuildPrefixes() {
+        String[] rebuilt = new String[PROVIDERS.length];
+        for (int i = 0; i < PROVIDERS.length; i++) {
+            rebuilt[i] = "v" + globalVersion + "." + providerVersions[i];
+        }
+        prefixes = rebuilt;
+    }
+
+    private String providerKey(WeatherProviderType provider) {
+        return properties.getKeyPrefix() + ":" + provider.getCode();
+    }
+
+    private static long parse(String value) {
+        return value == null ? 0L : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,439 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking Redis (L2) tier of the hierarchical cache
+ * Every operation runs on Lettuce's reactive API with its own timeout; reads degrade to a
+ * miss on error or timeout and writes are fire-and-forget so callers never wait on Redis.
+ * Batch lookups read all of their keys with a single MGET.
+ * Keys use the layout "cacheName::namespace::key", where the namespace comes from
+ * {@link CacheNamespace}; clearing moves to a new namespace instead of deleting keys.
+ * Each write also adds the key to a per-location index set (the lookup location, plus the
+ * city named in the payload for coordinate lookups), so a city eviction removes every
+ * language, provider and coordinate variant in a single scripted round trip.
+ * Keys are spread over the shards of the {@link RedisShardRouter} by their location; when the
+ * keys do not all live on one server (client-side shards or Redis Cluster) an eviction reads the
+ * index and deletes the keys one by one on their own shards instead. Calls to a shard that is down
+ * are skipped: reads miss and writes are dropped
+ */
+@Component
+public class RedisCacheTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheTier.class);
+    private static final String KEY_SEPARATOR = "::";
+    private static final String ALIAS_MARKER = "@";
+
+    /**
+     * SADD the key to the location index, extending the index TTL to cover it
+     */
+    private static final RedisScript<Long> INDEX_SCRIPT = RedisScript.of(
+        "redis.call('SADD', KEYS[1], ARGV[1]) " +
+        "local ttl = tonumber(ARGV[2]) " +
+        "if redis.call('PTTL', KEYS[1]) < ttl then redis.call('PEXPIRE', KEYS[1], ttl) end " +
+        "return 1",
+        Long.class);
+
+    /**
+     * Deletes the indexed keys of a location, the keys indexed under the locations it is an alias
+     * of (members "@location", resolved with the index prefix in ARGV[1]), the extra keys passed
+     * after the index, and the indexes themselves; returns the deleted keys
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EVICT_LOCATION_SCRIPT = RedisScript.of(
+        "local keys = {} " +
+        "local indexes = {KEYS[1]} " +
+        "for _, member in ipairs(redis.call('SMEMBERS', KEYS[1])) do " +
+        "  if string.sub(member, 1, 1) == '@' then table.insert(indexes, ARGV[1] .. string.sub(member, 2)) " +
+        "  else table.insert(keys, member) end " +
+        "end " +
+        "for i = 2, #indexes do " +
+        "  for _, member in ipairs(redis.call('SMEMBERS', indexes[i])) do " +
+        "    if string.sub(member, 1, 1) ~= '@' then table.insert(keys, member) end " +
+        "  end " +
+        "end " +
+        "for i = 2, #KEYS do table.insert(keys, KEYS[i]) end " +
+        "for i = 1, #keys, 500 do redis.call('DEL', unpack(keys, i, math.min(i + 499, #keys))) end " +
+        "redis.call('DEL', unpack(indexes)) " +
+        "return keys",
+        List.class);
+
+    private final RedisShardRouter router;
+    private final CacheProperties.Redis properties;
+    private final CacheNamespace cacheNamespace;
+
+    private final LongAdder readTimeouts = new LongAdder();
+    private final LongAdder multiGets = new LongAdder();
+    private final LongAdder readErrors = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+    private final LongAdder indexFailures = new LongAdder();
+
+    public RedisCacheTier(
+            RedisShardRouter router,
+            CacheProperties cacheProperties,
+            CacheNamespace cacheNamespace) {
+        this.router = router;
+        this.properties = cacheProperties.getRedis();
+        this.cacheNamespace = cacheNamespace;
+    }
+
+    /**
+     * Reads an entry; completes empty on miss, error or timeout
+     * @param key the cache key
+     * @return Mono with the cached entry, or empty
+     */
+    public Mono<CachedWeather> get(WeatherCacheKey key) {
+        String redisKey = redisKey(key);
+        RedisShard shard = router.shardFor(key.location());
+        if (!shard.isAvailable()) {
+            return Mono.empty();
+        }
+        return shard.track(shard.cacheTemplate().opsForValue().get(redisKey).timeout(properties.getReadTimeout()))
+                .mapNotNull(value -> toEntry(value, redisKey))
+                .onErrorResume(error -> {
+                    onReadError(error, redisKey);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Reads many entries with a single MGET per shard; on error or timeout every key of the shard is a miss
+     * @param keys the cache keys
+     * @return Mono with the entries found, keyed by cache key; missing keys are absent
+     */
+    public Mono<Map<WeatherCacheKey, CachedWeather>> multiGet(List<WeatherCacheKey> keys) {
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        Map<RedisShard, List<WeatherCacheKey>> keysByShard = new LinkedHashMap<>();
+        for (WeatherCacheKey key : keys) {
+            keysByShard.computeIfAbsent(router.shardFor(key.location()), shard -> new ArrayList<>()).add(key);
+        }
+        if (keysByShard.size() == 1) {
+            Map.Entry<RedisShard, List<WeatherCacheKey>> only = keysByShard.entrySet().iterator().next();
+            return multiGet(only.getKey(), only.getValue());
+        }
+        return Flux.fromIterable(keysByShard.entrySet())
+                .flatMap(shardKeys -> multiGet(shardKeys.getKey(), shardKeys.getValue()))
+                .collect(LinkedHashMap::new, Map::putAll);
+    }
+
+    private Mono<Map<WeatherCacheKey, CachedWeather>> multiGet(RedisShard shard, List<WeatherCacheKey> keys) {
+        if (!shard.isAvailable()) {
+            return Mono.just(Map.of());
+        }
+        List<String> redisKeys = keys.stream().map(this::redisKey).toList();
+        multiGets.increment();
+        return shard.track(shard.cacheTemplate().opsForValue().multiGet(redisKeys).timeout(properties.getReadTimeout()))
+                .map(values -> {
+                    Map<WeatherCacheKey, CachedWeather> entries = new LinkedHashMap<>();
+                    for (int i = 0; i < keys.size() && i < values.size(); i++) {
+                        Object value = values.get(i);
+                        CachedWeather entry = value == null ? null : toEntry(value, redisKeys.get(i));
+                        if (entry != null) {
+                            entries.put(keys.get(i), entry);
+                        }
+                    }
+                    return entries;
+                })
+                .onErrorResume(error -> {
+                    onReadError(error, keys.size() + " keys");
+                    return Mono.just(Map.of());
+                });
+    }
+
+    /**
+     * Writes an entry in the background; failures are logged and counted, never propagated
+     * @param key the cache key
+     * @param value the entry to store
+     * @param ttl time to live of the Redis key
+     */
+    public void putAsync(WeatherCacheKey key, CachedWeather value, Duration ttl) {
+        String redisKey = redisKey(key);
+        RedisShard shard = router.shardFor(key.location());
+        if (!shard.isAvailable()) {
+            return;
+        }
+        shard.track(shard.cacheTemplate().opsForValue().set(redisKey, value, ttl).timeout(properties.getWriteTimeout()))
+                .subscribe(
+                    stored -> logger.debug("Stored Redis key: {} (ttl {})", redisKey, ttl),
+                    error -> {
+                        writeFailures.increment();
+                        logger.warn("Redis write failed for key: {}: {}", redisKey, error.getMessage());
+                    });
+        for (String location : indexLocations(key, value)) {
+            index(location, redisKey, ttl);
+        }
+        String alias = aliasLocation(key, value);
+        if (alias != null) {
+            // Evicting the requested name also reaches the variants indexed under the provider's name
+            index(key.location(), ALIAS_MARKER + alias, ttl);
+        }
+    }
+
+    private void index(String location, String member, Duration ttl) {
+        RedisShard indexShard = router.shardFor(location);
+        if (!indexShard.isAvailable()) {
+            return;
+        }
+        indexShard.track(indexShard.stringTemplate()
+                    .execute(INDEX_SCRIPT, List.of(indexKey(location)), List.of(member, Long.toString(ttl.toMillis())))
+                    .next()
+                    .timeout(properties.getWriteTimeout()))
+                .subscribe(
+                    indexed -> { },
+                    error -> {
+                        indexFailures.increment();
+                        logger.warn("Redis index write failed for location: {}: {}", location, error.getMessage());
+                    });
+    }
+
+    /**
+     * Deletes every indexed variant of a location, plus the given keys, in one round trip
+     * A city name the provider answers under another name (e.g. "Lisboa" as "Lisbon") also
+     * deletes the variants indexed under that name, such as coordinate and city ID lookups
+     * @param location the location, e.g. "city:lisboa"
+     * @param knownKeys keys to delete even if they are missing from the index
+     * @return Mono emitting the deleted keys
+     */
+    public Mono<List<WeatherCacheKey>> evictLocation(String location, List<WeatherCacheKey> knownKeys) {
+        String indexKey = indexKey(location);
+        RedisShard indexShard = router.shardFor(location);
+        if (!router.isSingleNode()) {
+            return evictLocationKeyByKey(indexShard, indexKey, knownKeys);
+        }
+        List<String> scriptKeys = new ArrayList<>(knownKeys.size() + 1);
+        scriptKeys.add(indexKey);
+        knownKeys.forEach(key -> scriptKeys.add(redisKey(key)));
+        return indexShard.track(indexShard.stringTemplate().execute(EVICT_LOCATION_SCRIPT, scriptKeys, List.of(indexKey("")))
+                        .timeout(properties.getWriteTimeout())
+                        // Multi-bulk replies may arrive as one list or element by element
+                        .cast(Object.class)
+                        .flatMapIterable(result -> result instanceof List<?> list ? list : List.of(result))
+                        .map(String::valueOf)
+                        .collect(LinkedHashSet<String>::new, Set::add))
+                .map(RedisCacheTier::parseRedisKeys);
+    }
+
+    /**
+     * Evicts a location when its keys may live on other servers than its index: the index members
+     * (and those of the locations it is an alias of) are read, then every key is deleted on the
+     * shard it routes to, then the indexes themselves
+     */
+    private Mono<List<WeatherCacheKey>> evictLocationKeyByKey(RedisShard indexShard, String indexKey,
+                                                              List<WeatherCacheKey> knownKeys) {
+        return indexMembers(indexShard, indexKey)
+                .flatMap(members -> {
+                    Set<String> redisKeys = new LinkedHashSet<>();
+                    List<String> aliases = new ArrayList<>();
+                    for (String member : members) {
+                        if (member.startsWith(ALIAS_MARKER)) {
+                            aliases.add(member.substring(ALIAS_MARKER.length()));
+                        } else {
+                            redisKeys.add(member);
+                        }
+                    }
+                    return Flux.fromIterable(aliases)
+                            .concatMap(alias -> indexMembers(router.shardFor(alias), indexKey(alias)))
+                            .doOnNext(aliasMembers -> aliasMembers.stream()
+                                .filter(member -> !member.startsWith(ALIAS_MARKER))
+                                .forEach(redisKeys::add))
+                            .then(Mono.defer(() -> {
+                                knownKeys.forEach(key -> redisKeys.add(redisKey(key)));
+                                return Flux.fromIterable(redisKeys)
+                                        .flatMap(redisKey -> {
+                                            WeatherCacheKey key = parseRedisKey(redisKey);
+                                            RedisShard shard = key != null ? router.shardFor(key.location()) : indexShard;
+                                            return shard.track(shard.cacheTemplate().delete(redisKey).timeout(properties.getWriteTimeout()));
+                                        })
+                                        .thenMany(Flux.fromIterable(aliases).flatMap(alias -> deleteIndex(router.shardFor(alias), indexKey(alias))))
+                                        .then(deleteIndex(indexShard, indexKey))
+                                        .thenReturn(parseRedisKeys(redisKeys));
+                            }));
+                });
+    }
+
+    private Mono<LinkedHashSet<String>> indexMembers(RedisShard shard, String indexKey) {
+        return shard.track(shard.stringTemplate().opsForSet().members(indexKey)
+                .collect(LinkedHashSet<String>::new, Set::add)
+                .timeout(properties.getWriteTimeout()));
+    }
+
+    private Mono<Long> deleteIndex(RedisShard shard, String indexKey) {
+        return shard.track(shard.stringTemplate().delete(indexKey).timeout(properties.getWriteTimeout()));
+    }
+
+    /**
+     * Deletes an entry
+     * @param key the cache key
+     * @return Mono emitting true if a key was removed
+     */
+    public Mono<Boolean> evict(WeatherCacheKey key) {
+        RedisShard shard = router.shardFor(key.location());
+        return shard.track(shard.cacheTemplate().delete(redisKey(key)).timeout(properties.getWriteTimeout()))
+                .map(deleted -> deleted > 0);
+    }
+
+    /**
+     * Invalidates every entry of every cache in O(1) by moving to a new namespace
+     * @return Mono completing once the new namespace is in effect
+     */
+    public Mono<Void> clearAll() {
+        return cacheNamespace.bumpAll()
+                .timeout(properties.getWriteTimeout())
+                .then();
+    }
+
+    /**
+     * Invalidates every entry of one provider in O(1) by moving it to a new namespace
+     * @param provider the provider to clear
+     * @return Mono completing once the new namespace is in effect
+     */
+    public Mono<Void> clearProvider(WeatherProviderType provider) {
+        return cacheNamespace.bumpProvider(provider)
+                .timeout(properties.getWriteTimeout())
+                .then();
+    }
+
+    /**
+     * Pings every Redis shard without blocking
+     * @return Mono emitting true if every shard answered within the read timeout
+     */
+    public Mono<Boolean> ping() {
+        return Flux.fromIterable(router.shards())
+                .flatMap(shard -> shard.ping(properties.getReadTimeout()))
+                .all(Boolean::booleanValue);
+    }
+
+    /**
+     * Fetches the Redis INFO section of the first shard without blocking
+     * @return Mono with the server properties
+     */
+    public Mono<Properties> info() {
+        return router.shards().get(0).cacheTemplate().execute(connection -> connection.serverCommands().info())
+                .next()
+                .timeout(properties.getReadTimeout());
+    }
+
+    /**
+     * Gets error counters of the tier
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("readTimeouts", readTimeouts.sum());
+        stats.put("multiGets", multiGets.sum());
+        stats.put("readErrors", readErrors.sum());
+        stats.put("writeFailures", writeFailures.sum());
+        stats.put("indexFailures", indexFailures.sum());
+        stats.put("topology", router.getStats());
+        return stats;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CachedWeather toEntry(Object value, String redisKey) {
+        if (value instanceof CachedWeather cachedWeather) {
+            return cachedWeather;
+        }
+        if (value instanceof Map<?, ?> legacy) {
+            // Bare maps written before entries carried a fetch time
+            return new CachedWeather((Map<String, Object>) legacy, 0L);
+        }
+        logger.warn("Unexpected value type {} for Redis key: {}", value.getClass().getSimpleName(), redisKey);
+        return null;
+    }
+
+    private void onReadError(Throwable error, String redisKey) {
+        if (error instanceof TimeoutException) {
+            readTimeouts.increment();
+            logger.warn("Redis read timed out after {} for key: {}", properties.getReadTimeout(), redisKey);
+        } else {
+            readErrors.increment();
+            logger.error("Redis read failed for key: {}: {}", redisKey, error.getMessage());
+        }
+    }
+
+    /**
+     * Gets the locations a key is indexed under: its own, plus the city named in the payload
+     * of coordinate and cell lookups
+     */
+    public static Set<String> indexLocations(WeatherCacheKey key, CachedWeather value) {
+        Set<String> locations = new LinkedHashSet<>(2);
+        locations.add(key.location());
+        String payloadLocation = payloadLocation(value);
+        if (payloadLocation != null) {
+            locations.add(payloadLocation);
+        }
+        return locations;
+    }
+
+    /**
+     * Gets the city location a city name key is an alias of: the city named in the payload,
+     * when the provider answered under another name than the one requested
+     * @return the payload city location, or null when the key is not an alias
+     */
+    public static String aliasLocation(WeatherCacheKey key, CachedWeather value) {
+        if (!WeatherCacheKey.isCityLocation(key.location())) {
+            return null;
+        }
+        String payloadLocation = payloadLocation(value);
+        return payloadLocation != null && !payloadLocation.equals(key.location()) ? payloadLocation : null;
+    }
+
+    private static String payloadLocation(CachedWeather value) {
+        Object name = value.data().get("name");
+        if (name == null && value.data().get("city") instanceof Map<?, ?> city) {
+            // Forecast payloads carry the name under "city"
+            name = city.get("name");
+        }
+        return name instanceof String cityName && !cityName.isBlank() ? WeatherCacheKey.cityLocation(cityName) : null;
+    }
+
+    private static List<WeatherCacheKey> parseRedisKeys(Set<String> redisKeys) {
+        List<WeatherCacheKey> keys = new ArrayList<>(redisKeys.size());
+        for (String redisKey : redisKeys) {
+            WeatherCacheKey key = parseRedisKey(redisKey);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static WeatherCacheKey parseRedisKey(String redisKey) {
+        try {
+            return WeatherCacheKey.parse(redisKey.substring(redisKey.lastIndexOf(KEY_SEPARATOR) + KEY_SEPARATOR.length()));
+        } catch (IllegalArgumentException e) {
+            logger.debug("Skipping unparseable indexed key: {}", redisKey);
+            return null;
+        }
+    }
+
+    private String indexKey(String location) {
+        return properties.getIndexPrefix() + ":v" + cacheNamespace.globalVersion() + ":" + location;
+    }
+
+    private String redisKey(WeatherCacheKey key) {
+        return key.cacheName() + KEY_SEPARATOR + cacheNamespace.prefix(key.provider()) + KEY_SEPARATOR + key.asString();
+    }
+}
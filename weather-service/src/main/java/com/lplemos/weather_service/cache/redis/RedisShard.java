@@ -0,0 +1,134 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One Redis server (or cluster) of the Redis tier, with its health
+ * Calls are tracked through {@link #track(Mono)}: after failure-threshold failures in a row the
+ * shard is down for retry-interval and callers skip it. Once that passes, calls go through again
+ * and the first success brings the shard back, while another failure takes it down again
+ */
+public class RedisShard {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisShard.class);
+
+    private final String name;
+    private final ReactiveRedisTemplate<String, Object> cacheTemplate;
+    private final ReactiveStringRedisTemplate stringTemplate;
+    // Only set for connections opened by the tier itself, which it must also close
+    private final LettuceConnectionFactory connectionFactory;
+    private final CacheProperties.Sharding properties;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long downUntil;
+
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder trips = new LongAdder();
+
+    public RedisShard(String name, ReactiveRedisTemplate<String, Object> cacheTemplate,
+                      ReactiveStringRedisTemplate stringTemplate, LettuceConnectionFactory connectionFactory,
+                      CacheProperties.Sharding properties) {
+        this.name = name;
+        this.cacheTemplate = cacheTemplate;
+        this.stringTemplate = stringTemplate;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public ReactiveRedisTemplate<String, Object> cacheTemplate() {
+        return cacheTemplate;
+    }
+
+    public ReactiveStringRedisTemplate stringTemplate() {
+        return stringTemplate;
+    }
+
+    /**
+     * Checks whether calls may be sent to the shard; counts a skipped call when not
+     */
+    public boolean isAvailable() {
+        if (System.currentTimeMillis() < downUntil) {
+            skipped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the outcome of a call in the shard's health
+     * @param operation the call, with its timeout already applied
+     * @return the same call
+     */
+    public <T> Mono<T> track(Mono<T> operation) {
+        return operation
+                .doOnSuccess(result -> onSuccess())
+                .doOnError(this::onFailure);
+    }
+
+    void onSuccess() {
+        if (consecutiveFailures.getAndSet(0) >= properties.getFailureThreshold()) {
+            logger.info("Redis shard {} is back up", name);
+        }
+        downUntil = 0L;
+    }
+
+    void onFailure(Throwable error) {
+        failures.increment();
+        int failed = consecutiveFailures.incrementAndGet();
+        if (failed >= properties.getFailureThreshold()) {
+            if (downUntil == 0L) {
+                trips.increment();
+                logger.warn("Redis shard {} is down after {} failures, serving its keys from L1 and the provider: {}",
+                    name, failed, error.getMessage());
+            }
+            downUntil = System.currentTimeMillis() + properties.getRetryInterval().toMillis();
+        }
+    }
+
+    /**
+     * Pings the shard, updating its health
+     * @return Mono emitting true if the shard answered in time
+     */
+    Mono<Boolean> ping(Duration timeout) {
+        return track(cacheTemplate.execute(connection -> connection.ping()).next().timeout(timeout))
+                .map(reply -> true)
+                .onErrorReturn(false);
+    }
+
+    void close() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+    }
+
+    /**
+     * Gets health counters of the shard
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("available", System.currentTimeMillis() >= downUntil);
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("failures", failures.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("trips", trips.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,134 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Maps cache keys to the Redis shard that holds them
+ * Shards are placed on a consistent-hash ring with virtual-nodes points each, and a key belongs to
+ * the first point at or after the hash of its routing key (the lookup location), so adding or
+ * removing a shard only moves the keys of the ring segments it gains or loses. Keys of a shard that
+ * is down are not moved to another shard: they are served from L1 and the provider until the shard
+ * is back, which keeps every key in one place. Every shard is pinged each health-check-interval
+ */
+public class RedisShardRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisShardRouter.class);
+
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+
+    private final List<RedisShard> shards;
+    private final NavigableMap<Long, RedisShard> ring = new TreeMap<>();
+    private final boolean clustered;
+    private final CacheProperties.Sharding properties;
+    private final Duration pingTimeout;
+    private volatile Disposable ticker;
+
+    /**
+     * @param shards the shards, at least one
+     * @param cacheProperties cache settings
+     * @param clustered whether the single shard is a Redis Cluster
+     */
+    public RedisShardRouter(List<RedisShard> shards, CacheProperties cacheProperties, boolean clustered) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one Redis shard is required");
+        }
+        this.shards = List.copyOf(shards);
+        this.clustered = clustered;
+        this.properties = cacheProperties.getSharding();
+        this.pingTimeout = cacheProperties.getRedis().getReadTimeout();
+        int virtualNodes = Math.max(properties.getVirtualNodes(), 1);
+        for (RedisShard shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shard.name() + "#" + i), shard);
+            }
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        logger.info("Redis tier mode: {}, shards: {}", mode(), shards.stream().map(RedisShard::name).toList());
+        ticker = Flux.interval(properties.getHealthCheckInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(shards).flatMap(shard -> shard.ping(pingTimeout)), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+        }
+        shards.forEach(RedisShard::close);
+    }
+
+    /**
+     * Gets the shard holding the keys of a routing key
+     * @param routingKey the lookup location, e.g. "city:lisboa"
+     */
+    public RedisShard shardFor(String routingKey) {
+        if (shards.size() == 1) {
+            return shards.get(0);
+        }
+        Map.Entry<Long, RedisShard> point = ring.ceilingEntry(hash(routingKey));
+        return point != null ? point.getValue() : ring.firstEntry().getValue();
+    }
+
+    public List<RedisShard> shards() {
+        return shards;
+    }
+
+    /**
+     * Checks whether every key is on one Redis server, so multi-key scripts may touch any keys
+     */
+    public boolean isSingleNode() {
+        return shards.size() == 1 && !clustered;
+    }
+
+    /**
+     * Gets the tier layout and the health of every shard
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode());
+        List<Map<String, Object>> shardStats = new ArrayList<>(shards.size());
+        shards.forEach(shard -> shardStats.add(shard.getStats()));
+        stats.put("shards", shardStats);
+        return stats;
+    }
+
+    private String mode() {
+        if (shards.size() > 1) {
+            return "sharded";
+        }
+        return clustered ? "cluster" : "standalone";
+    }
+
+    private static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= FNV_PRIME;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+}
@@ -0,0 +1,217 @@
+package com.lplemos.weather_service.cache.refresh;
+
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming heavy-hitter detection over cache lookups
+ * Every lookup increments a count-min sketch (depth rows of width counters, estimate = minimum
+ * over the rows), so memory stays fixed however many keys are seen. Keys whose estimate reaches
+ * min-count compete for the top-k table: a key is admitted when it beats the coldest key in a full
+ * table. Sketch and table counts are halved every decay-interval so the ranking follows recent
+ * traffic, and keys that fall below min-count leave the table. Keys in the table are hot: the
+ * hierarchical cache keeps them longer in L1 and refresh-ahead always considers them
+ */
+@Component
+public class HeavyHitterTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeavyHitterTracker.class);
+
+    private static final long[] SEEDS = {
+        0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+        0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x94D049BB133111EBL, 0xBF58476D1CE4E5B9L
+    };
+
+    private final CacheProperties.HeavyHitters properties;
+    private final int depth;
+    private final int widthMask;
+    private final AtomicLongArray sketch;
+    private final Map<WeatherCacheKey, Long> topK = new ConcurrentHashMap<>();
+    private final ReentrantLock topKLock = new ReentrantLock();
+    // Estimate a key needs to enter the table; guarded by topKLock for writes
+    private volatile long admissionThreshold;
+    private volatile Disposable ticker;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder decays = new LongAdder();
+
+    public HeavyHitterTracker(CacheProperties cacheProperties) {
+        this.properties = cacheProperties.getHeavyHitters();
+        this.depth = Math.min(Math.max(properties.getDepth(), 1), SEEDS.length);
+        int width = Integer.highestOneBit(Math.max(properties.getWidth(), 16));
+        this.widthMask = width - 1;
+        this.sketch = new AtomicLongArray(depth * width);
+        this.admissionThreshold = properties.getMinCount();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Heavy-hitter tracking disabled");
+            return;
+        }
+        logger.info("Starting heavy-hitter tracking: top {} keys, decay every {}",
+            properties.getTopK(), properties.getDecayInterval());
+        ticker = Flux.interval(properties.getDecayInterval())
+                .onBackpressureDrop()
+                .subscribe(tick -> decay());
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Records a lookup of a key
+     * @param key the cache key
+     */
+    public void record(WeatherCacheKey key) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        recorded.increment();
+        long estimate = increment(key);
+        if (topK.containsKey(key)) {
+            topK.put(key, estimate);
+        } else if (estimate >= admissionThreshold) {
+            admit(key, estimate);
+        }
+    }
+
+    /**
+     * Checks whether a key is currently a heavy hitter
+     * @param key the cache key
+     * @return true if the key is in the top-k table
+     */
+    public boolean isHot(WeatherCacheKey key) {
+        return topK.containsKey(key);
+    }
+
+    /**
+     * Gets the current heavy hitters
+     * @return the keys in the top-k table
+     */
+    public Set<WeatherCacheKey> hotKeys() {
+        return topK.keySet();
+    }
+
+    /**
+     * Gets the heavy hitters with their estimated counts, hottest first
+     * @return list of key and count pairs
+     */
+    public List<Map<String, Object>> topK() {
+        List<Map.Entry<WeatherCacheKey, Long>> entries = new ArrayList<>(topK.entrySet());
+        entries.sort(Map.Entry.<WeatherCacheKey, Long>comparingByValue().reversed());
+        List<Map<String, Object>> result = new ArrayList<>(entries.size());
+        for (Map.Entry<WeatherCacheKey, Long> entry : entries) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("key", entry.getKey().asString());
+            item.put("count", entry.getValue());
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Gets heavy-hitter counters and the current top-k
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("recorded", recorded.sum());
+        stats.put("admitted", admitted.sum());
+        stats.put("decays", decays.sum());
+        stats.put("admissionThreshold", admissionThreshold);
+        stats.put("topK", topK());
+        return stats;
+    }
+
+    /**
+     * Halves all counts and drops table keys that are no longer frequent enough
+     */
+    void decay() {
+        decays.increment();
+        for (int i = 0; i < sketch.length(); i++) {
+            sketch.updateAndGet(i, count -> count >> 1);
+        }
+        topKLock.lock();
+        try {
+            topK.replaceAll((key, count) -> count >> 1);
+            topK.values().removeIf(count -> count < properties.getMinCount());
+            updateThreshold();
+        } finally {
+            topKLock.unlock();
+        }
+    }
+
+    /**
+     * Adds one to the key's counters and returns its new estimate
+     */
+    private long increment(WeatherCacheKey key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, sketch.incrementAndGet(row * (widthMask + 1) + index(hash, row)));
+        }
+        return estimate;
+    }
+
+    private int index(int hash, int row) {
+        long mixed = (hash + SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+        return (int) (mixed ^ (mixed >>> 32)) & widthMask;
+    }
+
+    private void admit(WeatherCacheKey key, long estimate) {
+        topKLock.lock();
+        try {
+            if (estimate < admissionThreshold || topK.containsKey(key)) {
+                return;
+            }
+            topK.put(key, estimate);
+            admitted.increment();
+            if (topK.size() > properties.getTopK()) {
+                topK.entrySet().stream()
+                        .min(Comparator.comparingLong(Map.Entry::getValue))
+                        .ifPresent(coldest -> topK.remove(coldest.getKey()));
+            }
+            updateThreshold();
+        } finally {
+            topKLock.unlock();
+        }
+    }
+
+    /**
+     * A full table only admits keys hotter than its coldest key
+     */
+    private void updateThreshold() {
+        long threshold = properties.getMinCount();
+        if (topK.size() >= properties.getTopK()) {
+            threshold = Math.max(threshold, topK.values().stream().mapToLong(Long::longValue).min().orElse(0L) + 1);
+        }
+        admissionThreshold = threshold;
+    }
+}
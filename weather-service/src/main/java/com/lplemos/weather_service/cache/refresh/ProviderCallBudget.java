@@ -0,0 +1,116 @@
+package com.lplemos.weather_service.cache.refresh;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cluster-wide cap on provider calls made by refresh-ahead
+ * A fixed-window counter in Redis shared by every replica: each call takes one unit of the
+ * current window and is denied once the window's limit is used up. When Redis cannot be
+ * reached the call is denied, so an outage never turns into unbounded provider traffic.
+ * Other callers can run their own budgets on the same mechanism with {@link #tryAcquire(String, long, Duration)}
+ */
+@Component
+public class ProviderCallBudget {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderCallBudget.class);
+
+    /**
+     * INCR the window counter, setting its expiry on the first call of the window
+     */
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = RedisScript.of(
+        "local count = redis.call('INCR', KEYS[1]) " +
+        "if count == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+        "return count",
+        Long.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final CacheProperties.RefreshAhead properties;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    public ProviderCallBudget(ReactiveStringRedisTemplate redisTemplate, CacheProperties cacheProperties) {
+        this.redisTemplate = redisTemplate;
+        this.properties = cacheProperties.getRefreshAhead();
+    }
+
+    /**
+     * Takes one provider call from the current window
+     * @return Mono emitting true when the call may be made
+     */
+    public Mono<Boolean> tryAcquire() {
+        return tryAcquire(properties.getBudgetKey(), properties.getBudgetPerWindow(), properties.getBudgetWindow())
+                .doOnNext(allowed -> (allowed ? granted : denied).increment());
+    }
+
+    /**
+     * Takes one call from another fixed-window budget; not counted in this budget's stats
+     * @param budgetKey Redis key prefix of the budget
+     * @param limit calls allowed per window
+     * @param window window length
+     * @return Mono emitting true when the call may be made
+     */
+    public Mono<Boolean> tryAcquire(String budgetKey, long limit, Duration window) {
+        return acquire(budgetKey, limit, window)
+                .onErrorResume(error -> {
+                    errors.increment();
+                    logger.debug("Call budget {} unavailable, denying call: {}", budgetKey, error.getMessage());
+                    return Mono.just(false);
+                });
+    }
+
+    /**
+     * Takes one call from another fixed-window budget, granting it when the budget cannot be read
+     * within the timeout; for user-facing paths, where a Redis outage must not fail or stall requests
+     * @param budgetKey Redis key prefix of the budget
+     * @param limit calls allowed per window
+     * @param window window length
+     * @param timeout how long to wait for Redis before granting the call
+     * @return Mono emitting true when the call may be made
+     */
+    public Mono<Boolean> tryAcquireOrAllow(String budgetKey, long limit, Duration window, Duration timeout) {
+        return acquire(budgetKey, limit, window)
+                .timeout(timeout)
+                .onErrorResume(error -> {
+                    errors.increment();
+                    logger.debug("Call budget {} unavailable, allowing call: {}", budgetKey, error.getMessage());
+                    return Mono.just(true);
+                });
+    }
+
+    private Mono<Boolean> acquire(String budgetKey, long limit, Duration window) {
+        long windowMillis = window.toMillis();
+        String key = budgetKey + ":" + (System.currentTimeMillis() / windowMillis);
+        return redisTemplate.execute(ACQUIRE_SCRIPT, List.of(key), List.of(Long.toString(windowMillis)))
+                .next()
+                .map(count -> count <= limit)
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * Gets budget counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("budgetPerWindow", properties.getBudgetPerWindow());
+        stats.put("window", properties.getBudgetWindow().toString());
+        stats.put("granted", granted.sum());
+        stats.put("denied", denied.sum());
+        stats.put("errors", errors.sum());
+        return stats;
+    }
+}
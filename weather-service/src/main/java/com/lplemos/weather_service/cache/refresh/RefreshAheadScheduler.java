@@ -0,0 +1,240 @@
+package com.lplemos.weather_service.cache.refresh;
+
+import com.lplemos.weather_service.cache.AdaptiveTtlPolicy;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the hottest cache keys fresh by reloading them shortly before their soft TTL
+ * Every lookup records an access for its key; counts are halved on each tick so the ranking
+ * follows recent traffic. On each tick the top hot-keys entries, plus the heavy hitters found by
+ * the {@link HeavyHitterTracker}, whose soft TTL (as computed by the {@link AdaptiveTtlPolicy})
+ * ends within the lead time are reloaded through the refresher registered with the access. The
+ * refresher decides where the data comes from (another replica may already have refreshed it
+ * in Redis) and spends the {@link ProviderCallBudget} before calling the provider
+ */
+@Component
+public class RefreshAheadScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadScheduler.class);
+
+    private final CacheProperties.RefreshAhead properties;
+    private final ProviderCallBudget providerCallBudget;
+    private final AdaptiveTtlPolicy adaptiveTtlPolicy;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final Map<WeatherCacheKey, HotKey> tracked = new ConcurrentHashMap<>();
+    private volatile Disposable ticker;
+
+    private final LongAdder ticks = new LongAdder();
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder untracked = new LongAdder();
+
+    public RefreshAheadScheduler(CacheProperties cacheProperties, ProviderCallBudget providerCallBudget,
+                                 AdaptiveTtlPolicy adaptiveTtlPolicy, HeavyHitterTracker heavyHitterTracker) {
+        this.properties = cacheProperties.getRefreshAhead();
+        this.providerCallBudget = providerCallBudget;
+        this.adaptiveTtlPolicy = adaptiveTtlPolicy;
+        this.heavyHitterTracker = heavyHitterTracker;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled()) {
+            logger.info("Refresh-ahead disabled");
+            return;
+        }
+        logger.info("Starting refresh-ahead: top {} keys every {}, lead {}",
+            properties.getHotKeys(), properties.getInterval(), properties.getLead());
+        ticker = Flux.interval(properties.getInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> refreshHotKeys(), 1)
+                .subscribe();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = ticker;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Records a lookup of a key
+     * @param key the cache key
+     * @param entry the entry served
+     * @param refresher reloads the entry; only kept from the first access of a key
+     */
+    public void recordAccess(WeatherCacheKey key, CachedWeather entry, Supplier<Mono<CachedWeather>> refresher) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        HotKey hotKey = tracked.get(key);
+        if (hotKey == null) {
+            if (tracked.size() >= properties.getMaxTrackedKeys()) {
+                untracked.increment();
+                return;
+            }
+            hotKey = tracked.computeIfAbsent(key, k -> new HotKey(k, refresher));
+        }
+        hotKey.count.incrementAndGet();
+        hotKey.softExpiresAt.accumulateAndGet(adaptiveTtlPolicy.softExpiresAt(key, entry), Math::max);
+    }
+
+    /**
+     * Checks whether an entry's soft TTL ends within the lead time
+     * @param key the cache key
+     * @param entry the cached entry
+     * @param now current time in milliseconds
+     */
+    public boolean isDue(WeatherCacheKey key, CachedWeather entry, long now) {
+        return isDue(adaptiveTtlPolicy.softExpiresAt(key, entry), now);
+    }
+
+    private boolean isDue(long softExpiresAt, long now) {
+        return softExpiresAt - properties.getLead().toMillis() <= now;
+    }
+
+    /**
+     * Takes one call from the provider call budget
+     * @return Mono emitting true when the provider may be called
+     */
+    public Mono<Boolean> acquireProviderCall() {
+        return providerCallBudget.tryAcquire();
+    }
+
+    /**
+     * Runs one tick: reloads the due entries among the hottest keys and the heavy hitters, then
+     * ages all counts
+     */
+    Mono<Void> refreshHotKeys() {
+        ticks.increment();
+        long now = System.currentTimeMillis();
+        Set<HotKey> candidates = new LinkedHashSet<>(hottest(properties.getHotKeys()));
+        for (WeatherCacheKey key : heavyHitterTracker.hotKeys()) {
+            HotKey hotKey = tracked.get(key);
+            if (hotKey != null) {
+                candidates.add(hotKey);
+            }
+        }
+        List<HotKey> due = new ArrayList<>();
+        for (HotKey hotKey : candidates) {
+            if (isDue(hotKey.softExpiresAt.get(), now)) {
+                due.add(hotKey);
+            }
+        }
+        decay();
+        return Flux.fromIterable(due)
+                .flatMap(this::refresh, properties.getConcurrency())
+                .then();
+    }
+
+    /**
+     * Gets the tracked keys with the highest counts, hottest first
+     */
+    List<HotKey> hottest(int limit) {
+        PriorityQueue<HotKey> top = new PriorityQueue<>(Comparator.comparingLong(HotKey::count));
+        for (HotKey hotKey : tracked.values()) {
+            if (hotKey.count() == 0) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(hotKey);
+            } else if (hotKey.count() > top.peek().count()) {
+                top.poll();
+                top.add(hotKey);
+            }
+        }
+        List<HotKey> result = new ArrayList<>(top);
+        result.sort(Comparator.comparingLong(HotKey::count).reversed());
+        return result;
+    }
+
+    /**
+     * Gets refresh-ahead counters
+     * @return map of counter name to value
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", properties.isEnabled());
+        stats.put("trackedKeys", tracked.size());
+        stats.put("ticks", ticks.sum());
+        stats.put("refreshed", refreshed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("untracked", untracked.sum());
+        stats.put("budget", providerCallBudget.getStats());
+        return stats;
+    }
+
+    private Mono<Void> refresh(HotKey hotKey) {
+        return Mono.defer(hotKey.refresher)
+                .doOnNext(entry -> {
+                    hotKey.softExpiresAt.accumulateAndGet(adaptiveTtlPolicy.softExpiresAt(hotKey.key, entry), Math::max);
+                    refreshed.increment();
+                    logger.debug("Refreshed ahead key: {}", hotKey.key);
+                })
+                .switchIfEmpty(Mono.fromRunnable(skipped::increment))
+                .onErrorResume(error -> {
+                    failed.increment();
+                    logger.warn("Refresh-ahead failed for key: {}: {}", hotKey.key, error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Halves every count and forgets keys that were not accessed for several ticks
+     */
+    private void decay() {
+        tracked.values().removeIf(hotKey -> hotKey.count.updateAndGet(count -> count >> 1) == 0);
+    }
+
+    /**
+     * Access count, last known soft expiry and reload function of one key
+     */
+    static final class HotKey {
+
+        private final WeatherCacheKey key;
+        private final Supplier<Mono<CachedWeather>> refresher;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong softExpiresAt = new AtomicLong();
+
+        private HotKey(WeatherCacheKey key, Supplier<Mono<CachedWeather>> refresher) {
+            this.key = key;
+            this.refresher = refresher;
+        }
+
+        WeatherCacheKey key() {
+            return key;
+        }
+
+        long count() {
+            return count.get();
+        }
+    }
+}
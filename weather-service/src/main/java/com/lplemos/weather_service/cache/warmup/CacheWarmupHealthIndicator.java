@@ -0,0 +1,28 @@
+package com.lplemos.weather_service.cache.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.ReactiveHealthIndicator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reports cache warm-up progress as the "cacheWarmup" health contributor
+ * OUT_OF_SERVICE while the warm-up is pending or running, UP once it is over (including when
+ * it timed out or failed, so a provider outage cannot keep the instance out of rotation).
+ * Included in the readiness group
+ */
+@Component
+public class CacheWarmupHealthIndicator implements ReactiveHealthIndicator {
+
+    private final CacheWarmupService cacheWarmupService;
+
+    public CacheWarmupHealthIndicator(CacheWarmupService cacheWarmupService) {
+        this.cacheWarmupService = cacheWarmupService;
+    }
+
+    @Override
+    public Mono<Health> health() {
+        Health.Builder builder = cacheWarmupService.getState().isFinished() ? Health.up() : Health.outOfService();
+        return Mono.just(builder.withDetails(cacheWarmupService.getStats()).build());
+    }
+}
@@ -0,0 +1,246 @@
+package com.lplemos.weather_service.cache.warmup;
+
+import com.lplemos.weather_service.cache.ProviderCallGate;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.config.WeatherApiConfig;
+import com.lplemos.weather_service.exception.WeatherServiceException;
+import com.lplemos.weather_service.model.City;
+import com.lplemos.weather_service.repository.CityRepository;
+import com.lplemos.weather_service.service.HierarchicalCacheService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Preloads the hierarchical cache for every active city at startup
+ * Once the application is ready, current weather and forecast are loaded for each active city
+ * and configured language through the regular cache path, so entries land in both tiers (and
+ * entries another replica already wrote to Redis are just copied to L1). Loads run with bounded
+ * concurrency; the ones that reach the provider are paced to a calls-per-second budget through a
+ * {@link ProviderCallGate}, while cache hits are not held back. A 429 from the provider pushes the
+ * next slot back by the Retry-After delay (or the configured back-off). Until the warm-up finishes (or hits its deadline)
+ * {@link CacheWarmupHealthIndicator} keeps the readiness group out of service
+ */
+@Component
+public class CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupService.class);
+
+    /**
+     * Warm-up lifecycle; every state but PENDING and RUNNING lets readiness report UP
+     */
+    public enum State {
+        PENDING, RUNNING, COMPLETED, TIMED_OUT, FAILED, DISABLED;
+
+        public boolean isFinished() {
+            return this != PENDING && this != RUNNING;
+        }
+    }
+
+    private final CityRepository cityRepository;
+    private final HierarchicalCacheService hierarchicalCacheService;
+    private final CacheProperties.Warmup properties;
+    private final String providerType;
+
+    private final ProviderCallGate gate = this::acquireSlot;
+    private final AtomicLong nextSlot = new AtomicLong();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private volatile State state;
+    private volatile int total;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Disposable run;
+
+    public CacheWarmupService(
+            CityRepository cityRepository,
+            HierarchicalCacheService hierarchicalCacheService,
+            CacheProperties cacheProperties,
+            WeatherApiConfig weatherApiConfig) {
+        this.cityRepository = cityRepository;
+        this.hierarchicalCacheService = hierarchicalCacheService;
+        this.properties = cacheProperties.getWarmup();
+        this.providerType = weatherApiConfig.getDefaultProvider();
+        this.state = properties.isEnabled() ? State.PENDING : State.DISABLED;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (state == State.PENDING) {
+            run = warmUp().subscribe();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        Disposable current = run;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Runs the warm-up once; completes when every load has finished or the deadline passed
+     * @return Mono completing when the warm-up is over
+     */
+    public Mono<Void> warmUp() {
+        if (state != State.PENDING) {
+            return Mono.empty();
+        }
+        state = State.RUNNING;
+        startedAt = Instant.now();
+        logger.info("=== Cache warm-up START (languages {}, concurrency {}, {} calls/s) ===",
+            properties.getLanguages(), properties.getConcurrency(), properties.getCallsPerSecond());
+
+        return cityRepository.findByIsActiveTrue()
+                .collectList()
+                .map(this::tasks)
+                .flatMapMany(tasks -> {
+                    total = tasks.size();
+                    return Flux.fromIterable(tasks);
+                })
+                .flatMap(this::load, properties.getConcurrency())
+                .then()
+                .timeout(properties.getTimeout())
+                .doOnSuccess(ignored -> finish(State.COMPLETED))
+                .onErrorResume(error -> {
+                    if (error instanceof TimeoutException) {
+                        logger.warn("Cache warm-up timed out after {}", properties.getTimeout());
+                        finish(State.TIMED_OUT);
+                    } else {
+                        logger.error("Cache warm-up failed: {}", error.getMessage());
+                        finish(State.FAILED);
+                    }
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Gets warm-up progress
+     * @return map of progress field to value
+     */
+    public Map<String, Object> getStats() {
+        long done = completed.sum() + failed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("total", total);
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rateLimited", rateLimited.sum());
+        stats.put("progress", total == 0 ? (state.isFinished() ? 1.0 : 0.0) : (double) done / total);
+        if (startedAt != null) {
+            stats.put("startedAt", startedAt.toString());
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            stats.put("elapsedMs", Duration.between(startedAt, end).toMillis());
+        }
+        return stats;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private List<Task> tasks(List<City> cities) {
+        List<Task> tasks = new ArrayList<>(cities.size() * properties.getLanguages().size() * 2);
+        for (City city : cities) {
+            for (String language : properties.getLanguages()) {
+                for (WeatherCacheKey.Kind kind : WeatherCacheKey.Kind.values()) {
+                    tasks.add(new Task(kind, city.name(), language));
+                }
+            }
+        }
+        return tasks;
+    }
+
+    private Mono<Void> load(Task task) {
+        return Mono.defer(() -> task.kind() == WeatherCacheKey.Kind.CURRENT
+                    ? hierarchicalCacheService.getCurrentWeather(task.cityName(), providerType, task.language())
+                    : hierarchicalCacheService.getWeatherForecast(task.cityName(), providerType, task.language()))
+                .contextWrite(gate::putIn)
+                .doOnSuccess(ignored -> completed.increment())
+                .onErrorResume(error -> {
+                    failed.increment();
+                    onRateLimited(error);
+                    logger.debug("Cache warm-up of {} {} ({}) failed: {}",
+                        task.kind().getCode(), task.cityName(), task.language(), error.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Waits for the next free call slot; slots are 1/callsPerSecond apart
+     */
+    Mono<Void> acquireSlot() {
+        long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getCallsPerSecond());
+        long now = System.nanoTime();
+        long previous = nextSlot.getAndAccumulate(now, (slot, current) -> Math.max(slot, current) + interval);
+        long wait = Math.max(previous, now) - now;
+        return wait <= 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(wait)).then();
+    }
+
+    private void onRateLimited(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WebClientResponseException response && response.getStatusCode().value() == 429) {
+                backOff(retryAfter(response));
+                return;
+            }
+            if (cause instanceof WeatherServiceException serviceError && serviceError.getHttpStatus() == 429) {
+                backOff(properties.getRateLimitBackoff());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Pushes the next call slot back after the provider rate-limited a call
+     */
+    private void backOff(Duration backoff) {
+        rateLimited.increment();
+        logger.warn("Provider rate limit hit during cache warm-up, pausing for {}", backoff);
+        long resumeAt = System.nanoTime() + backoff.toNanos();
+        nextSlot.accumulateAndGet(resumeAt, Math::max);
+    }
+
+    private Duration retryAfter(WebClientResponseException response) {
+        String header = response.getHeaders().getFirst("Retry-After");
+        if (header != null) {
+            try {
+                return Duration.ofSeconds(Long.parseLong(header.trim()));
+            } catch (NumberFormatException e) {
+                // HTTP-date form; fall back to the configured backoff
+            }
+        }
+        return properties.getRateLimitBackoff();
+    }
+
+    private void finish(State finalState) {
+        finishedAt = Instant.now();
+        state = finalState;
+        logger.info("=== Cache warm-up {} : {}/{} loaded, {} failed in {} ms ===", finalState,
+            completed.sum(), total, failed.sum(), Duration.between(startedAt, finishedAt).toMillis());
+    }
+
+    private record Task(WeatherCacheKey.Kind kind, String cityName, String language) {
+    }
+}
@@ -0,0 +1,1110 @@
+package com.lplemos.weather_service.config;
+
+import com.lplemos.weather_service.cache.bloom.UnknownCityPolicy;
+import com.lplemos.weather_service.cache.codec.CodecCompression;
+import com.lplemos.weather_service.cache.codec.CodecFormat;
+import com.lplemos.weather_service.service.WeatherServiceConstants;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tuning knobs for the hierarchical (local + Redis) weather cache
+ * Bound to the "weather.cache" prefix
+ */
+@Configuration
+@ConfigurationProperties(prefix = "weather.cache")
+public class CacheProperties {
+
+    private SingleFlight singleFlight = new SingleFlight();
+    private Redis redis = new Redis();
+    private Sharding sharding = new Sharding();
+    private Codec codec = new Codec();
+    private Invalidation invalidation = new Invalidation();
+    private Geo geo = new Geo();
+    private PreEncoded preEncoded = new PreEncoded();
+    private OffHeap offHeap = new OffHeap();
+    private Persistent persistent = new Persistent();
+    private Batch batch = new Batch();
+    private Warmup warmup = new Warmup();
+    private RefreshAhead refreshAhead = new RefreshAhead();
+    private HeavyHitters heavyHitters = new HeavyHitters();
+    private Negative negative = new Negative();
+    private KnownCities knownCities = new KnownCities();
+    private Namespace namespace = new Namespace();
+    private Localization localization = new Localization();
+    private AdaptiveTtl adaptiveTtl = new AdaptiveTtl();
+    private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    public CacheProperties() {
+        caches.put(WeatherServiceConstants.CACHE_WEATHER_CURRENT,
+            new CacheSpec(Duration.ofMinutes(5), Duration.ofMinutes(10), 10_000));
+        caches.put(WeatherServiceConstants.CACHE_WEATHER_FORECAST,
+            new CacheSpec(Duration.ofMinutes(10), Duration.ofHours(1), 2_000));
+    }
+
+    /**
+     * Gets the spec for a cache, falling back to the current weather spec
+     * @param cacheName the cache name
+     * @return the cache spec
+     */
+    public CacheSpec getCacheSpec(String cacheName) {
+        CacheSpec spec = caches.get(cacheName);
+        return spec != null ? spec : caches.get(WeatherServiceConstants.CACHE_WEATHER_CURRENT);
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
+    public Redis getRedis() {
+        return redis;
+    }
+
+    public void setRedis(Redis redis) {
+        this.redis = redis;
+    }
+
+    public Sharding getSharding() {
+        return sharding;
+    }
+
+    public void setSharding(Sharding sharding) {
+        this.sharding = sharding;
+    }
+
+    public Codec getCodec() {
+        return codec;
+    }
+
+    public void setCodec(Codec codec) {
+        this.codec = codec;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public void setInvalidation(Invalidation invalidation) {
+        this.invalidation = invalidation;
+    }
+
+    public Geo getGeo() {
+        return geo;
+    }
+
+    public void setGeo(Geo geo) {
+        this.geo = geo;
+    }
+
+    public PreEncoded getPreEncoded() {
+        return preEncoded;
+    }
+
+    public void setPreEncoded(PreEncoded preEncoded) {
+        this.preEncoded = preEncoded;
+    }
+
+    public OffHeap getOffHeap() {
+        return offHeap;
+    }
+
+    public void setOffHeap(OffHeap offHeap) {
+        this.offHeap = offHeap;
+    }
+
+    public Persistent getPersistent() {
+        return persistent;
+    }
+
+    public void setPersistent(Persistent persistent) {
+        this.persistent = persistent;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public RefreshAhead getRefreshAhead() {
+        return refreshAhead;
+    }
+
+    public void setRefreshAhead(RefreshAhead refreshAhead) {
+        this.refreshAhead = refreshAhead;
+    }
+
+    public HeavyHitters getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    public void setHeavyHitters(HeavyHitters heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+
+    public Negative getNegative() {
+        return negative;
+    }
+
+    public void setNegative(Negative negative) {
+        this.negative = negative;
+    }
+
+    public KnownCities getKnownCities() {
+        return knownCities;
+    }
+
+    public void setKnownCities(KnownCities knownCities) {
+        this.knownCities = knownCities;
+    }
+
+    public Namespace getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(Namespace namespace) {
+        this.namespace = namespace;
+    }
+
+    public Localization getLocalization() {
+        return localization;
+    }
+
+    public void setLocalization(Localization localization) {
+        this.localization = localization;
+    }
+
+    public AdaptiveTtl getAdaptiveTtl() {
+        return adaptiveTtl;
+    }
+
+    public void setAdaptiveTtl(AdaptiveTtl adaptiveTtl) {
+        this.adaptiveTtl = adaptiveTtl;
+    }
+
+    public Map<String, CacheSpec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, CacheSpec> caches) {
+        this.caches = caches;
+    }
+
+    /**
+     * Per-cache expiry and local capacity settings
+     * Past the soft TTL an entry is served stale while one background refresh runs;
+     * past the hard TTL it is treated as a miss and the caller waits for the provider.
+     * The local tier holds at most maximum-size entries, or, when maximum-weight is set,
+     * entries whose payload weight (forecast slots) adds up to maximum-weight
+     */
+    public static class CacheSpec {
+
+        private Duration softTtl;
+        private Duration hardTtl;
+        private long maximumSize = 10_000;
+        private long maximumWeight;
+
+        public CacheSpec() {
+        }
+
+        public CacheSpec(Duration softTtl, Duration hardTtl, long maximumSize) {
+            this.softTtl = softTtl;
+            this.hardTtl = hardTtl;
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getSoftTtl() {
+            return softTtl;
+        }
+
+        public void setSoftTtl(Duration softTtl) {
+            this.softTtl = softTtl;
+        }
+
+        public Duration getHardTtl() {
+            return hardTtl;
+        }
+
+        public void setHardTtl(Duration hardTtl) {
+            this.hardTtl = hardTtl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+    }
+
+    /**
+     * Reactive Redis (L2) tier settings
+     * Reads that exceed the read timeout are treated as misses; writes are fire-and-forget
+     */
+    public static class Redis {
+
+        private Duration readTimeout = Duration.ofMillis(250);
+        private Duration writeTimeout = Duration.ofSeconds(1);
+        private String indexPrefix = "weather-cache:index";
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getWriteTimeout() {
+            return writeTimeout;
+        }
+
+        public void setWriteTimeout(Duration writeTimeout) {
+            this.writeTimeout = writeTimeout;
+        }
+
+        public String getIndexPrefix() {
+            return indexPrefix;
+        }
+
+        public void setIndexPrefix(String indexPrefix) {
+            this.indexPrefix = indexPrefix;
+        }
+    }
+
+    /**
+     * Layout and health of the Redis tier
+     * With no nodes the tier uses the spring.data.redis connection, which may itself be a Redis
+     * Cluster. With nodes (redis:// URIs) cache entries and location indexes are spread over those
+     * independent servers by consistent hashing of the lookup location, with virtual-nodes points
+     * per server on the ring; coordination keys (namespaces, budgets, known cities, invalidation)
+     * stay on the spring.data.redis connection. A shard that fails failure-threshold calls in a
+     * row is skipped for retry-interval, its keys served from L1 and the provider only; every
+     * shard is pinged each health-check-interval
+     */
+    public static class Sharding {
+
+        private List<String> nodes = List.of();
+        private int virtualNodes = 160;
+        private int failureThreshold = 3;
+        private Duration retryInterval = Duration.ofSeconds(10);
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        public List<String> getNodes() {
+            return nodes;
+        }
+
+        public void setNodes(List<String> nodes) {
+            this.nodes = nodes;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getRetryInterval() {
+            return retryInterval;
+        }
+
+        public void setRetryInterval(Duration retryInterval) {
+            this.retryInterval = retryInterval;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+    }
+
+    /**
+     * Encoding of values written to Redis
+     * Values are always read according to their own header, so format and compression can be
+     * changed without flushing Redis; payloads smaller than the threshold are stored uncompressed
+     */
+    public static class Codec {
+
+        private CodecFormat format = CodecFormat.SMILE;
+        private CodecCompression compression = CodecCompression.DEFLATE;
+        private int compressionThreshold = 1024;
+
+        public CodecFormat getFormat() {
+            return format;
+        }
+
+        public void setFormat(CodecFormat format) {
+            this.format = format;
+        }
+
+        public CodecCompression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(CodecCompression compression) {
+            this.compression = compression;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
+
+    /**
+     * Cross-node local cache invalidation over Redis pub/sub
+     * Invalidations are flushed every batch-window in batches of at most batch-size; the
+     * generation counter is compared with Redis every resync-interval
+     */
+    public static class Invalidation {
+
+        private boolean enabled = true;
+        private String channel = "weather-cache:invalidation";
+        private int batchSize = 100;
+        private Duration batchWindow = Duration.ofMillis(50);
+        private Duration resyncInterval = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBatchWindow() {
+            return batchWindow;
+        }
+
+        public void setBatchWindow(Duration batchWindow) {
+            this.batchWindow = batchWindow;
+        }
+
+        public Duration getResyncInterval() {
+            return resyncInterval;
+        }
+
+        public void setResyncInterval(Duration resyncInterval) {
+            this.resyncInterval = resyncInterval;
+        }
+    }
+
+    /**
+     * Spatial bucketing of coordinate lookups
+     * Coordinates are snapped to the geohash cell of the given precision (5 is about 4.9 x 4.9 km,
+     * 6 about 1.2 x 0.6 km); the cell is the cache key and its center is the provider query point
+     */
+    public static class Geo {
+
+        private boolean enabled = true;
+        private int precision = 5;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPrecision() {
+            return precision;
+        }
+
+        public void setPrecision(int precision) {
+            this.precision = precision;
+        }
+    }
+
+    /**
+     * Pre-encoded response bodies for local cache hits
+     * When enabled, local entries keep their JSON body (and a gzip variant for bodies of at least
+     * gzip-min-size bytes) so hits are written without re-serializing the payload
+     */
+    public static class PreEncoded {
+
+        private boolean enabled = false;
+        private int gzipMinSize = 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getGzipMinSize() {
+            return gzipMinSize;
+        }
+
+        public void setGzipMinSize(int gzipMinSize) {
+            this.gzipMinSize = gzipMinSize;
+        }
+    }
+
+    /**
+     * Off-heap storage for the local forecast cache
+     * When enabled, forecast payloads are kept codec-encoded in direct memory slabs of slab-size
+     * bytes, at most max-slabs of them; only the index stays on the heap
+     */
+    public static class OffHeap {
+
+        private boolean enabled = false;
+        private int slabSize = 4 * 1024 * 1024;
+        private int maxSlabs = 32;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getSlabSize() {
+            return slabSize;
+        }
+
+        public void setSlabSize(int slabSize) {
+            this.slabSize = slabSize;
+        }
+
+        public int getMaxSlabs() {
+            return maxSlabs;
+        }
+
+        public void setMaxSlabs(int maxSlabs) {
+            this.maxSlabs = maxSlabs;
+        }
+    }
+
+    /**
+     * Disk-backed local caches that survive restarts
+     * When enabled, each local cache (except an off-heap forecast cache) is mirrored to an
+     * append-only, memory-mapped file of segment-size bytes in directory and reloaded at startup
+     */
+    public static class Persistent {
+
+        private boolean enabled = false;
+        private String directory = "data/cache";
+        private int segmentSize = 64 * 1024 * 1024;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+    }
+
+    /**
+     * Batch lookups of many cities at once
+     * L1 hits are served locally, the remaining keys are read from Redis with one MGET and at most
+     * provider-concurrency of the keys still missing are loaded from the provider at a time.
+     * Requests for more than max-keys cities are refused
+     */
+    public static class Batch {
+
+        private int maxKeys = 100;
+        private int providerConcurrency = 8;
+
+        public int getMaxKeys() {
+            return maxKeys;
+        }
+
+        public void setMaxKeys(int maxKeys) {
+            this.maxKeys = maxKeys;
+        }
+
+        public int getProviderConcurrency() {
+            return providerConcurrency;
+        }
+
+        public void setProviderConcurrency(int providerConcurrency) {
+            this.providerConcurrency = providerConcurrency;
+        }
+    }
+
+    /**
+     * Startup preload of active cities
+     * Loads current weather and forecast for every active city in each language, at most
+     * concurrency loads at a time and calls-per-second loads per second; a provider 429 pauses
+     * the warm-up for Retry-After (or rate-limit-backoff). Readiness stays out of service until
+     * the warm-up ends or timeout elapses
+     */
+    public static class Warmup {
+
+        private boolean enabled = true;
+        private List<String> languages = List.of(WeatherServiceConstants.DEFAULT_LANGUAGE);
+        private int concurrency = 4;
+        private int callsPerSecond = 10;
+        private Duration rateLimitBackoff = Duration.ofSeconds(60);
+        private Duration timeout = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getLanguages() {
+            return languages;
+        }
+
+        public void setLanguages(List<String> languages) {
+            this.languages = languages;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getCallsPerSecond() {
+            return callsPerSecond;
+        }
+
+        public void setCallsPerSecond(int callsPerSecond) {
+            this.callsPerSecond = callsPerSecond;
+        }
+
+        public Duration getRateLimitBackoff() {
+            return rateLimitBackoff;
+        }
+
+        public void setRateLimitBackoff(Duration rateLimitBackoff) {
+            this.rateLimitBackoff = rateLimitBackoff;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Refresh-ahead of the hottest keys
+     * Every interval, the hot-keys most accessed keys whose soft TTL ends within lead are reloaded,
+     * at most concurrency at a time. Provider calls are capped cluster-wide at budget-per-window
+     * calls per budget-window, counted in Redis under budget-key. At most max-tracked-keys keys
+     * are ranked at once
+     */
+    public static class RefreshAhead {
+
+        private boolean enabled = true;
+        private Duration interval = Duration.ofSeconds(15);
+        private Duration lead = Duration.ofSeconds(60);
+        private int hotKeys = 100;
+        private int concurrency = 4;
+        private int maxTrackedKeys = 10_000;
+        private int budgetPerWindow = 60;
+        private Duration budgetWindow = Duration.ofMinutes(1);
+        private String budgetKey = "weather-cache:refresh-budget";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+
+        public Duration getLead() {
+            return lead;
+        }
+
+        public void setLead(Duration lead) {
+            this.lead = lead;
+        }
+
+        public int getHotKeys() {
+            return hotKeys;
+        }
+
+        public void setHotKeys(int hotKeys) {
+            this.hotKeys = hotKeys;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+
+        public int getBudgetPerWindow() {
+            return budgetPerWindow;
+        }
+
+        public void setBudgetPerWindow(int budgetPerWindow) {
+            this.budgetPerWindow = budgetPerWindow;
+        }
+
+        public Duration getBudgetWindow() {
+            return budgetWindow;
+        }
+
+        public void setBudgetWindow(Duration budgetWindow) {
+            this.budgetWindow = budgetWindow;
+        }
+
+        public String getBudgetKey() {
+            return budgetKey;
+        }
+
+        public void setBudgetKey(String budgetKey) {
+            this.budgetKey = budgetKey;
+        }
+    }
+
+    /**
+     * Negative caching of provider "not found" responses
+     * A location the provider reports as unknown is remembered in both tiers for ttl, so
+     * repeated lookups of a misspelled city are answered without calling the provider
+     */
+    public static class Negative {
+
+        private boolean enabled = true;
+        private Duration ttl = Duration.ofMinutes(2);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * Versioned Redis key namespaces
+     * The global version is stored under key-prefix and each provider's version under
+     * key-prefix:provider; clearing bumps a version instead of deleting keys. Versions are
+     * reloaded every refresh-interval in case a clear message was missed
+     */
+    public static class Namespace {
+
+        private String keyPrefix = "weather-cache:namespace";
+        private Duration refreshInterval = Duration.ofSeconds(30);
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /**
+     * Language-independent caching
+     * When enabled, requests in a language that has a condition table are fetched and cached
+     * in canonical-language and only the condition descriptions are translated per response
+     */
+    public static class Localization {
+
+        private boolean enabled = true;
+        private String canonicalLanguage = WeatherServiceConstants.DEFAULT_LANGUAGE;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getCanonicalLanguage() {
+            return canonicalLanguage;
+        }
+
+        public void setCanonicalLanguage(String canonicalLanguage) {
+            this.canonicalLanguage = canonicalLanguage;
+        }
+    }
+
+    /**
+     * Per-entry TTLs following the provider's update schedule
+     * Current weather is fresh until its observation time plus current-update-interval, forecasts
+     * until the next forecast-interval boundary (UTC); update-delay is added for publication lag,
+     * the result is at least min-ttl and spread by +/- jitter (a fraction of the TTL)
+     */
+    public static class AdaptiveTtl {
+
+        private boolean enabled = true;
+        private Duration currentUpdateInterval = Duration.ofMinutes(10);
+        private Duration forecastInterval = Duration.ofHours(3);
+        private Duration updateDelay = Duration.ofMinutes(2);
+        private Duration minTtl = Duration.ofMinutes(1);
+        private double jitter = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getCurrentUpdateInterval() {
+            return currentUpdateInterval;
+        }
+
+        public void setCurrentUpdateInterval(Duration currentUpdateInterval) {
+            this.currentUpdateInterval = currentUpdateInterval;
+        }
+
+        public Duration getForecastInterval() {
+            return forecastInterval;
+        }
+
+        public void setForecastInterval(Duration forecastInterval) {
+            this.forecastInterval = forecastInterval;
+        }
+
+        public Duration getUpdateDelay() {
+            return updateDelay;
+        }
+
+        public void setUpdateDelay(Duration updateDelay) {
+            this.updateDelay = updateDelay;
+        }
+
+        public Duration getMinTtl() {
+            return minTtl;
+        }
+
+        public void setMinTtl(Duration minTtl) {
+            this.minTtl = minTtl;
+        }
+
+        public double getJitter() {
+            return jitter;
+        }
+
+        public void setJitter(double jitter) {
+            this.jitter = jitter;
+        }
+    }
+
+    /**
+     * Heavy-hitter detection over cache lookups
+     * A count-min sketch of depth rows by width counters feeds a table of the top-k keys seen at
+     * least min-count times; counts are halved every decay-interval. Hot keys keep their L1 entries
+     * local-ttl-extension longer than the hard TTL (served stale while refreshed) and are always
+     * considered by refresh-ahead
+     */
+    public static class HeavyHitters {
+
+        private boolean enabled = true;
+        private int topK = 20;
+        private int width = 4096;
+        private int depth = 4;
+        private long minCount = 50;
+        private Duration decayInterval = Duration.ofMinutes(1);
+        private Duration localTtlExtension = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public void setWidth(int width) {
+            this.width = width;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+
+        public long getMinCount() {
+            return minCount;
+        }
+
+        public void setMinCount(long minCount) {
+            this.minCount = minCount;
+        }
+
+        public Duration getDecayInterval() {
+            return decayInterval;
+        }
+
+        public void setDecayInterval(Duration decayInterval) {
+            this.decayInterval = decayInterval;
+        }
+
+        public Duration getLocalTtlExtension() {
+            return localTtlExtension;
+        }
+
+        public void setLocalTtlExtension(Duration localTtlExtension) {
+            this.localTtlExtension = localTtlExtension;
+        }
+    }
+
+    /**
+     * Bloom filter of known city names
+     * Built from the cities table every rebuild-interval and from successful provider responses,
+     * and OR-merged with the copy every node shares under redis-key. Names the filter has
+     * definitely never seen follow the policy: OFF (the default) only counts them, REJECT answers 404
+     * without calling the provider, LOW_PRIORITY lets at most unknown-calls-per-window of them through
+     * per unknown-window across the cluster, and any when the budget cannot be read. The shared copy is reset from the table once its fill
+     * ratio passes max-fill-ratio
+     */
+    public static class KnownCities {
+
+        private boolean enabled = true;
+        private UnknownCityPolicy policy = UnknownCityPolicy.OFF;
+        private int expectedInsertions = 200_000;
+        private double falsePositiveRate = 0.01;
+        private Duration rebuildInterval = Duration.ofMinutes(10);
+        private String redisKey = "weather-cache:{known-cities}";
+        private double maxFillRatio = 0.5;
+        private long unknownCallsPerWindow = 30;
+        private Duration unknownWindow = Duration.ofMinutes(1);
+        private String unknownBudgetKey = "weather-cache:unknown-city-budget";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public UnknownCityPolicy getPolicy() {
+            return policy;
+        }
+
+        public void setPolicy(UnknownCityPolicy policy) {
+            this.policy = policy;
+        }
+
+        public int getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(int expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+
+        public String getRedisKey() {
+            return redisKey;
+        }
+
+        public void setRedisKey(String redisKey) {
+            this.redisKey = redisKey;
+        }
+
+        public double getMaxFillRatio() {
+            return maxFillRatio;
+        }
+
+        public void setMaxFillRatio(double maxFillRatio) {
+            this.maxFillRatio = maxFillRatio;
+        }
+
+        public long getUnknownCallsPerWindow() {
+            return unknownCallsPerWindow;
+        }
+
+        public void setUnknownCallsPerWindow(long unknownCallsPerWindow) {
+            this.unknownCallsPerWindow = unknownCallsPerWindow;
+        }
+
+        public Duration getUnknownWindow() {
+            return unknownWindow;
+        }
+
+        public void setUnknownWindow(Duration unknownWindow) {
+            this.unknownWindow = unknownWindow;
+        }
+
+        public String getUnknownBudgetKey() {
+            return unknownBudgetKey;
+        }
+
+        public void setUnknownBudgetKey(String unknownBudgetKey) {
+            this.unknownBudgetKey = unknownBudgetKey;
+        }
+    }
+
+    /**
+     * Request coalescing for concurrent cache misses on the same key
+     */
+    public static class SingleFlight {
+
+        private boolean enabled = true;
+        private Duration timeout = Duration.ofSeconds(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+}
@@ -1,44 +0,0 @@
-package com.lplemos.weather_service.config;
-
-import com.lplemos.weather_service.service.WeatherServiceConstants;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.Primary;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
-import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
-import org.springframework.data.redis.serializer.RedisSerializationContext;
-import org.springframework.data.redis.serializer.StringRedisSerializer;
-
-import java.time.Duration;
-
-@Configuration
-@EnableCaching
-public class HierarchicalCacheConfig {
-
-    /**
-     * Redis Cache Manager (Distributed) - Primary for persistence
-     * TTL: 10-60 minutes
-     */
-    @Bean
-    @Primary
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10)) // TTL de 10 minutos
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
-                .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration(WeatherServiceConstants.CACHE_WEATHER_CURRENT, 
-                    config.entryTtl(Duration.ofMinutes(10)))
-                .withCacheConfiguration(WeatherServiceConstants.CACHE_WEATHER_FORECAST, 
-                    config.entryTtl(Duration.ofMinutes(10)))
-                .build();
-    }
-
-} 
\ No newline at end of file
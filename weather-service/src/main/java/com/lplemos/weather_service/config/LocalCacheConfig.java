@@ -1,14 +1,24 @@
 package com.lplemos.weather_service.config;
 
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import com.lplemos.weather_service.cache.local.OffHeapLocalCache;
+import com.lplemos.weather_service.cache.local.OffHeapSlabStore;
+import com.lplemos.weather_service.cache.local.PersistentLocalCache;
+import com.lplemos.weather_service.cache.local.PersistentSegment;
 import com.lplemos.weather_service.service.WeatherServiceConstants;
+import jakarta.annotation.PreDestroy;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.Duration;
-import java.util.concurrent.Callable;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -16,25 +26,42 @@ import java.util.concurrent.TimeUnit;
 @Configuration
 public class LocalCacheConfig {
 
+    private final List<PersistentLocalCache> persistentCaches = new CopyOnWriteArrayList<>();
+
+    /**
+     * Coarse clock shared by the local caches and the hierarchical cache service
+     * Re-sampled every 100ms by the local cache manager's maintenance task
+     */
+    @Bean
+    public CoarseClock cacheClock() {
+        return CoarseClock.system();
+    }
+
     /**
      * Custom Local Cache Manager with TTL support
-     * Uses ConcurrentHashMap with scheduled cleanup
+     * Uses size-bounded W-TinyLFU caches whose timer wheels are advanced by a scheduled
+     * maintenance task; the shared coarse clock is re-sampled every 100ms. With off-heap storage
+     * enabled, forecast payloads live in direct memory slabs; with persistence enabled, the other
+     * caches are mirrored to segment files and reloaded from them at startup
      */
     @Bean
-    public CacheManager localCacheManager() {
+    public CacheManager localCacheManager(CacheProperties cacheProperties, CacheValueCodec cacheValueCodec,
+                                          CoarseClock clock) {
         return new CacheManager() {
             private final ConcurrentHashMap<String, Cache> caches = new ConcurrentHashMap<>();
             private final ScheduledExecutorService cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
 
             {
-                // Initialize caches
-                caches.put(WeatherServiceConstants.CACHE_WEATHER_CURRENT, 
-                    new TTLConcurrentMapCache(WeatherServiceConstants.CACHE_WEATHER_CURRENT, Duration.ofMinutes(5)));
-                caches.put(WeatherServiceConstants.CACHE_WEATHER_FORECAST, 
-                    new TTLConcurrentMapCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST, Duration.ofMinutes(5)));
-                
-                // Schedule cleanup every 30 seconds
-                cleanupExecutor.scheduleAtFixedRate(this::cleanupExpiredEntries, 30, 30, TimeUnit.SECONDS);
+                // Initialize caches (entries live until the hard TTL; staleness is judged by the reader)
+                caches.put(WeatherServiceConstants.CACHE_WEATHER_CURRENT,
+                    createLocalCache(WeatherServiceConstants.CACHE_WEATHER_CURRENT, cacheProperties, clock, cacheValueCodec));
+                caches.put(WeatherServiceConstants.CACHE_WEATHER_FORECAST, cacheProperties.getOffHeap().isEnabled()
+                    ? createOffHeapCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST, cacheProperties, clock, cacheValueCodec)
+                    : createLocalCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST, cacheProperties, clock, cacheValueCodec));
+
+                // Tick the coarse clock and advance the expiry wheels (O(expired), no full scan)
+                cleanupExecutor.scheduleAtFixedRate(clock::tick, 100, 100, TimeUnit.MILLISECONDS);
+                cleanupExecutor.scheduleAtFixedRate(this::cleanupExpiredEntries, 1, 1, TimeUnit.SECONDS);
             }
 
             @Override
@@ -49,8 +76,8 @@ public class LocalCacheConfig {
 
             private void cleanupExpiredEntries() {
                 caches.values().forEach(cache -> {
-                    if (cache instanceof TTLConcurrentMapCache) {
-                        ((TTLConcurrentMapCache) cache).cleanupExpiredEntries();
+                    if (cache instanceof BoundedLocalCache) {
+                        ((BoundedLocalCache) cache).cleanUp();
                     }
                 });
             }
@@ -58,99 +85,65 @@ public class LocalCacheConfig {
     }
 
     /**
-     * Custom Cache implementation with TTL support
+     * Flushes the segment files of the persistent caches
      */
-    private static class TTLConcurrentMapCache implements Cache {
-        private final String name;
-        private final Duration ttl;
-        private final ConcurrentHashMap<Object, CacheEntry> store = new ConcurrentHashMap<>();
-
-        public TTLConcurrentMapCache(String name, Duration ttl) {
-            this.name = name;
-            this.ttl = ttl;
-        }
-
-        @Override
-        public String getName() {
-            return name;
-        }
-
-        @Override
-        public Object getNativeCache() {
-            return store;
-        }
-
-        @Override
-        public ValueWrapper get(Object key) {
-            CacheEntry entry = store.get(key);
-            if (entry != null && !entry.isExpired()) {
-                return () -> entry.value;
-            }
-            if (entry != null && entry.isExpired()) {
-                store.remove(key);
-            }
-            return null;
-        }
-
-        @Override
-        public <T> T get(Object key, Class<T> type) {
-            ValueWrapper wrapper = get(key);
-            return wrapper != null ? (T) wrapper.get() : null;
-        }
-
-        @Override
-        public <T> T get(Object key, Callable<T> valueLoader) {
-            ValueWrapper wrapper = get(key);
-            if (wrapper != null) {
-                return (T) wrapper.get();
-            }
-            
-            try {
-                T value = valueLoader.call();
-                put(key, value);
-                return value;
-            } catch (Exception e) {
-                throw new RuntimeException("Error loading value for key: " + key, e);
-            }
-        }
-
-        @Override
-        public void put(Object key, Object value) {
-            store.put(key, new CacheEntry(value, System.currentTimeMillis() + ttl.toMillis()));
-        }
-
-        @Override
-        public void evict(Object key) {
-            store.remove(key);
-        }
-
-        @Override
-        public void clear() {
-            store.clear();
-        }
+    @PreDestroy
+    public void closePersistentCaches() {
+        persistentCaches.forEach(PersistentLocalCache::close);
+    }
 
-        @Override
-        public ValueWrapper putIfAbsent(Object key, Object value) {
-            CacheEntry existing = store.putIfAbsent(key, new CacheEntry(value, System.currentTimeMillis() + ttl.toMillis()));
-            return existing != null && !existing.isExpired() ? () -> existing.value : null;
+    /**
+     * Creates a bounded cache, mirrored to a segment file and reloaded from it when persistence is enabled
+     */
+    private BoundedLocalCache createLocalCache(String cacheName, CacheProperties cacheProperties, CoarseClock clock,
+                                              CacheValueCodec cacheValueCodec) {
+        CacheProperties.Persistent persistent = cacheProperties.getPersistent();
+        if (!persistent.isEnabled()) {
+            return createCache(cacheName, cacheProperties, clock);
         }
+        CacheProperties.CacheSpec spec = cacheProperties.getCacheSpec(cacheName);
+        PersistentSegment segment = new PersistentSegment(
+            Path.of(persistent.getDirectory(), cacheName + ".seg"), persistent.getSegmentSize());
+        PersistentLocalCache cache = spec.getMaximumWeight() > 0
+            ? new PersistentLocalCache(cacheName, spec.getHardTtl(), spec.getMaximumWeight(),
+                LocalCacheConfig::weighPayload, clock, segment, cacheValueCodec)
+            : new PersistentLocalCache(cacheName, spec.getHardTtl(), spec.getMaximumSize(),
+                value -> 1, clock, segment, cacheValueCodec);
+        cache.reload();
+        persistentCaches.add(cache);
+        return cache;
+    }
 
-        public void cleanupExpiredEntries() {
-            store.entrySet().removeIf(entry -> entry.getValue().isExpired());
+    /**
+     * Creates a bounded cache sized by entry count, or by payload weight when maximum-weight is set
+     */
+    private static BoundedLocalCache createCache(String cacheName, CacheProperties cacheProperties, CoarseClock clock) {
+        CacheProperties.CacheSpec spec = cacheProperties.getCacheSpec(cacheName);
+        if (spec.getMaximumWeight() > 0) {
+            return new BoundedLocalCache(cacheName, spec.getHardTtl(), spec.getMaximumWeight(),
+                LocalCacheConfig::weighPayload, clock);
         }
+        return new BoundedLocalCache(cacheName, spec.getHardTtl(), spec.getMaximumSize(), clock);
+    }
 
-        private static class CacheEntry {
-            final Object value;
-            final long expirationTime;
-
-            CacheEntry(Object value, long expirationTime) {
-                this.value = value;
-                this.expirationTime = expirationTime;
-            }
+    /**
+     * Creates a bounded cache sized by entry count whose payloads are stored off-heap
+     */
+    private static BoundedLocalCache createOffHeapCache(String cacheName, CacheProperties cacheProperties,
+                                                        CoarseClock clock, CacheValueCodec cacheValueCodec) {
+        CacheProperties.CacheSpec spec = cacheProperties.getCacheSpec(cacheName);
+        CacheProperties.OffHeap offHeap = cacheProperties.getOffHeap();
+        return new OffHeapLocalCache(cacheName, spec.getHardTtl(), spec.getMaximumSize(), clock,
+            new OffHeapSlabStore(offHeap.getSlabSize(), offHeap.getMaxSlabs()), cacheValueCodec);
+    }
 
-            boolean isExpired() {
-                return System.currentTimeMillis() > expirationTime;
-            }
+    /**
+     * Weighs a cached payload by its number of forecast slots (current weather weighs 1)
+     */
+    private static int weighPayload(Object value) {
+        if (value instanceof CachedWeather cachedWeather && cachedWeather.data().get("list") instanceof List<?> list) {
+            return 1 + list.size();
         }
+        return 1;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package com.lplemos.weather_service.config;
+
+import com.lplemos.weather_service.cache.PreEncodedWeather;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * JSON writer for weather payloads that short-circuits pre-encoded cache hits
+ * A {@link PreEncodedWeather} body is written as its cached bytes (gzip when the client accepts
+ * it); any other map is handed to the regular Jackson writer. Only registered while pre-encoded
+ * bodies are enabled, ahead of the default JSON writer, and only claims Map bodies: controllers
+ * declare Map return types, so the element type alone cannot tell a pre-encoded body apart.
+ * Both paths use an encoder configured like the default one, so a pre-encoded body is
+ * byte-for-byte what the default writer would have produced
+ */
+public class PreEncodedWeatherMessageWriter implements HttpMessageWriter<Object> {
+
+    private static final String GZIP = "gzip";
+
+    private final Jackson2JsonEncoder encoder;
+    private final EncoderHttpMessageWriter<Object> delegate;
+
+    public PreEncodedWeatherMessageWriter(Jackson2JsonEncoder encoder) {
+        this.encoder = encoder;
+        this.delegate = new EncoderHttpMessageWriter<>(encoder);
+    }
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return delegate.getWritableMediaTypes();
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return Map.class.isAssignableFrom(elementType.toClass()) && delegate.canWrite(elementType, mediaType);
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<?> inputStream, ResolvableType elementType, MediaType mediaType,
+                            ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return delegate.write(inputStream, elementType, mediaType, message, hints);
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<?> inputStream, ResolvableType actualType, ResolvableType elementType,
+                            MediaType mediaType, ServerHttpRequest request, ServerHttpResponse response,
+                            Map<String, Object> hints) {
+        if (!(inputStream instanceof Mono<?> mono)) {
+            return delegate.write(inputStream, actualType, elementType, mediaType, request, response, hints);
+        }
+        return mono.<Optional<Object>>map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(value -> {
+                    if (value.isPresent() && value.get() instanceof PreEncodedWeather preEncoded) {
+                        return writePreEncoded(preEncoded, mediaType, request, response);
+                    }
+                    return delegate.write(Mono.justOrEmpty(value), actualType, elementType, mediaType, request, response, hints);
+                });
+    }
+
+    private Mono<Void> writePreEncoded(PreEncodedWeather body, MediaType mediaType,
+                                       ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setContentType(mediaType != null && mediaType.isConcrete() ? mediaType : MediaType.APPLICATION_JSON);
+
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] bytes = acceptsGzip(request) ? body.gzip(encoder.getObjectMapper()) : null;
+        if (bytes != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+        } else {
+            bytes = body.json(encoder.getObjectMapper());
+        }
+        headers.setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    /**
+     * Checks Accept-Encoding for gzip with a non-zero quality
+     */
+    static boolean acceptsGzip(ServerHttpRequest request) {
+        for (String header : request.getHeaders().getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String token : header.split(",")) {
+                String[] parts = token.trim().split(";");
+                String coding = parts[0].trim();
+                if (!coding.equalsIgnoreCase(GZIP) && !coding.equals("*")) {
+                    continue;
+                }
+                boolean rejected = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String param = parts[i].trim();
+                    if (param.startsWith("q=")) {
+                        try {
+                            rejected = Double.parseDouble(param.substring(2)) <= 0.0;
+                        } catch (NumberFormatException e) {
+                            rejected = true;
+                        }
+                    }
+                }
+                if (!rejected) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
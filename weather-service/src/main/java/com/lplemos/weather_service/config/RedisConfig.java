@@ -1,17 +1,28 @@
 package com.lplemos.weather_service.config;
 
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.cache.codec.CachedWeatherRedisSerializer;
+import com.lplemos.weather_service.cache.redis.RedisShard;
+import com.lplemos.weather_service.cache.redis.RedisShardRouter;
+import io.lettuce.core.RedisURI;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
-import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 
 @Configuration
 @EnableCaching
@@ -32,20 +43,74 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Non-blocking template backing the hierarchical cache's Redis tier
+     * Runs on Lettuce's reactive commands so no event-loop thread waits on Redis I/O;
+     * values use the binary cache codec and still read legacy JSON entries
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30)) // Default TTL of 30 minutes
-                .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
-                .disableCachingNullValues();
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .withCacheConfiguration("weather-current", 
-                    config.entryTtl(Duration.ofMinutes(10))) // Shorter cache for current data
-                .withCacheConfiguration("weather-forecast", 
-                    config.entryTtl(Duration.ofHours(1))) // Longer cache for forecasts
+    public ReactiveRedisTemplate<String, Object> reactiveCacheTemplate(ReactiveRedisConnectionFactory connectionFactory,
+                                                                      CacheValueCodec cacheValueCodec) {
+        return new ReactiveRedisTemplate<>(connectionFactory, cacheSerializationContext(cacheValueCodec));
+    }
+
+    /**
+     * Shards of the hierarchical cache's Redis tier
+     * Without weather.cache.sharding.nodes the tier has one shard on the spring.data.redis
+     * connection, which is a Redis Cluster when spring.data.redis.cluster.nodes is set; otherwise
+     * each node gets its own connection and the tier spreads keys over them
+     */
+    @Bean
+    public RedisShardRouter redisShardRouter(ReactiveRedisConnectionFactory connectionFactory,
+                                             ReactiveRedisTemplate<String, Object> reactiveCacheTemplate,
+                                             ReactiveStringRedisTemplate stringRedisTemplate,
+                                             CacheValueCodec cacheValueCodec,
+                                             CacheProperties cacheProperties) {
+        CacheProperties.Sharding sharding = cacheProperties.getSharding();
+        List<String> nodes = sharding.getNodes().stream().filter(node -> !node.isBlank()).toList();
+        if (nodes.isEmpty()) {
+            boolean clustered = connectionFactory instanceof LettuceConnectionFactory lettuce && lettuce.isClusterAware();
+            RedisShard shard = new RedisShard("default", reactiveCacheTemplate, stringRedisTemplate, null, sharding);
+            return new RedisShardRouter(List.of(shard), cacheProperties, clustered);
+        }
+        List<RedisShard> shards = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            RedisURI uri = RedisURI.create(node.trim());
+            LettuceConnectionFactory shardFactory = shardConnectionFactory(uri, cacheProperties);
+            // The name places the shard on the hash ring, so it must not change between restarts
+            String name = uri.getHost() + ":" + uri.getPort() + (uri.getDatabase() != 0 ? "/" + uri.getDatabase() : "");
+            shards.add(new RedisShard(name,
+                new ReactiveRedisTemplate<>(shardFactory, cacheSerializationContext(cacheValueCodec)),
+                new ReactiveStringRedisTemplate(shardFactory), shardFactory, sharding));
+        }
+        return new RedisShardRouter(shards, cacheProperties, false);
+    }
+
+    private static RedisSerializationContext<String, Object> cacheSerializationContext(CacheValueCodec cacheValueCodec) {
+        return RedisSerializationContext
+                .<String, Object>newSerializationContext(new StringRedisSerializer())
+                .value(new CachedWeatherRedisSerializer(cacheValueCodec))
                 .build();
     }
+
+    @SuppressWarnings("deprecation")
+    private static LettuceConnectionFactory shardConnectionFactory(RedisURI uri, CacheProperties cacheProperties) {
+        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(uri.getHost(), uri.getPort());
+        standalone.setDatabase(uri.getDatabase());
+        if (uri.getUsername() != null) {
+            standalone.setUsername(uri.getUsername());
+        }
+        if (uri.getPassword() != null) {
+            standalone.setPassword(RedisPassword.of(uri.getPassword()));
+        }
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder()
+                .commandTimeout(cacheProperties.getRedis().getWriteTimeout());
+        if (uri.isSsl()) {
+            client.useSsl();
+        }
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(standalone, client.build());
+        factory.afterPropertiesSet();
+        factory.start();
+        return factory;
+    }
 } 
\ No newline at end of file
@@ -36,6 +36,7 @@ public class SecurityConfig {
                 .pathMatchers("/api/v1/weather/cache/all").hasRole("ADMIN")
                 .pathMatchers("/api/v1/weather/hierarchical/cache/city").hasRole("ADMIN")
                 .pathMatchers("/api/v1/weather/hierarchical/cache/all").hasRole("ADMIN")
+                .pathMatchers("/api/v1/weather/hierarchical/cache/provider").hasRole("ADMIN")
                 // Other weather endpoints - accessible to USER and ADMIN
                 .pathMatchers("/api/v1/weather/**").hasAnyRole("USER", "ADMIN")
                 .anyExchange().authenticated()
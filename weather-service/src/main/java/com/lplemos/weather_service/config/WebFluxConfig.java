@@ -2,6 +2,8 @@ package com.lplemos.weather_service.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
@@ -10,8 +12,26 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 @EnableWebFlux
 public class WebFluxConfig implements WebFluxConfigurer {
     
+    private final CacheProperties cacheProperties;
+    
+    public WebFluxConfig(CacheProperties cacheProperties) {
+        this.cacheProperties = cacheProperties;
+    }
+    
     @Bean
     public LocalValidatorFactoryBean validator() {
         return new LocalValidatorFactoryBean();
     }
-} 
\ No newline at end of file
+    
+    /**
+     * Registers the pre-encoded writer only when pre-encoded bodies are enabled
+     * The default codecs are left untouched; the writer's encoder is built the same way as the
+     * default JSON encoder, so both produce the same JSON
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        if (cacheProperties.getPreEncoded().isEnabled()) {
+            configurer.customCodecs().register(new PreEncodedWeatherMessageWriter(new Jackson2JsonEncoder()));
+        }
+    }
+}
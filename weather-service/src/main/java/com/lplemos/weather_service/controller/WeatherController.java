@@ -98,11 +98,8 @@ public class WeatherController {
             @ValidProvider
             String provider) {
         
-        if (provider != null) {
-            WeatherProviderType providerType = WeatherProviderType.fromCode(provider);
-            return weatherService.getCurrentWeatherStructured(city, providerType);
-        }
-        return weatherService.getCurrentWeatherStructured(city);
+        String providerType = provider != null ? provider : weatherService.getDefaultProviderType().getCode();
+        return hierarchicalCacheService.getCurrentWeatherStructured(city, providerType);
     }
     
     /**
@@ -120,11 +117,8 @@ public class WeatherController {
             @ValidProvider
             String provider) {
         
-        if (provider != null) {
-            WeatherProviderType providerType = WeatherProviderType.fromCode(provider);
-            return weatherService.getWeatherSummary(city, providerType);
-        }
-        return weatherService.getWeatherSummary(city);
+        String providerType = provider != null ? provider : weatherService.getDefaultProviderType().getCode();
+        return hierarchicalCacheService.getWeatherSummary(city, providerType);
     }
     
     /**
@@ -184,11 +178,8 @@ public class WeatherController {
             @ValidProvider
             String provider) {
         
-        if (provider != null) {
-            WeatherProviderType providerType = WeatherProviderType.fromCode(provider);
-            return weatherService.getCurrentWeatherById(cityId, providerType);
-        }
-        return weatherService.getCurrentWeatherById(cityId);
+        String providerType = provider != null ? provider : weatherService.getDefaultProviderType().getCode();
+        return hierarchicalCacheService.getCurrentWeatherById(cityId, providerType);
     }
     
     /**
@@ -282,6 +273,40 @@ public class WeatherController {
             String language) {
         return hierarchicalCacheService.getWeatherForecast(city, provider, language);
     }
+
+    /**
+     * Get current weather (hierarchical) for many cities in one request
+     * GET /api/v1/weather/hierarchical/current/batch?city=Lisbon&city=Porto&provider=openweathermap&lang=pt
+     */
+    @GetMapping("/hierarchical/current/batch")
+    public Mono<Map<String, Map<String, Object>>> getCurrentWeatherBatch(
+            @RequestParam(WeatherControllerConstants.PARAM_CITY)
+            List<String> cities,
+            @RequestParam(value = WeatherControllerConstants.PARAM_PROVIDER, defaultValue = "OPENWEATHERMAP")
+            @ValidProvider
+            String provider,
+            @RequestParam(value = "lang", required = false, defaultValue = "en")
+            @Pattern(regexp = "^[a-z]{2}$", message = "Language must be a 2-letter code (e.g., en, pt, es)")
+            String language) {
+        return hierarchicalCacheService.getCurrentWeatherBatch(cities, provider, language);
+    }
+
+    /**
+     * Get weather forecasts (hierarchical) for many cities in one request
+     * GET /api/v1/weather/hierarchical/forecast/batch?city=Lisbon&city=Porto&provider=openweathermap&lang=pt
+     */
+    @GetMapping("/hierarchical/forecast/batch")
+    public Mono<Map<String, Map<String, Object>>> getWeatherForecastBatch(
+            @RequestParam(WeatherControllerConstants.PARAM_CITY)
+            List<String> cities,
+            @RequestParam(value = WeatherControllerConstants.PARAM_PROVIDER, defaultValue = "OPENWEATHERMAP")
+            @ValidProvider
+            String provider,
+            @RequestParam(value = "lang", required = false, defaultValue = "en")
+            @Pattern(regexp = "^[a-z]{2}$", message = "Language must be a 2-letter code (e.g., en, pt, es)")
+            String language) {
+        return hierarchicalCacheService.getWeatherForecastBatch(cities, provider, language);
+    }
     
     /**
      * Get cache statistics
@@ -333,5 +358,23 @@ public class WeatherController {
                     "timestamp", System.currentTimeMillis()
                 ));
     }
+    
+    /**
+     * Evict hierarchical cache for a specific provider
+     * DELETE /api/v1/weather/hierarchical/cache/provider?provider=openweathermap
+     */
+    @DeleteMapping("/hierarchical/cache/provider")
+    public Mono<Map<String, Object>> evictHierarchicalProviderCache(
+            @RequestParam(WeatherControllerConstants.PARAM_PROVIDER) 
+            @NotBlank(message = "Provider cannot be empty")
+            String provider) {
+        return hierarchicalCacheService.evictProviderCache(provider)
+                .map(success -> Map.<String, Object>of(
+                    "success", success,
+                    "provider", provider,
+                    "message", success ? "Hierarchical provider cache evicted successfully" : "Failed to evict hierarchical provider cache",
+                    "timestamp", System.currentTimeMillis()
+                ));
+    }
 
 } 
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.lplemos.weather_service.service;
 
+import com.lplemos.weather_service.model.WeatherResponse;
+import com.lplemos.weather_service.model.WeatherSummary;
 import reactor.core.publisher.Mono;
+import java.util.List;
 import java.util.Map;
 
 public interface HierarchicalCacheService {
@@ -10,6 +13,21 @@ public interface HierarchicalCacheService {
      */
     Mono<Map<String, Object>> getCurrentWeather(String cityName, String providerType, String language);
     
+    /**
+     * Gets current weather as a structured response, derived from the cached current weather
+     */
+    Mono<WeatherResponse> getCurrentWeatherStructured(String cityName, String providerType);
+    
+    /**
+     * Gets a weather summary, derived from the cached current weather
+     */
+    Mono<WeatherSummary> getWeatherSummary(String cityName, String providerType);
+    
+    /**
+     * Gets current weather by provider city ID with hierarchical caching
+     */
+    Mono<Map<String, Object>> getCurrentWeatherById(Integer cityId, String providerType);
+    
     /**
      * Gets current weather by coordinates with hierarchical caching
      */
@@ -25,6 +43,17 @@ public interface HierarchicalCacheService {
      */
     Mono<Map<String, Object>> getWeatherForecastByCoords(Double lat, Double lon, String providerType, String language);
     
+    /**
+     * Gets current weather for many cities in one pass: L1 hits, one Redis MGET, then the provider
+     * for the rest. Returns the cities found, keyed by the names given; unknown or failing cities are left out
+     */
+    Mono<Map<String, Map<String, Object>>> getCurrentWeatherBatch(List<String> cityNames, String providerType, String language);
+    
+    /**
+     * Gets weather forecasts for many cities in one pass, like {@link #getCurrentWeatherBatch}
+     */
+    Mono<Map<String, Map<String, Object>>> getWeatherForecastBatch(List<String> cityNames, String providerType, String language);
+    
     /**
      * Evicts data from both local and Redis caches for a city
      */
@@ -34,4 +63,9 @@ public interface HierarchicalCacheService {
      * Evicts all data from both caches
      */
     Mono<Boolean> evictAllCache();
+    
+    /**
+     * Evicts all data of one provider from both caches
+     */
+    Mono<Boolean> evictProviderCache(String providerType);
 } 
\ No newline at end of file
@@ -110,6 +110,11 @@ public interface WeatherService {
      */
     WeatherProvider getDefaultProvider();
     
+    /**
+     * Get the configured default provider type
+     */
+    WeatherProviderType getDefaultProviderType();
+    
     /**
      * Get a specific weather provider
      */
@@ -37,6 +37,8 @@ public final class WeatherServiceConstants {
     // Default Values
     public static final String DEFAULT_PROVIDER = "openweathermap";
     public static final String DEFAULT_CITY = "Lisbon";
+    public static final String DEFAULT_LANGUAGE = "en";
+    public static final String DEFAULT_UNITS = "metric";
     
     // Error Messages
     public static final String ERROR_NO_PROVIDERS = "No weather providers available";
@@ -1,18 +1,55 @@
 package com.lplemos.weather_service.service.impl;
 
+import com.lplemos.weather_service.cache.AdaptiveTtlPolicy;
+import com.lplemos.weather_service.cache.CacheMetrics;
+import com.lplemos.weather_service.cache.CacheTier;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.DerivedViewCache;
+import com.lplemos.weather_service.cache.PreEncodedWeather;
+import com.lplemos.weather_service.cache.ProviderCallGate;
+import com.lplemos.weather_service.cache.SingleFlightRegistry;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.bloom.KnownCityFilter;
+import com.lplemos.weather_service.cache.geo.GeoCell;
+import com.lplemos.weather_service.cache.localization.ConditionLocalizer;
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import com.lplemos.weather_service.cache.redis.CacheInvalidationBus;
+import com.lplemos.weather_service.cache.redis.RedisCacheTier;
+import com.lplemos.weather_service.cache.refresh.HeavyHitterTracker;
+import com.lplemos.weather_service.cache.refresh.RefreshAheadScheduler;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.config.WeatherApiConfig;
+import com.lplemos.weather_service.exception.CityNotFoundException;
+import com.lplemos.weather_service.exception.InvalidRequestException;
 import com.lplemos.weather_service.model.WeatherProviderType;
+import com.lplemos.weather_service.model.WeatherResponse;
+import com.lplemos.weather_service.model.WeatherSummary;
 import com.lplemos.weather_service.service.HierarchicalCacheService;
 import com.lplemos.weather_service.service.WeatherService;
 import com.lplemos.weather_service.service.WeatherServiceConstants;
 import com.lplemos.weather_service.validation.WeatherDataValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.Cache;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 @Service
@@ -21,36 +58,133 @@ public class HierarchicalCacheServiceImpl implements HierarchicalCacheService {
     private static final Logger logger = LoggerFactory.getLogger(HierarchicalCacheServiceImpl.class);
     
     private final CacheManager localCacheManager;
-    private final CacheManager redisCacheManager;
+    private final RedisCacheTier redisCacheTier;
     private final WeatherService weatherService;
     private final WeatherDataValidator validator;
+    private final SingleFlightRegistry singleFlightRegistry;
+    private final CacheProperties cacheProperties;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheMetrics cacheMetrics;
+    private final RefreshAheadScheduler refreshAheadScheduler;
+    private final ConditionLocalizer conditionLocalizer;
+    private final AdaptiveTtlPolicy adaptiveTtlPolicy;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final DerivedViewCache derivedViewCache;
+    private final KnownCityFilter knownCityFilter;
+    private final CoarseClock clock;
+    private final String units;
+    private final String defaultLanguage;
+    // Local caches resolved once per key kind rather than looked up by name per call
+    private final Map<WeatherCacheKey.Kind, Cache> localCaches = new EnumMap<>(WeatherCacheKey.Kind.class);
     
     public HierarchicalCacheServiceImpl(
-            CacheManager localCacheManager,
-            CacheManager redisCacheManager,
+            @Qualifier("localCacheManager") CacheManager localCacheManager,
+            RedisCacheTier redisCacheTier,
             WeatherService weatherService,
-            WeatherDataValidator validator) {
+            WeatherDataValidator validator,
+            SingleFlightRegistry singleFlightRegistry,
+            CacheProperties cacheProperties,
+            CacheInvalidationBus invalidationBus,
+            CacheMetrics cacheMetrics,
+            RefreshAheadScheduler refreshAheadScheduler,
+            ConditionLocalizer conditionLocalizer,
+            AdaptiveTtlPolicy adaptiveTtlPolicy,
+            HeavyHitterTracker heavyHitterTracker,
+            DerivedViewCache derivedViewCache,
+            KnownCityFilter knownCityFilter,
+            CoarseClock clock,
+            WeatherApiConfig weatherApiConfig) {
         this.localCacheManager = localCacheManager;
-        this.redisCacheManager = redisCacheManager;
+        this.redisCacheTier = redisCacheTier;
         this.weatherService = weatherService;
         this.validator = validator;
+        this.singleFlightRegistry = singleFlightRegistry;
+        this.cacheProperties = cacheProperties;
+        this.invalidationBus = invalidationBus;
+        this.cacheMetrics = cacheMetrics;
+        this.refreshAheadScheduler = refreshAheadScheduler;
+        this.conditionLocalizer = conditionLocalizer;
+        this.adaptiveTtlPolicy = adaptiveTtlPolicy;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.derivedViewCache = derivedViewCache;
+        this.knownCityFilter = knownCityFilter;
+        this.clock = clock;
+        this.units = weatherApiConfig.getUnits();
+        this.defaultLanguage = weatherApiConfig.getLanguage();
+        for (WeatherCacheKey.Kind kind : WeatherCacheKey.Kind.values()) {
+            Cache cache = localCacheManager.getCache(kind.getCacheName());
+            if (cache == null) {
+                logger.warn("Local cache '{}' not found in localCacheManager", kind.getCacheName());
+            } else {
+                localCaches.put(kind, cache);
+            }
+        }
     }
     
     @Override
     public Mono<Map<String, Object>> getCurrentWeather(String cityName, String providerType, String language) {
+        return getCurrentWeatherEntry(cityName, providerType, language)
+                .map(entry -> conditionLocalizer.localize(entry.data(), language));
+    }
+    
+    @Override
+    public Mono<WeatherResponse> getCurrentWeatherStructured(String cityName, String providerType) {
+        // Same entry as the raw endpoint; the typed response is derived once per fetched payload
+        WeatherCacheKey viewKey = currentCityKey(cityName, WeatherProviderType.fromCode(providerType), defaultLanguage);
+        return getCurrentWeatherEntry(cityName, providerType, defaultLanguage)
+                .map(entry -> derivedViewCache.weatherResponse(viewKey, entry.fetchedAt(),
+                    () -> conditionLocalizer.localize(entry.data(), defaultLanguage)));
+    }
+    
+    @Override
+    public Mono<WeatherSummary> getWeatherSummary(String cityName, String providerType) {
+        WeatherCacheKey viewKey = currentCityKey(cityName, WeatherProviderType.fromCode(providerType), defaultLanguage);
+        return getCurrentWeatherEntry(cityName, providerType, defaultLanguage)
+                .map(entry -> derivedViewCache.weatherSummary(viewKey, entry.fetchedAt(),
+                    () -> conditionLocalizer.localize(entry.data(), defaultLanguage)));
+    }
+    
+    /**
+     * Looks up the cache entry of a city's current weather, in the language it is cached in
+     */
+    private Mono<CachedWeather> getCurrentWeatherEntry(String cityName, String providerType, String language) {
         validator.validateCityName(cityName);
         validator.validateWeatherService(weatherService);
         
-        String cacheKey = generateCacheKey(cityName, "current", providerType, language);
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        WeatherCacheKey cacheKey = currentCityKey(cityName, providerTypeEnum, language);
+        String cacheLanguage = conditionLocalizer.cacheLanguage(language);
         String identifier = "city: " + cityName;
         
         logger.info("=== HierarchicalCache.getCurrentWeather START ===");
         logger.info("City: {} | Provider: {} | Language: {} | CacheKey: {}", cityName, providerType, language, cacheKey);
         
-        return getWeatherDataWithCaching(cacheKey, identifier, () -> {
-            WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
-            return weatherService.getCurrentWeather(cityName, providerTypeEnum, language);
-        });
+        return getEntryWithCaching(cacheKey, identifier, "current",
+            () -> weatherService.getCurrentWeather(cityName, providerTypeEnum, cacheLanguage));
+    }
+    
+    /**
+     * Gets the key of a city's current weather
+     * Localizable languages share the canonical-language entry; descriptions are rewritten on the way out
+     */
+    private WeatherCacheKey currentCityKey(String cityName, WeatherProviderType provider, String language) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, cityName, provider,
+            conditionLocalizer.cacheLanguage(language), units);
+    }
+    
+    @Override
+    public Mono<Map<String, Object>> getCurrentWeatherById(Integer cityId, String providerType) {
+        validator.validateWeatherService(weatherService);
+        
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        WeatherCacheKey cacheKey = WeatherCacheKey.cityId(WeatherCacheKey.Kind.CURRENT, cityId, providerTypeEnum, defaultLanguage, units);
+        String identifier = "city id: " + cityId;
+        
+        logger.info("=== HierarchicalCache.getCurrentWeatherById START ===");
+        logger.info("City ID: {} | Provider: {} | CacheKey: {}", cityId, providerType, cacheKey);
+        
+        return getWeatherDataWithCaching(cacheKey, identifier, "current-id",
+            () -> weatherService.getCurrentWeatherById(cityId, providerTypeEnum));
     }
     
     @Override
@@ -58,16 +192,31 @@ public class HierarchicalCacheServiceImpl implements HierarchicalCacheService {
         validator.validateCoordinates(lat, lon);
         validator.validateWeatherService(weatherService);
         
-        String cacheKey = generateCacheKeyByCoords(lat, lon, "current", providerType, language);
-        String identifier = String.format("coords: (%.6f, %.6f)", lat, lon);
-        
         logger.info("=== HierarchicalCache.getCurrentWeatherByCoords START ===");
+        
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        String cacheLanguage = conditionLocalizer.cacheLanguage(language);
+        CacheProperties.Geo geo = cacheProperties.getGeo();
+        if (geo.isEnabled()) {
+            // Nearby points share the entry of their geohash cell; the provider is queried at the cell center
+            GeoCell cell = GeoCell.snap(lat, lon, geo.getPrecision());
+            WeatherCacheKey cacheKey = WeatherCacheKey.cell(WeatherCacheKey.Kind.CURRENT, cell, providerTypeEnum, cacheLanguage, units);
+            String identifier = "cell: " + cell.geohash();
+            logger.info("Coords: ({}, {}) -> Cell: {} | Provider: {} | Language: {} | CacheKey: {}", lat, lon, cell.geohash(), providerType, language, cacheKey);
+            
+            return getWeatherDataWithCaching(cacheKey, identifier, "current-coords",
+                () -> weatherService.getCurrentWeatherByCoords(cell.latitude(), cell.longitude(), providerTypeEnum, cacheLanguage)
+                        .map(data -> withCell(data, cell)))
+                    .map(data -> conditionLocalizer.localize(data, language));
+        }
+        
+        WeatherCacheKey cacheKey = WeatherCacheKey.coordinates(WeatherCacheKey.Kind.CURRENT, lat, lon, providerTypeEnum, cacheLanguage, units);
+        String identifier = String.format("coords: (%.6f, %.6f)", lat, lon);
         logger.info("Coords: ({}, {}) | Provider: {} | Language: {} | CacheKey: {}", lat, lon, providerType, language, cacheKey);
         
-        return getWeatherDataWithCaching(cacheKey, identifier, () -> {
-            WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
-            return weatherService.getCurrentWeatherByCoords(lat, lon, providerTypeEnum, language);
-        });
+        return getWeatherDataWithCaching(cacheKey, identifier, "current-coords",
+            () -> weatherService.getCurrentWeatherByCoords(lat, lon, providerTypeEnum, cacheLanguage))
+                .map(data -> conditionLocalizer.localize(data, language));
     }
     
     @Override
@@ -75,16 +224,17 @@ public class HierarchicalCacheServiceImpl implements HierarchicalCacheService {
         validator.validateCityName(cityName);
         validator.validateWeatherService(weatherService);
         
-        String cacheKey = generateCacheKey(cityName, "forecast", providerType, language);
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        String cacheLanguage = conditionLocalizer.cacheLanguage(language);
+        WeatherCacheKey cacheKey = WeatherCacheKey.city(WeatherCacheKey.Kind.FORECAST, cityName, providerTypeEnum, cacheLanguage, units);
         String identifier = "city: " + cityName;
         
         logger.info("=== HierarchicalCache.getWeatherForecast START ===");
         logger.info("City: {} | Provider: {} | Language: {} | CacheKey: {}", cityName, providerType, language, cacheKey);
         
-        return getWeatherDataWithCaching(cacheKey, identifier, () -> {
-            WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
-            return weatherService.getWeatherForecast(cityName, providerTypeEnum, language);
-        });
+        return getWeatherDataWithCaching(cacheKey, identifier, "forecast",
+            () -> weatherService.getWeatherForecast(cityName, providerTypeEnum, cacheLanguage))
+                .map(data -> conditionLocalizer.localize(data, language));
     }
     
     @Override
@@ -92,259 +242,583 @@ public class HierarchicalCacheServiceImpl implements HierarchicalCacheService {
         validator.validateCoordinates(lat, lon);
         validator.validateWeatherService(weatherService);
         
-        String cacheKey = generateCacheKeyByCoords(lat, lon, "forecast", providerType, language);
-        String identifier = String.format("coords: (%.6f, %.6f)", lat, lon);
-        
         logger.info("=== HierarchicalCache.getWeatherForecastByCoords START ===");
+        
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        String cacheLanguage = conditionLocalizer.cacheLanguage(language);
+        CacheProperties.Geo geo = cacheProperties.getGeo();
+        if (geo.isEnabled()) {
+            // Nearby points share the entry of their geohash cell; the provider is queried at the cell center
+            GeoCell cell = GeoCell.snap(lat, lon, geo.getPrecision());
+            WeatherCacheKey cacheKey = WeatherCacheKey.cell(WeatherCacheKey.Kind.FORECAST, cell, providerTypeEnum, cacheLanguage, units);
+            String identifier = "cell: " + cell.geohash();
+            logger.info("Coords: ({}, {}) -> Cell: {} | Provider: {} | Language: {} | CacheKey: {}", lat, lon, cell.geohash(), providerType, language, cacheKey);
+            
+            return getWeatherDataWithCaching(cacheKey, identifier, "forecast-coords",
+                () -> weatherService.getWeatherForecastByCoords(cell.latitude(), cell.longitude(), providerTypeEnum, cacheLanguage)
+                        .map(data -> withCell(data, cell)))
+                    .map(data -> conditionLocalizer.localize(data, language));
+        }
+        
+        WeatherCacheKey cacheKey = WeatherCacheKey.coordinates(WeatherCacheKey.Kind.FORECAST, lat, lon, providerTypeEnum, cacheLanguage, units);
+        String identifier = String.format("coords: (%.6f, %.6f)", lat, lon);
         logger.info("Coords: ({}, {}) | Provider: {} | Language: {} | CacheKey: {}", lat, lon, providerType, language, cacheKey);
         
-        return getWeatherDataWithCaching(cacheKey, identifier, () -> {
-            WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
-            return weatherService.getWeatherForecastByCoords(lat, lon, providerTypeEnum, language);
-        });
+        return getWeatherDataWithCaching(cacheKey, identifier, "forecast-coords",
+            () -> weatherService.getWeatherForecastByCoords(lat, lon, providerTypeEnum, cacheLanguage))
+                .map(data -> conditionLocalizer.localize(data, language));
+    }
+    
+    @Override
+    public Mono<Map<String, Map<String, Object>>> getCurrentWeatherBatch(List<String> cityNames, String providerType, String language) {
+        return getCityBatch(WeatherCacheKey.Kind.CURRENT, cityNames, providerType, language);
+    }
+    
+    @Override
+    public Mono<Map<String, Map<String, Object>>> getWeatherForecastBatch(List<String> cityNames, String providerType, String language) {
+        return getCityBatch(WeatherCacheKey.Kind.FORECAST, cityNames, providerType, language);
+    }
+    
+    private Mono<Map<String, Map<String, Object>>> getCityBatch(
+            WeatherCacheKey.Kind kind,
+            List<String> cityNames,
+            String providerType,
+            String language) {
+        validator.validateWeatherService(weatherService);
+        if (cityNames == null || cityNames.isEmpty()) {
+            throw new InvalidRequestException("cities", "at least one city is required");
+        }
+        int maxKeys = cacheProperties.getBatch().getMaxKeys();
+        if (cityNames.size() > maxKeys) {
+            throw new InvalidRequestException("cities", "at most " + maxKeys + " cities per request");
+        }
+        cityNames.forEach(validator::validateCityName);
+        
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        String cacheLanguage = conditionLocalizer.cacheLanguage(language);
+        Map<String, BatchLookup> lookups = new LinkedHashMap<>();
+        for (String cityName : cityNames) {
+            WeatherCacheKey cacheKey = WeatherCacheKey.city(kind, cityName, providerTypeEnum, cacheLanguage, units);
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier = kind == WeatherCacheKey.Kind.CURRENT
+                ? () -> weatherService.getCurrentWeather(cityName, providerTypeEnum, cacheLanguage)
+                : () -> weatherService.getWeatherForecast(cityName, providerTypeEnum, cacheLanguage);
+            lookups.putIfAbsent(cityName, new BatchLookup(cacheKey, "city: " + cityName, apiCallSupplier));
+        }
+        
+        logger.info("=== HierarchicalCache.get{}Batch START ===", kind == WeatherCacheKey.Kind.CURRENT ? "CurrentWeather" : "WeatherForecast");
+        logger.info("Cities: {} | Provider: {} | Language: {}", lookups.size(), providerType, language);
+        
+        return getBatchWithCaching(lookups.values(), kind.getCode() + "-batch")
+                .map(results -> {
+                    Map<String, Map<String, Object>> response = new LinkedHashMap<>();
+                    lookups.forEach((cityName, lookup) -> {
+                        Map<String, Object> data = results.get(lookup.cacheKey());
+                        if (data != null) {
+                            response.put(cityName, conditionLocalizer.localize(data, language));
+                        }
+                    });
+                    return response;
+                });
     }
     
     @Override
     public Mono<Boolean> evictCityCache(String cityName) {
-        return Mono.fromCallable(() -> {
-            try {
-                evictFromLocalCache(cityName);
-                evictFromRedisCache(cityName);
-                logger.info(WeatherServiceConstants.LOG_CACHE_EVICT, "City: " + cityName);
-                return true;
-            } catch (Exception e) {
-                logger.error("Error evicting cache for city: {}", cityName, e);
-                return false;
-            }
-        });
+        // Redis first, so the indexed variants it returns are also evicted locally and on every replica;
+        // the variants derived from the name are evicted locally even when Redis never indexed them
+        List<WeatherCacheKey> requestKeys = cityKeys(cityName);
+        return evictFromRedisCache(cityName, requestKeys)
+                .defaultIfEmpty(List.of())
+                .doOnNext(indexedKeys -> {
+                    Set<WeatherCacheKey> keys = new LinkedHashSet<>(requestKeys);
+                    keys.addAll(indexedKeys);
+                    evictFromLocalCache(keys);
+                })
+                .doOnSuccess(ignored -> logger.info(WeatherServiceConstants.LOG_CACHE_EVICT, "City: " + cityName))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    logger.error("Error evicting cache for city: {}", cityName, e);
+                    evictFromLocalCache(requestKeys);
+                    return Mono.just(false);
+                });
     }
     
     @Override
     public Mono<Boolean> evictAllCache() {
-        return Mono.fromCallable(() -> {
-            try {
-                clearAllLocalCaches();
-                clearAllRedisCaches();
-                logger.info(WeatherServiceConstants.LOG_CACHE_EVICT, "All cache");
-                return true;
-            } catch (Exception e) {
-                logger.error("Error evicting all cache", e);
-                return false;
-            }
-        });
+        // Redis first: clearing L1 before the namespace moves would let lookups refill it with old entries
+        return redisCacheTier.clearAll()
+                .then(Mono.fromRunnable(this::clearAllLocalCaches))
+                .doOnSuccess(ignored -> logger.info(WeatherServiceConstants.LOG_CACHE_EVICT, "All cache"))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    logger.error("Error evicting all cache", e);
+                    clearAllLocalCaches();
+                    return Mono.just(false);
+                });
+    }
+    
+    @Override
+    public Mono<Boolean> evictProviderCache(String providerType) {
+        WeatherProviderType providerTypeEnum = WeatherProviderType.fromCode(providerType);
+        // Local entries are not indexed by provider, so L1 is cleared as a whole
+        return redisCacheTier.clearProvider(providerTypeEnum)
+                .then(Mono.fromRunnable(this::clearAllLocalCaches))
+                .doOnSuccess(ignored -> logger.info(WeatherServiceConstants.LOG_CACHE_EVICT, "Provider: " + providerTypeEnum.getCode()))
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    logger.error("Error evicting cache for provider: {}", providerType, e);
+                    clearAllLocalCaches();
+                    return Mono.just(false);
+                });
     }
     
     private Mono<Map<String, Object>> getWeatherDataWithCaching(
-            String cacheKey, 
+            WeatherCacheKey cacheKey, 
+            String identifier,
+            String endpoint,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
+        return getEntryWithCaching(cacheKey, identifier, endpoint, apiCallSupplier)
+                .map(CachedWeather::data);
+    }
+    
+    private Mono<CachedWeather> getEntryWithCaching(
+            WeatherCacheKey cacheKey, 
             String identifier,
+            String endpoint,
             Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
         
         return Mono.defer(() -> {
-            Map<String, Object> localResult = getFromLocalCache(cacheKey);
+            String cacheName = cacheKey.cacheName();
+            heavyHitterTracker.record(cacheKey);
+            long localStart = System.nanoTime();
+            CachedWeather localResult = getFromLocalCache(cacheKey);
+            if (localResult != null && localResult.isNegative()) {
+                cacheMetrics.recordNegativeHit(CacheTier.L1, cacheName);
+                logger.info("Local cache NEGATIVE HIT for key: {}", cacheKey);
+                return Mono.error(notFound(identifier, null));
+            }
             if (localResult != null) {
+                cacheMetrics.recordHit(CacheTier.L1, cacheName, endpoint, System.nanoTime() - localStart);
                 logger.info("Local cache HIT for key: {}", cacheKey);
-                return Mono.just(localResult);
+                recordAccess(cacheKey, identifier, endpoint, localResult, apiCallSupplier);
+                return Mono.just(serve(cacheKey, identifier, endpoint, localResult, apiCallSupplier));
             }
+            cacheMetrics.recordMiss(CacheTier.L1, cacheName, endpoint, System.nanoTime() - localStart);
             logger.info("Local cache MISS for key: {}", cacheKey);
             
+            long redisStart = System.nanoTime();
             return getFromRedisCache(cacheKey)
+                    .doOnSuccess(redisResult -> {
+                        long elapsed = System.nanoTime() - redisStart;
+                        if (redisResult != null && redisResult.isNegative()) {
+                            cacheMetrics.recordNegativeHit(CacheTier.L2, cacheName);
+                        } else if (redisResult != null) {
+                            cacheMetrics.recordHit(CacheTier.L2, cacheName, endpoint, elapsed);
+                        } else {
+                            cacheMetrics.recordMiss(CacheTier.L2, cacheName, endpoint, elapsed);
+                        }
+                    })
                     .flatMap(redisResult -> {
-                        if (redisResult != null) {
-                            logger.info("Redis cache HIT for key: {}", cacheKey);
-                            putInLocalCache(cacheKey, redisResult);
-                            return Mono.just(redisResult);
+                        putInLocalCache(cacheKey, redisResult);
+                        if (redisResult.isNegative()) {
+                            logger.info("Redis cache NEGATIVE HIT for key: {}", cacheKey);
+                            return Mono.error(notFound(identifier, null));
                         }
-                        logger.info("Redis cache MISS for key: {}", cacheKey);
-                        logger.info("Calling external API for: {}", identifier);
-                        
-                        return callExternalApiAndCache(cacheKey, identifier, apiCallSupplier);
+                        logger.info("Redis cache HIT for key: {}", cacheKey);
+                        recordAccess(cacheKey, identifier, endpoint, redisResult, apiCallSupplier);
+                        return Mono.just(serve(cacheKey, identifier, endpoint, redisResult, apiCallSupplier));
                     })
                     .switchIfEmpty(Mono.defer(() -> {
-                        logger.info("Redis cache returned empty, calling external API for: {}", identifier);
+                        logger.info("Redis cache MISS for key: {}, calling external API for: {}", cacheKey, identifier);
                         
-                        return callExternalApiAndCache(cacheKey, identifier, apiCallSupplier);
+                        // Names never seen before are rejected or throttled before spending provider quota
+                        return knownCityFilter.admit(cacheKey)
+                                .then(Mono.defer(() -> callExternalApiAndCache(cacheKey, identifier, endpoint, apiCallSupplier)))
+                                .doOnNext(entry -> recordAccess(cacheKey, identifier, endpoint, entry, apiCallSupplier));
                     }));
         });
     }
     
-    private Mono<Map<String, Object>> callExternalApiAndCache(
-            String cacheKey, 
+    /**
+     * Looks up many keys at once: L1 hits are served locally, every L1 miss is read from Redis in
+     * one MGET, and only the keys still missing go to the provider, a bounded number at a time.
+     * Negative entries and failed loads are left out of the result
+     */
+    private Mono<Map<WeatherCacheKey, Map<String, Object>>> getBatchWithCaching(
+            Collection<BatchLookup> lookups,
+            String endpoint) {
+        
+        return Mono.defer(() -> {
+            Map<WeatherCacheKey, Map<String, Object>> results = new ConcurrentHashMap<>();
+            Map<WeatherCacheKey, BatchLookup> localMisses = new LinkedHashMap<>();
+            Set<WeatherCacheKey> seen = new HashSet<>();
+            for (BatchLookup lookup : lookups) {
+                WeatherCacheKey cacheKey = lookup.cacheKey();
+                if (!seen.add(cacheKey)) {
+                    continue;
+                }
+                String cacheName = cacheKey.cacheName();
+                heavyHitterTracker.record(cacheKey);
+                long localStart = System.nanoTime();
+                CachedWeather localResult = getFromLocalCache(cacheKey);
+                if (localResult != null && localResult.isNegative()) {
+                    cacheMetrics.recordNegativeHit(CacheTier.L1, cacheName);
+                } else if (localResult != null) {
+                    cacheMetrics.recordHit(CacheTier.L1, cacheName, endpoint, System.nanoTime() - localStart);
+                    recordAccess(cacheKey, lookup.identifier(), endpoint, localResult, lookup.apiCallSupplier());
+                    results.put(cacheKey, serve(cacheKey, lookup.identifier(), endpoint, localResult, lookup.apiCallSupplier()).data());
+                } else {
+                    cacheMetrics.recordMiss(CacheTier.L1, cacheName, endpoint, System.nanoTime() - localStart);
+                    localMisses.put(cacheKey, lookup);
+                }
+            }
+            if (localMisses.isEmpty()) {
+                logger.info("Batch of {} keys served from local cache", seen.size());
+                return Mono.just(results);
+            }
+            
+            long redisStart = System.nanoTime();
+            return redisCacheTier.multiGet(new ArrayList<>(localMisses.keySet()))
+                    .flatMap(redisResults -> {
+                        long elapsed = System.nanoTime() - redisStart;
+                        List<BatchLookup> providerMisses = new ArrayList<>();
+                        localMisses.forEach((cacheKey, lookup) -> {
+                            String cacheName = cacheKey.cacheName();
+                            CachedWeather redisResult = redisResults.get(cacheKey);
+                            if (redisResult == null || isExpired(cacheKey, redisResult)) {
+                                cacheMetrics.recordMiss(CacheTier.L2, cacheName, endpoint, elapsed);
+                                providerMisses.add(lookup);
+                                return;
+                            }
+                            putInLocalCache(cacheKey, redisResult);
+                            if (redisResult.isNegative()) {
+                                cacheMetrics.recordNegativeHit(CacheTier.L2, cacheName);
+                                return;
+                            }
+                            cacheMetrics.recordHit(CacheTier.L2, cacheName, endpoint, elapsed);
+                            recordAccess(cacheKey, lookup.identifier(), endpoint, redisResult, lookup.apiCallSupplier());
+                            results.put(cacheKey, serve(cacheKey, lookup.identifier(), endpoint, redisResult, lookup.apiCallSupplier()).data());
+                        });
+                        logger.info("Batch of {} keys: {} local misses, {} calling external API",
+                            seen.size(), localMisses.size(), providerMisses.size());
+                        
+                        return Flux.fromIterable(providerMisses)
+                                .flatMap(lookup -> loadBatchMiss(lookup, endpoint)
+                                        .doOnNext(entry -> results.put(lookup.cacheKey(), entry.data())),
+                                    cacheProperties.getBatch().getProviderConcurrency())
+                                .then(Mono.fromSupplier(() -> results));
+                    });
+        });
+    }
+    
+    /**
+     * Loads one key of a batch from the provider; a failure only drops that key
+     */
+    private Mono<CachedWeather> loadBatchMiss(BatchLookup lookup, String endpoint) {
+        WeatherCacheKey cacheKey = lookup.cacheKey();
+        return knownCityFilter.admit(cacheKey)
+                .then(Mono.defer(() -> callExternalApiAndCache(cacheKey, lookup.identifier(), endpoint, lookup.apiCallSupplier())))
+                .doOnNext(entry -> recordAccess(cacheKey, lookup.identifier(), endpoint, entry, lookup.apiCallSupplier()))
+                .onErrorResume(error -> {
+                    logger.warn("Batch lookup failed for: {}: {}", lookup.identifier(), error.getMessage());
+                    return Mono.empty();
+                });
+    }
+    
+    /**
+     * Returns the cached entry, kicking off a background refresh when it is past its soft TTL
+     */
+    private CachedWeather serve(
+            WeatherCacheKey cacheKey,
+            String identifier,
+            String endpoint,
+            CachedWeather cached,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
+        
+        if (cached.ageMillis(clock.now()) > adaptiveTtlPolicy.ttl(cacheKey, cached).softMillis()
+                && !singleFlightRegistry.isInFlight(cacheKey)) {
+            logger.info("Serving STALE entry for key: {}, refreshing in background", cacheKey);
+            callExternalApiAndCache(cacheKey, identifier, endpoint, apiCallSupplier)
+                    .subscribe(
+                        refreshed -> logger.debug("Background refresh completed for key: {}", cacheKey),
+                        error -> logger.warn("Background refresh failed for key: {}: {}", cacheKey, error.getMessage()));
+        }
+        return cached;
+    }
+    
+    private void recordAccess(
+            WeatherCacheKey cacheKey,
+            String identifier,
+            String endpoint,
+            CachedWeather entry,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
+        refreshAheadScheduler.recordAccess(cacheKey, entry,
+            () -> refreshAhead(cacheKey, identifier, endpoint, apiCallSupplier));
+    }
+    
+    /**
+     * Reloads a hot entry before its soft TTL: an entry another replica already refreshed in Redis
+     * is copied to the local cache, otherwise the provider is called if the call budget allows it
+     */
+    private Mono<CachedWeather> refreshAhead(
+            WeatherCacheKey cacheKey,
+            String identifier,
+            String endpoint,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
+        return getFromRedisCache(cacheKey)
+                .filter(entry -> !refreshAheadScheduler.isDue(cacheKey, entry, clock.now()))
+                .doOnNext(entry -> putInLocalCache(cacheKey, entry))
+                .switchIfEmpty(Mono.defer(() -> refreshAheadScheduler.acquireProviderCall()
+                        .filter(Boolean::booleanValue)
+                        .flatMap(granted -> callExternalApiAndCache(cacheKey, identifier, endpoint, apiCallSupplier))));
+    }
+    
+    private Mono<CachedWeather> callExternalApiAndCache(
+            WeatherCacheKey cacheKey, 
+            String identifier,
+            String endpoint,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
+        String cacheName = cacheKey.cacheName();
+        // Callers that pace their provider calls (e.g. the warm-up) are held here, after every cache tier missed
+        return ProviderCallGate.awaitFromContext().then(Mono.defer(() -> loadFromProvider(cacheKey, cacheName, identifier, endpoint, apiCallSupplier)));
+    }
+    
+    private Mono<CachedWeather> loadFromProvider(
+            WeatherCacheKey cacheKey,
+            String cacheName,
             String identifier,
+            String endpoint,
             Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
-        return apiCallSupplier.get()
-                .flatMap(apiResult -> {
+        // Concurrent misses on the same key share a single provider call
+        return singleFlightRegistry.execute(cacheKey, () -> timedLoad(cacheName, endpoint, apiCallSupplier.get())
+                .map(apiResult -> {
                     logger.info("API call SUCCESS for: {}", identifier);
-                    putInLocalCache(cacheKey, apiResult);
-                    putInRedisCache(cacheKey, apiResult);
-                    return Mono.just(apiResult);
+                    CachedWeather entry = CachedWeather.fetchedNow(apiResult);
+                    putInLocalCache(cacheKey, entry);
+                    putInRedisCache(cacheKey, entry);
+                    knownCityFilter.learn(cacheKey, entry);
+                    return entry;
+                })
+                .onErrorResume(HierarchicalCacheServiceImpl::isNotFound, error -> {
+                    storeNegative(cacheKey);
+                    return Mono.error(error instanceof CityNotFoundException ? error : notFound(identifier, error));
                 })
                 .doOnError(error -> {
                     logger.error("API call FAILED for: {}", identifier, error);
-                });
+                }));
+    }
+    
+    /**
+     * Remembers a provider "not found" response in both tiers for the negative TTL
+     */
+    private void storeNegative(WeatherCacheKey cacheKey) {
+        if (!cacheProperties.getNegative().isEnabled()) {
+            return;
+        }
+        logger.info("Caching NOT FOUND for key: {}", cacheKey);
+        CachedWeather entry = CachedWeather.notFound();
+        putInLocalCache(cacheKey, entry);
+        putInRedisCache(cacheKey, entry);
+        cacheMetrics.recordNegativeStore(cacheKey.cacheName());
+    }
+    
+    /**
+     * Checks whether a provider error means the location does not exist
+     */
+    private static boolean isNotFound(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CityNotFoundException
+                    || cause instanceof WebClientResponseException response && response.getStatusCode().value() == 404) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Builds the error returned for an unknown location; identifiers have the form "city: name"
+     */
+    private static CityNotFoundException notFound(String identifier, Throwable cause) {
+        String location = identifier.substring(identifier.indexOf(": ") + 2);
+        return cause != null ? new CityNotFoundException(location, cause) : new CityNotFoundException(location);
     }
     
-    private String generateCacheKey(String cityName, String type, String providerType, String language) {
-        return cityName + "-" + type + "-" + providerType + "-" + language;
+    /**
+     * Records latency and outcome of a provider call
+     */
+    private Mono<Map<String, Object>> timedLoad(String cacheName, String endpoint, Mono<Map<String, Object>> load) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return load
+                    .doOnSuccess(result -> cacheMetrics.recordLoad(cacheName, endpoint, System.nanoTime() - start, result != null))
+                    .doOnError(error -> cacheMetrics.recordLoad(cacheName, endpoint, System.nanoTime() - start, false));
+        });
     }
     
-    private String generateCacheKeyByCoords(Double lat, Double lon, String type, String providerType, String language) {
-        return String.format("coords-%.6f,%.6f-%s-%s-%s", lat, lon, type, providerType, language);
+    /**
+     * Adds the snapped cell to a provider payload so responses report which cell they describe
+     */
+    private Map<String, Object> withCell(Map<String, Object> data, GeoCell cell) {
+        Map<String, Object> result = new LinkedHashMap<>(data);
+        result.put("snappedCell", cell.toMap());
+        return result;
     }
     
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> getFromLocalCache(String key) {
-        logger.debug("getFromLocalCache: Checking key: {}", key);
+    private CachedWeather getFromLocalCache(WeatherCacheKey key) {
+        Cache cache = localCaches.get(key.kind());
+        if (cache == null) {
+            return null;
+        }
         try {
-            String cacheName = getCacheNameFromKey(key);
-            logger.debug("getFromLocalCache: Using cache name: {}", cacheName);
-            
-            Cache cache = localCacheManager.getCache(cacheName);
-            if (cache != null) {
-                logger.debug("getFromLocalCache: Cache found, getting value...");
-                Cache.ValueWrapper value = cache.get(key);
-                if (value != null && value.get() instanceof Map) {
-                    Map<String, Object> result = (Map<String, Object>) value.get();
-                    logger.debug("getFromLocalCache: Found value in local cache, size: {}", result.size());
-                    return result;
-                } else {
-                    logger.debug("getFromLocalCache: No value found or value is not a Map");
-                }
-            } else {
-                logger.warn("getFromLocalCache: Cache '{}' not found in localCacheManager", cacheName);
-            }
+            return toUnexpiredEntry(key, cache.get(key));
         } catch (Exception e) {
             logger.error("getFromLocalCache: Error getting from local cache: {}", e.getMessage(), e);
+            return null;
         }
-        logger.debug("getFromLocalCache: Returning null");
-        return null;
     }
     
-    @SuppressWarnings("unchecked")
-    private Mono<Map<String, Object>> getFromRedisCache(String key) {
+    private Mono<CachedWeather> getFromRedisCache(WeatherCacheKey key) {
         logger.debug("getFromRedisCache: Checking key: {}", key);
         
-        return Mono.fromCallable(() -> {
-            logger.debug("getFromRedisCache: Starting fromCallable for key: {}", key);
-            try {
-                String cacheName = getCacheNameFromKey(key);
-                logger.debug("getFromRedisCache: Using cache name: {}", cacheName);
-                
-                Cache cache = redisCacheManager.getCache(cacheName);
-                logger.debug("getFromRedisCache: Cache retrieved: {}", cache != null ? cache.getClass().getSimpleName() : "NULL");
-                
-                if (cache != null) {
-                    logger.debug("getFromRedisCache: Cache found, getting value...");
-                    Cache.ValueWrapper value = cache.get(key);
-                    logger.debug("getFromRedisCache: Value retrieved: {}", value != null ? value.getClass().getSimpleName() : "NULL");
-                    
-                    if (value != null && value.get() instanceof Map) {
-                        Map<String, Object> result = (Map<String, Object>) value.get();
-                        logger.debug("getFromRedisCache: Found value in Redis cache, size: {}", result.size());
-                        return result;
-                    } else {
-                        logger.debug("getFromRedisCache: No value found or value is not a Map");
-                    }
-                } else {
-                    logger.warn("getFromRedisCache: Cache '{}' not found in redisCacheManager", cacheName);
-                }
-            } catch (Exception e) {
-                logger.error("getFromRedisCache: Error getting from Redis cache: {}", e.getMessage(), e);
-            }
-            logger.debug("getFromRedisCache: Returning null");
+        return redisCacheTier.get(key)
+                .filter(entry -> !isExpired(key, entry))
+                .doOnNext(entry -> logger.debug("getFromRedisCache: Found value in Redis cache, size: {}", entry.data().size()));
+    }
+    
+    /**
+     * Unwraps a local cache value, dropping it once it is past its local hard TTL
+     */
+    private CachedWeather toUnexpiredEntry(WeatherCacheKey key, Cache.ValueWrapper value) {
+        if (value == null || !(value.get() instanceof CachedWeather entry)) {
             return null;
-        })
-        .doOnError(error -> {
-            logger.error("getFromRedisCache: Error in Redis operation: {}", error.getMessage());
-        })
-        .onErrorResume(error -> {
-            logger.error("getFromRedisCache: Resuming from error: {}", error.getMessage());
-            return Mono.empty();
-        });
+        }
+        return isExpired(entry, localTtl(key, entry)) ? null : entry;
+    }
+    
+    private boolean isExpired(WeatherCacheKey key, CachedWeather entry) {
+        return isExpired(entry, ttl(key, entry));
+    }
+    
+    /**
+     * Checks the hard TTL of an entry against the shared coarse clock; bare maps written by older
+     * builds (fetch time 0) are kept and served as stale
+     */
+    private boolean isExpired(CachedWeather entry, Duration ttl) {
+        return entry.fetchedAt() != 0L && entry.ageMillis(clock.now()) > ttl.toMillis();
+    }
+    
+    /**
+     * Gets the L1 hard TTL of an entry: heavy hitters stay longer, served stale while they are refreshed
+     */
+    private Duration localTtl(WeatherCacheKey key, CachedWeather entry) {
+        Duration ttl = ttl(key, entry);
+        return !entry.isNegative() && heavyHitterTracker.isHot(key)
+            ? ttl.plus(cacheProperties.getHeavyHitters().getLocalTtlExtension())
+            : ttl;
     }
     
-    private void putInLocalCache(String key, Map<String, Object> value) {
-        logger.debug("putInLocalCache: Storing key: {}, value size: {}", key, value != null ? value.size() : 0);
+    /**
+     * Gets the hard TTL of an entry: the negative TTL for negative entries, otherwise the adaptive one
+     */
+    private Duration ttl(WeatherCacheKey key, CachedWeather entry) {
+        return entry.isNegative() ? cacheProperties.getNegative().getTtl() : adaptiveTtlPolicy.ttl(key, entry).hard();
+    }
+    
+    private void putInLocalCache(WeatherCacheKey key, CachedWeather value) {
+        logger.debug("putInLocalCache: Storing key: {}, value size: {}", key, value != null ? value.data().size() : 0);
+        Cache cache = localCaches.get(key.kind());
+        if (cache == null) {
+            return;
+        }
         try {
-            String cacheName = getCacheNameFromKey(key);
-            logger.debug("putInLocalCache: Using cache name: {}", cacheName);
-            
-            Cache cache = localCacheManager.getCache(cacheName);
-            if (cache != null) {
-                cache.put(key, value);
-                logger.debug("putInLocalCache: Successfully stored in local cache");
-            } else {
-                logger.warn("putInLocalCache: Cache '{}' not found in localCacheManager", cacheName);
+            // Every entry carries its own TTL, so the cache-wide default only applies to other writers
+            if (cache.getNativeCache() instanceof BoundedLocalCache localCache) {
+                localCache.put(key, preEncode(value), localTtl(key, value));
+                return;
             }
+            cache.put(key, preEncode(value));
         } catch (Exception e) {
             logger.error("putInLocalCache: Error putting in local cache: {}", e.getMessage(), e);
         }
     }
     
-    private void putInRedisCache(String key, Map<String, Object> value) {
-        logger.debug("putInRedisCache: Storing key: {}, value size: {}", key, value != null ? value.size() : 0);
-        try {
-            String cacheName = getCacheNameFromKey(key);
-            logger.debug("putInRedisCache: Using cache name: {}", cacheName);
-            
-            Cache cache = redisCacheManager.getCache(cacheName);
-            if (cache != null) {
-                cache.put(key, value);
-                logger.debug("putInRedisCache: Successfully stored in Redis cache");
-            } else {
-                logger.warn("putInRedisCache: Cache '{}' not found in redisCacheManager", cacheName);
-            }
-        } catch (Exception e) {
-            logger.error("putInRedisCache: Error putting in Redis cache: {}", e.getMessage(), e);
+    /**
+     * Swaps the payload for one that keeps its encoded response body, when pre-encoding is enabled
+     */
+    private CachedWeather preEncode(CachedWeather value) {
+        CacheProperties.PreEncoded preEncoded = cacheProperties.getPreEncoded();
+        if (!preEncoded.isEnabled() || value.isNegative() || value.data() instanceof PreEncodedWeather) {
+            return value;
         }
+        return new CachedWeather(PreEncodedWeather.of(value.data(), preEncoded.getGzipMinSize()), value.fetchedAt());
     }
     
-    private String getCacheNameFromKey(String key) {
-        return key.contains("-forecast-") ? 
-            WeatherServiceConstants.CACHE_WEATHER_FORECAST : 
-            WeatherServiceConstants.CACHE_WEATHER_CURRENT;
+    private void putInRedisCache(WeatherCacheKey key, CachedWeather value) {
+        logger.debug("putInRedisCache: Storing key: {}, value size: {}", key, value != null ? value.data().size() : 0);
+        redisCacheTier.putAsync(key, value, ttl(key, value));
     }
     
-    private void evictFromLocalCache(String cityName) {
-        org.springframework.cache.Cache localCurrentCache = localCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_CURRENT);
-        org.springframework.cache.Cache localForecastCache = localCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST);
-        
-        if (localCurrentCache != null) {
-            localCurrentCache.evictIfPresent(cityName + "-current-OPENWEATHERMAP");
-        }
-        if (localForecastCache != null) {
-            localForecastCache.evictIfPresent(cityName + "-forecast-OPENWEATHERMAP");
+    /**
+     * Gets the variants of a city a name-only request can be cached under: both kinds for every
+     * provider, in the language lookups are cached in for the configured default language (the
+     * localizer's canonical one when it can be localized) and in the default language itself.
+     * Evicted even when the location index does not list them (entries written before the index,
+     * or while Redis was unreachable)
+     */
+    private List<WeatherCacheKey> cityKeys(String cityName) {
+        Set<String> languages = new LinkedHashSet<>();
+        languages.add(conditionLocalizer.cacheLanguage(defaultLanguage));
+        languages.add(defaultLanguage);
+        List<WeatherCacheKey> keys = new ArrayList<>();
+        for (WeatherCacheKey.Kind kind : WeatherCacheKey.Kind.values()) {
+            for (WeatherProviderType provider : WeatherProviderType.values()) {
+                for (String language : languages) {
+                    keys.add(WeatherCacheKey.city(kind, cityName, provider, language, units));
+                }
+            }
         }
+        return keys;
     }
     
-    private void evictFromRedisCache(String cityName) {
-        org.springframework.cache.Cache redisCurrentCache = redisCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_CURRENT);
-        org.springframework.cache.Cache redisForecastCache = redisCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST);
-        
-        if (redisCurrentCache != null) {
-            redisCurrentCache.evictIfPresent(cityName + "-current-OPENWEATHERMAP");
-        }
-        if (redisForecastCache != null) {
-            redisForecastCache.evictIfPresent(cityName + "-forecast-OPENWEATHERMAP");
+    private void evictFromLocalCache(Collection<WeatherCacheKey> keys) {
+        for (WeatherCacheKey key : keys) {
+            Cache cache = localCaches.get(key.kind());
+            if (cache != null) {
+                cache.evictIfPresent(key);
+            }
+            invalidationBus.publishKey(key);
         }
     }
     
+    /**
+     * Deletes every indexed variant of a city (languages, providers, coordinate lookups that
+     * resolved to it) in one round trip
+     * @return Mono emitting the deleted keys
+     */
+    private Mono<List<WeatherCacheKey>> evictFromRedisCache(String cityName, List<WeatherCacheKey> knownKeys) {
+        return redisCacheTier.evictLocation(WeatherCacheKey.cityLocation(cityName), knownKeys)
+                .doOnNext(keys -> {
+                    logger.info("Evicted {} cache variants for city: {}", keys.size(), cityName);
+                    keys.forEach(key -> cacheMetrics.recordL2Eviction(key.cacheName(), 1));
+                });
+    }
+    
     private void clearAllLocalCaches() {
         localCacheManager.getCacheNames().forEach(name -> {
-            org.springframework.cache.Cache cache = localCacheManager.getCache(name);
+            Cache cache = localCacheManager.getCache(name);
             if (cache != null) {
                 cache.clear();
             }
+            invalidationBus.publishClear(name);
         });
     }
     
-    private void clearAllRedisCaches() {
-        redisCacheManager.getCacheNames().forEach(name -> {
-            org.springframework.cache.Cache cache = redisCacheManager.getCache(name);
-            if (cache != null) {
-                cache.clear();
-            }
-        });
+    /**
+     * One key of a batch lookup with what is needed to load it
+     */
+    private record BatchLookup(
+            WeatherCacheKey cacheKey,
+            String identifier,
+            Supplier<Mono<Map<String, Object>>> apiCallSupplier) {
     }
-    
 
 } 
\ No newline at end of file
@@ -244,8 +244,8 @@ public class WeatherServiceImpl implements WeatherService {
         return getProvider(getDefaultProviderType());
     }
     
-    
-    private WeatherProviderType getDefaultProviderType() {
+    @Override
+    public WeatherProviderType getDefaultProviderType() {
         try {
             return WeatherProviderType.valueOf(weatherApiConfig.getDefaultProvider());
         } catch (IllegalArgumentException e) {
@@ -0,0 +1,88 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for AdaptiveTtlPolicy
+ */
+class AdaptiveTtlPolicyTest {
+
+    private CacheProperties cacheProperties;
+    private AdaptiveTtlPolicy policy;
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties = new CacheProperties();
+        cacheProperties.getAdaptiveTtl().setJitter(0.0);
+        policy = new AdaptiveTtlPolicy(cacheProperties);
+    }
+
+    @Test
+    void testCurrentWeatherExpiresAfterNextObservation() {
+        // Given: observed 4 minutes before the fetch, next observation due 6 minutes after it
+        long fetchedAt = Instant.parse("2026-01-01T12:00:00Z").toEpochMilli();
+        long dt = (fetchedAt - Duration.ofMinutes(4).toMillis()) / 1000;
+        CachedWeather entry = new CachedWeather(Map.of("dt", dt), fetchedAt);
+
+        // When
+        AdaptiveTtlPolicy.EntryTtl ttl = policy.ttl(key(WeatherCacheKey.Kind.CURRENT, "Lisboa"), entry);
+
+        // Then: 6 minutes plus the 2 minute update delay, hard TTL keeps the 5 minute stale window
+        assertEquals(Duration.ofMinutes(8).toMillis(), ttl.softMillis());
+        assertEquals(Duration.ofMinutes(13).toMillis(), ttl.hardMillis());
+    }
+
+    @Test
+    void testForecastExpiresAfterNextGridBoundaryAndLateObservationGetsMinTtl() {
+        // Given
+        long fetchedAt = Instant.parse("2026-01-01T13:30:00Z").toEpochMilli();
+        CachedWeather forecast = new CachedWeather(Map.of("list", List.of()), fetchedAt);
+        CachedWeather lateCurrent = new CachedWeather(Map.of("dt", (fetchedAt - Duration.ofHours(1).toMillis()) / 1000), fetchedAt);
+
+        // When
+        long forecastSoft = policy.ttl(key(WeatherCacheKey.Kind.FORECAST, "Lisboa"), forecast).softMillis();
+        long lateSoft = policy.ttl(key(WeatherCacheKey.Kind.CURRENT, "Lisboa"), lateCurrent).softMillis();
+
+        // Then: next 3h boundary is 15:00 UTC, plus the update delay
+        assertEquals(Duration.ofMinutes(92).toMillis(), forecastSoft);
+        assertEquals(Duration.ofMinutes(1).toMillis(), lateSoft);
+    }
+
+    @Test
+    void testJitterSpreadsKeysWithinBoundsAndPayloadsWithoutTimestampUseSpec() {
+        // Given
+        cacheProperties.getAdaptiveTtl().setJitter(0.1);
+        long fetchedAt = Instant.parse("2026-01-01T12:00:00Z").toEpochMilli();
+        CachedWeather entry = new CachedWeather(Map.of("dt", fetchedAt / 1000), fetchedAt);
+
+        // When
+        Set<Long> softTtls = Stream.of("Lisboa", "Porto", "Faro", "Braga", "Coimbra")
+            .map(city -> policy.ttl(key(WeatherCacheKey.Kind.CURRENT, city), entry).softMillis())
+            .collect(Collectors.toSet());
+        long bare = policy.ttl(key(WeatherCacheKey.Kind.CURRENT, "Lisboa"), new CachedWeather(Map.of("name", "Lisboa"), fetchedAt)).softMillis();
+
+        // Then: 12 minutes +/- 10%, the same for every call on a key
+        assertTrue(softTtls.size() > 1);
+        softTtls.forEach(ttl -> assertTrue(ttl >= Duration.ofSeconds(648).toMillis() && ttl <= Duration.ofSeconds(792).toMillis()));
+        assertEquals(policy.ttl(key(WeatherCacheKey.Kind.CURRENT, "Porto"), entry),
+            policy.ttl(key(WeatherCacheKey.Kind.CURRENT, "Porto"), entry));
+        assertEquals(Duration.ofMinutes(5).toMillis(), bare);
+    }
+
+    private static WeatherCacheKey key(WeatherCacheKey.Kind kind, String city) {
+        return WeatherCacheKey.city(kind, city, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+}
@@ -0,0 +1,105 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CacheMetrics
+ */
+class CacheMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private BoundedLocalCache localCache;
+    private CacheMetrics cacheMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        localCache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 2, CoarseClock.system());
+        SimpleCacheManager localCacheManager = new SimpleCacheManager();
+        localCacheManager.setCaches(List.of(localCache));
+        localCacheManager.initializeCaches();
+        cacheMetrics = new CacheMetrics(registry, localCacheManager);
+    }
+
+    @Test
+    void testCountersAreTaggedByTierCacheAndEndpoint() {
+        // When
+        cacheMetrics.recordHit(CacheTier.L1, "weather-current", "current", 1_000);
+        cacheMetrics.recordMiss(CacheTier.L1, "weather-current", "current", 1_000);
+        cacheMetrics.recordMiss(CacheTier.L2, "weather-current", "current", 2_000_000);
+        cacheMetrics.recordLoad("weather-current", "current", 150_000_000, true);
+
+        // Then
+        assertEquals(1.0, registry.get(CacheMetrics.GETS)
+            .tags("tier", "l1", "cache", "weather-current", "endpoint", "current", "result", "hit").counter().count());
+        assertEquals(1.0, registry.get(CacheMetrics.GETS)
+            .tags("tier", "l2", "result", "miss").counter().count());
+        assertEquals(1.0, registry.get(CacheMetrics.LOADS)
+            .tags("tier", "provider", "result", "success").counter().count());
+        assertEquals(1L, registry.get(CacheMetrics.LATENCY).tags("tier", "provider").timer().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSnapshotReportsHitRatiosPerTier() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            cacheMetrics.recordHit(CacheTier.L1, "weather-current", "current", 1_000);
+        }
+        cacheMetrics.recordMiss(CacheTier.L1, "weather-current", "current", 1_000);
+        cacheMetrics.recordLoad("weather-current", "current", 1_000_000, false);
+
+        // When
+        Map<String, Object> snapshot = cacheMetrics.snapshot();
+
+        // Then
+        Map<String, Object> tiers = (Map<String, Object>) snapshot.get("tiers");
+        Map<String, Object> l1 = (Map<String, Object>) tiers.get("l1");
+        Map<String, Object> provider = (Map<String, Object>) tiers.get("provider");
+        assertEquals(3L, l1.get("hits"));
+        assertEquals(0.75, (Double) l1.get("hitRatio"), 1e-9);
+        assertEquals(1L, provider.get("loadFailures"));
+        Map<String, Object> caches = (Map<String, Object>) snapshot.get("caches");
+        assertTrue(caches.containsKey("weather-current"));
+    }
+
+    @Test
+    void testLocalCacheSizeAndEvictionsAreExported() {
+        // When
+        for (int i = 0; i < 5; i++) {
+            localCache.put("city-" + i, i);
+        }
+
+        // Then
+        assertEquals(2.0, registry.get(CacheMetrics.SIZE).tags("tier", "l1").gauge().value());
+        assertEquals(3.0, registry.get(CacheMetrics.EVICTIONS).tags("tier", "l1", "cause", "size").functionCounter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testNegativeEntriesAreCountedApartFromHits() {
+        // When
+        cacheMetrics.recordNegativeStore("weather-current");
+        cacheMetrics.recordNegativeHit(CacheTier.L1, "weather-current");
+        cacheMetrics.recordNegativeHit(CacheTier.L1, "weather-current");
+        cacheMetrics.recordNegativeHit(CacheTier.L2, "weather-current");
+
+        // Then
+        assertEquals(2.0, registry.get(CacheMetrics.NEGATIVE).tags("tier", "l1", "result", "hit").counter().count());
+        assertEquals(1.0, registry.get(CacheMetrics.NEGATIVE).tags("tier", "provider", "result", "stored").counter().count());
+        Map<String, Object> negative = (Map<String, Object>) ((Map<String, Object>) cacheMetrics.snapshot().get("negative")).get("weather-current");
+        assertEquals(Map.of("l1Hits", 2L, "l2Hits", 1L, "stored", 1L), negative);
+        assertTrue(registry.find(CacheMetrics.GETS).counters().isEmpty());
+    }
+}
@@ -0,0 +1,115 @@
+package com.lplemos.weather_service.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import com.lplemos.weather_service.model.WeatherResponse;
+import com.lplemos.weather_service.model.WeatherSummary;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for DerivedViewCache
+ */
+class DerivedViewCacheTest {
+
+    // Configured like the application's shared ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final DerivedViewCache derivedViewCache = new DerivedViewCache(new CacheProperties(), objectMapper, CoarseClock.system());
+    private final WeatherCacheKey key = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa",
+        WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+
+    @Test
+    void testStructuredResponseIsDerivedFromRawPayloadIgnoringUnmappedFields() {
+        // Given
+        Map<String, Object> data = payload(18.5);
+
+        // When
+        WeatherResponse response = derivedViewCache.weatherResponse(key, 1L, () -> data);
+
+        // Then
+        assertEquals("Lisboa", response.name());
+        assertEquals(18.5, response.main().temp());
+        assertEquals("clear sky", response.weather().get(0).description());
+    }
+
+    @Test
+    void testViewsAreMemoizedPerEntryFetchTime() {
+        // Given
+        WeatherResponse first = derivedViewCache.weatherResponse(key, 1L, () -> payload(18.5));
+
+        // When
+        // A copy of the same entry (localized, or reloaded from Redis) is a different map instance
+        WeatherResponse again = derivedViewCache.weatherResponse(key, 1L, () -> payload(18.5));
+        WeatherResponse refreshed = derivedViewCache.weatherResponse(key, 2L, () -> payload(21.0));
+
+        // Then
+        assertSame(first, again);
+        assertNotSame(first, refreshed);
+        assertEquals(21.0, refreshed.main().temp());
+        assertEquals(1L, derivedViewCache.getStats().get("hits"));
+    }
+
+    @Test
+    void testSummariesAreStampedWhenServed() throws InterruptedException {
+        // Given
+        WeatherSummary first = derivedViewCache.weatherSummary(key, 1L, () -> payload(18.5));
+        Thread.sleep(10);
+
+        // When
+        WeatherSummary again = derivedViewCache.weatherSummary(key, 1L, () -> {
+            throw new AssertionError("memoized response not reused");
+        });
+
+        // Then
+        assertEquals(first.temperature(), again.temperature());
+        assertTrue(again.timestamp().isAfter(first.timestamp()));
+    }
+
+    @Test
+    void testMemosAreBoundedToTheLocalCacheSize() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getCaches().put("weather-current",
+            new CacheProperties.CacheSpec(Duration.ofMinutes(5), Duration.ofMinutes(10), 2));
+        DerivedViewCache boundedCache = new DerivedViewCache(cacheProperties, objectMapper, CoarseClock.system());
+        WeatherCacheKey porto = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Porto",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey faro = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Faro",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        boundedCache.weatherResponse(key, 1L, () -> payload(18.5));
+        boundedCache.weatherResponse(porto, 1L, () -> payload(17.0));
+
+        // When
+        boundedCache.weatherResponse(faro, 1L, () -> payload(22.0));
+
+        // Then
+        assertEquals(2, boundedCache.getStats().get("size"));
+        assertEquals(2L, boundedCache.getStats().get("maximumSize"));
+    }
+
+    private static Map<String, Object> payload(double temp) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("name", "Lisboa");
+        data.put("id", 2267057);
+        data.put("cod", 200);
+        data.put("dt", 1_700_000_000);
+        data.put("visibility", 10000);
+        data.put("coord", Map.of("lon", -9.13, "lat", 38.72));
+        data.put("weather", List.of(Map.of("id", 800, "main", "Clear", "description", "clear sky", "icon", "01d")));
+        data.put("main", Map.of("temp", temp, "feels_like", temp, "temp_min", temp, "temp_max", temp,
+            "pressure", 1015, "humidity", 60));
+        data.put("wind", Map.of("speed", 3.6, "deg", 320));
+        data.put("clouds", Map.of("all", 0));
+        data.put("sys", Map.of("country", "PT", "sunrise", 1_699_980_000L, "sunset", 1_700_017_000L));
+        return data;
+    }
+}
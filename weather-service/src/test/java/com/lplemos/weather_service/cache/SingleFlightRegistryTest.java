@@ -0,0 +1,128 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for SingleFlightRegistry
+ */
+class SingleFlightRegistryTest {
+
+    private SingleFlightRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.getSingleFlight().setTimeout(Duration.ofMillis(200));
+        registry = new SingleFlightRegistry(properties);
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<String> sink = Sinks.one();
+
+        // When
+        Mono<String> first = registry.execute("Lisboa", () -> {
+            loads.incrementAndGet();
+            return sink.asMono();
+        });
+        Mono<String> second = registry.execute("Lisboa", () -> {
+            loads.incrementAndGet();
+            return sink.asMono();
+        });
+
+        // Then
+        StepVerifier.create(Mono.zip(first, second))
+                .then(() -> sink.tryEmitValue("sunny"))
+                .assertNext(tuple -> {
+                    assertEquals("sunny", tuple.getT1());
+                    assertEquals("sunny", tuple.getT2());
+                })
+                .verifyComplete();
+        assertEquals(1, loads.get());
+        assertEquals(1L, registry.getStats().get("coalesced"));
+        assertFalse(registry.isInFlight("Lisboa"));
+    }
+
+    @Test
+    void testKeyIsReleasedBeforeResultIsEmitted() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        Mono<String> load = registry.execute("Coimbra", () -> {
+            loads.incrementAndGet();
+            return Mono.just("rainy");
+        });
+
+        // When / Then
+        StepVerifier.create(load)
+                .assertNext(value -> assertFalse(registry.isInFlight("Coimbra")))
+                .verifyComplete();
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testErrorReleasesKeyForRetry() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        Mono<String> failing = registry.execute("Porto", () -> {
+            loads.incrementAndGet();
+            return Mono.error(new IllegalStateException("provider down"));
+        });
+
+        // Then
+        StepVerifier.create(failing).verifyError(IllegalStateException.class);
+        StepVerifier.create(registry.execute("Porto", () -> {
+                    loads.incrementAndGet();
+                    return Mono.just("cloudy");
+                }))
+                .expectNext("cloudy")
+                .verifyComplete();
+        assertEquals(2, loads.get());
+        assertEquals(1L, registry.getStats().get("failures"));
+    }
+
+    @Test
+    void testTimeoutIsDeliveredToWaiters() {
+        // When
+        Mono<String> slow = registry.execute("Faro", Mono::never);
+
+        // Then
+        StepVerifier.create(slow).verifyError(TimeoutException.class);
+        assertEquals(1L, registry.getStats().get("timeouts"));
+        assertFalse(registry.isInFlight("Faro"));
+    }
+
+    @Test
+    void testUpstreamCancelledOnlyWhenAllWaitersCancel() {
+        // Given
+        AtomicInteger cancelled = new AtomicInteger();
+        Mono<String> loader = Mono.<String>never().doOnCancel(cancelled::incrementAndGet);
+
+        // When
+        Disposable first = registry.execute("Braga", () -> loader).subscribe();
+        Disposable second = registry.execute("Braga", () -> loader).subscribe();
+        first.dispose();
+
+        // Then
+        assertEquals(0, cancelled.get());
+        assertTrue(registry.isInFlight("Braga"));
+        second.dispose();
+        assertEquals(1, cancelled.get());
+        assertFalse(registry.isInFlight("Braga"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.lplemos.weather_service.cache;
+
+import com.lplemos.weather_service.cache.geo.GeoCell;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for WeatherCacheKey
+ */
+class WeatherCacheKeyTest {
+
+    @Test
+    void testCaseAndWhitespaceVariantsProduceSameKey() {
+        // Given
+        WeatherCacheKey first = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "São Paulo",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey second = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "  SÃO   paulo ",
+            WeatherProviderType.fromCode("OPENWEATHERMAP"), "EN", "METRIC");
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals("current|city:são paulo|openweathermap|en|metric", first.asString());
+    }
+
+    @Test
+    void testCacheNameComesFromKindNotFromCityName() {
+        // Given
+        WeatherCacheKey key = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Foo-forecast-Bar",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+
+        // Then
+        assertEquals("weather-current", key.cacheName());
+    }
+
+    @Test
+    void testStringFormRoundTrips() {
+        // Given
+        WeatherCacheKey key = WeatherCacheKey.cell(WeatherCacheKey.Kind.FORECAST, GeoCell.snap(38.72, -9.14, 5),
+            WeatherProviderType.OPENWEATHERMAP, "pt", "metric");
+
+        // When
+        WeatherCacheKey parsed = WeatherCacheKey.parse(key.asString());
+
+        // Then
+        assertEquals(key, parsed);
+        assertEquals("weather-forecast", parsed.cacheName());
+    }
+
+    @Test
+    void testKeysDifferingInAnyComponentAreNotEqual() {
+        // Given
+        WeatherCacheKey base = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+
+        // Then
+        assertNotEquals(base, WeatherCacheKey.city(WeatherCacheKey.Kind.FORECAST, "Lisboa",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric"));
+        assertNotEquals(base, WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa",
+            WeatherProviderType.OPENWEATHERMAP, "pt", "metric"));
+        assertNotEquals(base, WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa",
+            WeatherProviderType.OPENWEATHERMAP, "en", "imperial"));
+    }
+}
@@ -0,0 +1,144 @@
+package com.lplemos.weather_service.cache.bloom;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.refresh.ProviderCallBudget;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.exception.CityNotFoundException;
+import com.lplemos.weather_service.exception.WeatherServiceException;
+import com.lplemos.weather_service.model.City;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import com.lplemos.weather_service.repository.CityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisCallback;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for KnownCityFilter
+ */
+class KnownCityFilterTest {
+
+    private CacheProperties cacheProperties;
+    private ProviderCallBudget providerCallBudget;
+    private KnownCityFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheProperties = new CacheProperties();
+        cacheProperties.getKnownCities().setExpectedInsertions(1000);
+        CityRepository cityRepository = mock(CityRepository.class);
+        when(cityRepository.findAll()).thenReturn(Flux.just(city("Lisboa"), city("Porto")));
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        // Redis is down: the filter is built from the cities table alone
+        when(redisTemplate.execute(any(ReactiveRedisCallback.class))).thenReturn(Flux.error(new IllegalStateException("down")));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.error(new IllegalStateException("down")));
+        providerCallBudget = mock(ProviderCallBudget.class);
+        filter = new KnownCityFilter(cityRepository, redisTemplate, providerCallBudget, cacheProperties);
+    }
+
+    @Test
+    void testEverythingIsAdmittedBeforeFirstRebuild() {
+        // Given
+        cacheProperties.getKnownCities().setPolicy(UnknownCityPolicy.REJECT);
+
+        // When / Then
+        StepVerifier.create(filter.admit(key("Nowhere"))).verifyComplete();
+        assertEquals(false, filter.getStats().get("ready"));
+    }
+
+    @Test
+    void testRejectPolicyFailsUnseenNamesOnly() {
+        // Given
+        cacheProperties.getKnownCities().setPolicy(UnknownCityPolicy.REJECT);
+
+        // When
+        StepVerifier.create(filter.rebuild()).verifyComplete();
+
+        // Then
+        StepVerifier.create(filter.admit(key("lisboa"))).verifyComplete();
+        StepVerifier.create(filter.admit(key("Nowhere"))).verifyError(CityNotFoundException.class);
+        // Non-name lookups are never checked
+        StepVerifier.create(filter.admit(WeatherCacheKey.cityId(WeatherCacheKey.Kind.CURRENT, 42,
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric"))).verifyComplete();
+        assertEquals(1L, filter.getStats().get("rejected"));
+        assertEquals(1L, filter.getStats().get("sharedFailures"));
+    }
+
+    @Test
+    void testLowPriorityThrottlesOnceUnknownBudgetIsUsedUp() {
+        // Given
+        cacheProperties.getKnownCities().setPolicy(UnknownCityPolicy.LOW_PRIORITY);
+        when(providerCallBudget.tryAcquireOrAllow(anyString(), anyLong(), any(Duration.class), any(Duration.class)))
+            .thenReturn(Mono.just(true), Mono.just(false));
+        StepVerifier.create(filter.rebuild()).verifyComplete();
+
+        // When / Then
+        StepVerifier.create(filter.admit(key("Nowhere"))).verifyComplete();
+        StepVerifier.create(filter.admit(key("Nowhere")))
+            .verifyErrorMatches(error -> error instanceof WeatherServiceException exception
+                && exception.getHttpStatus() == 429);
+        assertEquals(1L, filter.getStats().get("throttled"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLowPriorityAdmitsUnseenNamesWhenTheBudgetIsUnavailable() {
+        // Given
+        cacheProperties.getKnownCities().setPolicy(UnknownCityPolicy.LOW_PRIORITY);
+        cacheProperties.getRedis().setReadTimeout(Duration.ofMillis(50));
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        when(redisTemplate.execute(any(ReactiveRedisCallback.class))).thenReturn(Flux.error(new IllegalStateException("down")));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyList()))
+            .thenReturn(Flux.error(new IllegalStateException("down")), Flux.never());
+        ProviderCallBudget unavailableBudget = new ProviderCallBudget(redisTemplate, cacheProperties);
+        CityRepository cityRepository = mock(CityRepository.class);
+        when(cityRepository.findAll()).thenReturn(Flux.just(city("Lisboa")));
+        KnownCityFilter failOpenFilter = new KnownCityFilter(cityRepository, redisTemplate, unavailableBudget, cacheProperties);
+        StepVerifier.create(failOpenFilter.rebuild()).verifyComplete();
+
+        // When / Then: Redis failing, then hanging
+        StepVerifier.create(failOpenFilter.admit(key("Nowhere"))).verifyComplete();
+        StepVerifier.create(failOpenFilter.admit(key("Nowhere"))).expectComplete().verify(Duration.ofSeconds(5));
+        assertEquals(0L, failOpenFilter.getStats().get("throttled"));
+        assertEquals(2L, unavailableBudget.getStats().get("errors"));
+    }
+
+    @Test
+    void testProviderResponsesTeachNewNames() {
+        // Given
+        cacheProperties.getKnownCities().setPolicy(UnknownCityPolicy.REJECT);
+        StepVerifier.create(filter.rebuild()).verifyComplete();
+
+        // When
+        filter.learn(key("Faro"), new CachedWeather(Map.of("name", "Faro"), System.currentTimeMillis()));
+
+        // Then
+        StepVerifier.create(filter.admit(key("FARO"))).verifyComplete();
+        assertEquals(1L, filter.getStats().get("learned"));
+    }
+
+    private static WeatherCacheKey key(String city) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, city, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+
+    private static City city(String name) {
+        return new City(null, name, "PT", 0.0, 0.0, null, true, null);
+    }
+}
@@ -0,0 +1,126 @@
+package com.lplemos.weather_service.cache.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.config.CacheProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for CacheValueCodec
+ */
+class CacheValueCodecTest {
+
+    @Test
+    void testForecastRoundTripIsCompressedAndSmallerThanJson() {
+        // Given
+        CacheValueCodec codec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+        CachedWeather forecast = new CachedWeather(forecastPayload(40), 1_700_000_000_000L);
+        byte[] legacyJson = new GenericJackson2JsonRedisSerializer().serialize(forecast);
+
+        // When
+        byte[] encoded = codec.encode(forecast);
+        CachedWeather decoded = codec.decode(encoded);
+
+        // Then
+        assertTrue(CacheValueCodec.isEncoded(encoded));
+        assertEquals(CodecFormat.SMILE.getId(), encoded[2]);
+        assertEquals(CodecCompression.DEFLATE.getId(), encoded[3]);
+        assertTrue(encoded.length < legacyJson.length / 3,
+            "encoded " + encoded.length + " bytes vs legacy " + legacyJson.length);
+        assertEquals(forecast, decoded);
+    }
+
+    @Test
+    void testNegativeEntryRoundTrip() {
+        // Given
+        CacheValueCodec codec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+        CachedWeather notFound = new CachedWeather(Map.of(), 1_700_000_000_000L);
+
+        // When
+        CachedWeather decoded = codec.decode(codec.encode(notFound));
+
+        // Then
+        assertTrue(decoded.isNegative());
+        assertEquals(notFound.fetchedAt(), decoded.fetchedAt());
+    }
+
+    @Test
+    void testSmallPayloadIsStoredUncompressed() {
+        // Given
+        CacheValueCodec codec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+        CachedWeather current = new CachedWeather(Map.of("name", "Lisboa", "temp", 21.5), 42L);
+
+        // When
+        byte[] encoded = codec.encode(current);
+
+        // Then
+        assertEquals(CodecCompression.NONE.getId(), encoded[3]);
+        assertEquals(current, codec.decode(encoded));
+    }
+
+    @Test
+    void testValuesWrittenWithAnotherFormatRemainReadable() {
+        // Given
+        CacheProperties jsonProperties = new CacheProperties();
+        jsonProperties.getCodec().setFormat(CodecFormat.JSON);
+        jsonProperties.getCodec().setCompression(CodecCompression.NONE);
+        CacheValueCodec jsonCodec = new CacheValueCodec(jsonProperties, new ObjectMapper());
+        CacheValueCodec smileCodec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+        CachedWeather forecast = new CachedWeather(forecastPayload(8), 7L);
+
+        // When
+        byte[] encoded = jsonCodec.encode(forecast);
+
+        // Then
+        assertEquals(CodecFormat.JSON.getId(), encoded[2]);
+        assertEquals(forecast, smileCodec.decode(encoded));
+    }
+
+    @Test
+    void testSerializerReadsLegacyJsonValues() {
+        // Given
+        CachedWeatherRedisSerializer serializer = new CachedWeatherRedisSerializer(new CacheValueCodec(new CacheProperties(), new ObjectMapper()));
+        Map<String, Object> legacy = new LinkedHashMap<>();
+        legacy.put("name", "Porto");
+        legacy.put("cod", 200);
+        byte[] legacyBytes = new GenericJackson2JsonRedisSerializer().serialize(legacy);
+
+        // When
+        Object decoded = serializer.deserialize(legacyBytes);
+
+        // Then
+        assertFalse(CacheValueCodec.isEncoded(legacyBytes));
+        assertEquals(legacy, decoded);
+    }
+
+    private static Map<String, Object> forecastPayload(int slots) {
+        List<Map<String, Object>> list = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            Map<String, Object> main = new LinkedHashMap<>();
+            main.put("temp", 15.0 + i / 10.0);
+            main.put("feels_like", 14.2 + i / 10.0);
+            main.put("pressure", 1013);
+            main.put("humidity", 70 + i % 10);
+            Map<String, Object> slot = new LinkedHashMap<>();
+            slot.put("dt", 1_700_000_000 + i * 10_800);
+            slot.put("main", main);
+            slot.put("weather", List.of(Map.of("id", 800, "main", "Clear", "description", "clear sky", "icon", "01d")));
+            slot.put("dt_txt", "2023-11-14 " + String.format("%02d", (i * 3) % 24) + ":00:00");
+            list.add(slot);
+        }
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("cod", "200");
+        payload.put("cnt", slots);
+        payload.put("list", list);
+        payload.put("city", Map.of("name", "Lisboa", "country", "PT"));
+        return payload;
+    }
+}
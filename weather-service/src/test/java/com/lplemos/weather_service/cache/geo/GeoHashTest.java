@@ -0,0 +1,56 @@
+package com.lplemos.weather_service.cache.geo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for GeoHash
+ */
+class GeoHashTest {
+
+    @Test
+    void testEncodeKnownPoint() {
+        // Given
+        double lat = 57.64911;
+        double lon = 10.40744;
+
+        // When
+        String geohash = GeoHash.encode(lat, lon, 11);
+
+        // Then
+        assertEquals("u4pruydqqvj", geohash);
+    }
+
+    @Test
+    void testNearbyPointsSnapToSameCell() {
+        // Given - two phones a few metres apart in Lisbon
+        GeoCell first = GeoCell.snap(38.722252, -9.139337, 5);
+        GeoCell second = GeoCell.snap(38.722301, -9.139290, 5);
+
+        // Then
+        assertEquals(first, second);
+        assertEquals(5, first.geohash().length());
+    }
+
+    @Test
+    void testCellCenterLiesInsideCell() {
+        // Given
+        GeoCell cell = GeoCell.snap(-33.868820, 151.209296, 6);
+
+        // When
+        String recoded = GeoHash.encode(cell.latitude(), cell.longitude(), 6);
+
+        // Then
+        assertEquals(cell.geohash(), recoded);
+        assertEquals(-33.868820, cell.latitude(), 0.01);
+        assertEquals(151.209296, cell.longitude(), 0.01);
+    }
+
+    @Test
+    void testInvalidPrecisionIsRejected() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> GeoHash.encode(0, 0, 13));
+    }
+}
@@ -0,0 +1,171 @@
+package com.lplemos.weather_service.cache.local;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for BoundedLocalCache
+ */
+class BoundedLocalCacheTest {
+
+    private final AtomicLong time = new AtomicLong(1_700_000_000_000L);
+    private final CoarseClock clock = new CoarseClock(time::get);
+
+    @Test
+    void testSizeStaysBoundedAndEvictionsAreCounted() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 100, clock);
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            cache.put("city-" + i, i);
+        }
+
+        // Then
+        assertTrue(cache.size() <= 100);
+        assertEquals(900L, cache.getStats().get("evictionCount"));
+    }
+
+    @Test
+    void testHotKeysSurviveOneHitWonderScan() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 100, clock);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertNotNull(cache.get("hot-" + i));
+            }
+        }
+
+        // When
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Then
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "hot keys evicted by scan, survivors: " + survivors);
+    }
+
+    @Test
+    void testConcurrentReadsAreRecordedWithoutBlocking() throws Exception {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 100, clock);
+        for (int i = 0; i < 50; i++) {
+            cache.put("hot-" + i, i);
+        }
+        Thread[] readers = new Thread[8];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                for (int round = 0; round < 1_000; round++) {
+                    assertNotNull(cache.get("hot-" + (round % 50)));
+                }
+            });
+        }
+
+        // When
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        cache.cleanUp();
+        for (int i = 0; i < 10_000; i++) {
+            cache.put("scan-" + i, i);
+        }
+
+        // Then
+        assertEquals(8_000L, cache.getStats().get("hitCount"));
+        int survivors = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get("hot-" + i) != null) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 45, "dropped reads lost hot keys, survivors: " + survivors);
+    }
+
+    @Test
+    void testWeigherBoundsTotalWeight() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-forecast", Duration.ofMinutes(5), 100,
+            value -> (Integer) value, clock);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            cache.put("forecast-" + i, 40);
+        }
+
+        // Then
+        assertTrue((Long) cache.getStats().get("weightedSize") <= 100);
+        assertTrue(cache.size() <= 2);
+    }
+
+    @Test
+    void testExpiredEntryIsAMiss() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 100, clock);
+
+        // When
+        cache.put("Lisboa", "sunny", Duration.ofMillis(-1));
+
+        // Then
+        assertNull(cache.get("Lisboa"));
+        assertEquals(0, cache.size());
+        assertEquals(1L, cache.getStats().get("expiredCount"));
+    }
+
+    @Test
+    void testTimerWheelExpiresEntriesWithoutReads() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofMinutes(5), 1_000, clock);
+        for (int i = 0; i < 100; i++) {
+            cache.put("short-" + i, i, Duration.ofSeconds(30));
+            cache.put("long-" + i, i, Duration.ofHours(2));
+        }
+
+        // When
+        time.addAndGet(Duration.ofMinutes(1).toMillis());
+        clock.tick();
+        cache.cleanUp();
+
+        // Then
+        assertEquals(100, cache.size());
+        assertEquals(100L, cache.getStats().get("expiredCount"));
+
+        // When
+        time.addAndGet(Duration.ofHours(2).toMillis());
+        clock.tick();
+        cache.cleanUp();
+
+        // Then
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testReadsUseCoarseClock() {
+        // Given
+        BoundedLocalCache cache = new BoundedLocalCache("weather-current", Duration.ofSeconds(10), 100, clock);
+        cache.put("Lisboa", "sunny");
+
+        // When
+        time.addAndGet(Duration.ofSeconds(11).toMillis());
+
+        // Then
+        assertNotNull(cache.get("Lisboa"));
+        clock.tick();
+        assertNull(cache.get("Lisboa"));
+    }
+}
@@ -0,0 +1,87 @@
+package com.lplemos.weather_service.cache.local;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.config.CacheProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for OffHeapLocalCache
+ */
+class OffHeapLocalCacheTest {
+
+    private final AtomicLong time = new AtomicLong(1_700_000_000_000L);
+    private final CoarseClock clock = new CoarseClock(time::get);
+    private final CacheValueCodec codec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+
+    @Test
+    void testPayloadRoundTripsThroughOffHeapSlabs() {
+        // Given
+        OffHeapSlabStore slabStore = new OffHeapSlabStore(64 * 1024, 4);
+        OffHeapLocalCache cache = new OffHeapLocalCache("weather-forecast", Duration.ofMinutes(5), 100, clock, slabStore, codec);
+        CachedWeather forecast = new CachedWeather(forecast("Lisboa"), 1_700_000_000_000L);
+
+        // When
+        cache.put("Lisboa", forecast);
+        CachedWeather result = (CachedWeather) cache.get("Lisboa").get();
+
+        // Then
+        assertEquals(forecast, result);
+        assertEquals(1L, slabStore.getStats().get("liveValues"));
+        assertEquals(1, slabStore.getStats().get("allocatedSlabs"));
+    }
+
+    @Test
+    void testRemovedEntriesReleaseSlabsForReuse() {
+        // Given
+        OffHeapSlabStore slabStore = new OffHeapSlabStore(4 * 1024, 2);
+        OffHeapLocalCache cache = new OffHeapLocalCache("weather-forecast", Duration.ofMinutes(5), 1_000, clock, slabStore, codec);
+
+        // When: many more payloads than fit in two slabs, each evicted after use
+        for (int i = 0; i < 200; i++) {
+            cache.put("city-" + i, new CachedWeather(forecast("city-" + i), time.get()));
+            assertNotNull(cache.get("city-" + i));
+            cache.evict("city-" + i);
+        }
+
+        // Then
+        assertTrue((long) slabStore.getStats().get("recycled") > 0);
+        assertEquals(0L, slabStore.getStats().get("liveValues"));
+        assertEquals(0L, slabStore.getStats().get("rejected"));
+    }
+
+    @Test
+    void testFullSlabsSkipCachingAndStaleReferencesDoNotRead() {
+        // Given
+        OffHeapSlabStore slabStore = new OffHeapSlabStore(1024, 1);
+        OffHeapLocalCache cache = new OffHeapLocalCache("weather-forecast", Duration.ofMinutes(5), 100, clock, slabStore, codec);
+        OffHeapSlabStore.SlabRef ref = slabStore.store(new byte[1000]);
+
+        // When
+        cache.put("Lisboa", new CachedWeather(forecast("Lisboa"), time.get()));
+        slabStore.release(ref);
+        cache.put("Porto", new CachedWeather(forecast("Porto"), time.get()));
+
+        // Then
+        assertNull(cache.get("Lisboa"));
+        assertNotNull(cache.get("Porto"));
+        assertNull(slabStore.read(ref));
+        assertEquals(1L, slabStore.getStats().get("rejected"));
+    }
+
+    private static Map<String, Object> forecast(String city) {
+        return Map.of(
+            "city", Map.of("name", city),
+            "list", List.of(
+                Map.of("dt", 1_700_000_000, "main", Map.of("temp", 18.5)),
+                Map.of("dt", 1_700_010_800, "main", Map.of("temp", 17.0))));
+    }
+}
@@ -0,0 +1,140 @@
+package com.lplemos.weather_service.cache.local;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PersistentLocalCache
+ */
+class PersistentLocalCacheTest {
+
+    private final CoarseClock clock = CoarseClock.system();
+    private final CacheValueCodec codec = new CacheValueCodec(new CacheProperties(), new ObjectMapper());
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRestartedCacheServesEntriesWrittenBeforeIt() {
+        // Given
+        PersistentLocalCache cache = open(1024 * 1024);
+        CachedWeather lisboa = new CachedWeather(Map.of("name", "Lisboa", "temp", 18.5), System.currentTimeMillis());
+        cache.put(key("Lisboa"), lisboa);
+        cache.put(key("Porto"), new CachedWeather(Map.of("name", "Porto"), System.currentTimeMillis()));
+        cache.evict(key("Porto"));
+        cache.close();
+
+        // When
+        PersistentLocalCache restarted = open(1024 * 1024);
+
+        // Then
+        assertEquals(lisboa, restarted.get(key("Lisboa")).get());
+        assertNull(restarted.get(key("Porto")));
+        assertEquals(1, restarted.size());
+    }
+
+    @Test
+    void testExpiredEntriesAreDiscardedOnLoad() throws InterruptedException {
+        // Given
+        PersistentLocalCache cache = open(1024 * 1024);
+        cache.put(key("Lisboa"), new CachedWeather(Map.of("name", "Lisboa"), System.currentTimeMillis()), Duration.ofMillis(20));
+        cache.put(key("Faro"), new CachedWeather(Map.of("name", "Faro"), System.currentTimeMillis()));
+        cache.close();
+        Thread.sleep(50);
+
+        // When
+        PersistentLocalCache restarted = open(1024 * 1024);
+
+        // Then
+        assertNull(restarted.get(key("Lisboa")));
+        assertNotNull(restarted.get(key("Faro")));
+    }
+
+    @Test
+    void testFullSegmentIsCompactedKeepingLatestValues() {
+        // Given
+        PersistentLocalCache cache = open(4 * 1024);
+
+        // When: rewriting the same few keys many times overflows the segment
+        for (int i = 0; i < 200; i++) {
+            cache.put(key("city-" + (i % 4)), new CachedWeather(Map.of("name", "city", "round", i), System.currentTimeMillis()));
+        }
+        cache.close();
+        PersistentLocalCache restarted = open(4 * 1024);
+
+        // Then
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) cache.getStats().get("persistent");
+        assertTrue((long) stats.get("compactions") > 1);
+        assertEquals(4, restarted.size());
+        assertEquals(199, ((CachedWeather) restarted.get(key("city-3")).get()).data().get("round"));
+    }
+
+    @Test
+    void testInvalidationRacingAPutStaysInvalidatedAfterRestart() throws Exception {
+        // Given: the invalidation arrives while the put is being recorded
+        ExecutorService invalidator = Executors.newSingleThreadExecutor();
+        AtomicReference<PersistentLocalCache> racing = new AtomicReference<>();
+        CacheValueCodec racingCodec = new CacheValueCodec(new CacheProperties(), new ObjectMapper()) {
+            @Override
+            public byte[] encode(CachedWeather value) {
+                Future<?> invalidation = invalidator.submit(() -> racing.get().evict(key("Lisboa")));
+                try {
+                    invalidation.get(200, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // Held back until the put is recorded
+                } catch (InterruptedException | ExecutionException e) {
+                    throw new IllegalStateException(e);
+                }
+                return super.encode(value);
+            }
+        };
+        PersistentLocalCache cache = open(1024 * 1024, racingCodec);
+        racing.set(cache);
+
+        // When
+        cache.put(key("Lisboa"), new CachedWeather(Map.of("name", "Lisboa"), System.currentTimeMillis()));
+        invalidator.shutdown();
+        assertTrue(invalidator.awaitTermination(5, TimeUnit.SECONDS));
+        cache.close();
+        PersistentLocalCache restarted = open(1024 * 1024);
+
+        // Then
+        assertNull(cache.get(key("Lisboa")));
+        assertNull(restarted.get(key("Lisboa")));
+    }
+
+    private PersistentLocalCache open(int segmentSize) {
+        return open(segmentSize, codec);
+    }
+
+    private PersistentLocalCache open(int segmentSize, CacheValueCodec valueCodec) {
+        PersistentLocalCache cache = new PersistentLocalCache("weather-current", Duration.ofMinutes(5), 100, value -> 1,
+            clock, new PersistentSegment(directory.resolve("weather-current.seg"), segmentSize), valueCodec);
+        cache.reload();
+        return cache;
+    }
+
+    private static WeatherCacheKey key(String city) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, city, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+}
@@ -0,0 +1,72 @@
+package com.lplemos.weather_service.cache.localization;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for ConditionLocalizer
+ */
+class ConditionLocalizerTest {
+
+    private ConditionLocalizer localizer;
+
+    @BeforeEach
+    void setUp() {
+        localizer = new ConditionLocalizer(new CacheProperties());
+    }
+
+    @Test
+    void testLanguagesWithATableShareTheCanonicalEntry() {
+        // Then
+        assertEquals("en", localizer.cacheLanguage("pt"));
+        assertEquals("en", localizer.cacheLanguage("ES"));
+        assertEquals("en", localizer.cacheLanguage("en"));
+        assertEquals("ja", localizer.cacheLanguage("ja"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCurrentAndForecastDescriptionsAreTranslatedOnACopy() {
+        // Given
+        Map<String, Object> current = new LinkedHashMap<>();
+        current.put("name", "Lisbon");
+        current.put("weather", List.of(condition(500, "light rain")));
+        Map<String, Object> forecast = new LinkedHashMap<>();
+        forecast.put("list", List.of(Map.of("dt", 1L, "weather", List.of(condition(800, "clear sky")))));
+
+        // When
+        Map<String, Object> localizedCurrent = localizer.localize(current, "pt");
+        Map<String, Object> localizedForecast = localizer.localize(forecast, "es");
+
+        // Then
+        Map<String, Object> currentCondition = ((List<Map<String, Object>>) localizedCurrent.get("weather")).get(0);
+        assertEquals("chuva fraca", currentCondition.get("description"));
+        assertEquals(500, currentCondition.get("id"));
+        Map<String, Object> slot = ((List<Map<String, Object>>) localizedForecast.get("list")).get(0);
+        assertEquals("cielo claro", ((List<Map<String, Object>>) slot.get("weather")).get(0).get("description"));
+        assertEquals("light rain", ((List<Map<String, Object>>) current.get("weather")).get(0).get("description"));
+    }
+
+    @Test
+    void testCanonicalAndUnknownLanguagesReturnThePayloadUnchanged() {
+        // Given
+        Map<String, Object> current = Map.of("weather", List.of(condition(999, "unknown")));
+
+        // Then
+        assertSame(current, localizer.localize(current, "en"));
+        assertSame(current, localizer.localize(current, "ja"));
+        assertEquals("unknown", ((List<Map<?, ?>>) localizer.localize(current, "pt").get("weather")).get(0).get("description"));
+        assertEquals(1L, localizer.getStats().get("untranslated"));
+    }
+
+    private static Map<String, Object> condition(int id, String description) {
+        return Map.of("id", id, "main", "Rain", "description", description);
+    }
+}
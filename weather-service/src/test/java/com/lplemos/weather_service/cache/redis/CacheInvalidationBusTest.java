@@ -0,0 +1,100 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for CacheInvalidationBus
+ */
+class CacheInvalidationBusTest {
+
+    private ConcurrentMapCacheManager localCacheManager;
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        localCacheManager = new ConcurrentMapCacheManager("weather-current", "weather-forecast");
+        CacheNamespace cacheNamespace = mock(CacheNamespace.class);
+        when(cacheNamespace.refresh()).thenReturn(Mono.empty());
+        bus = new CacheInvalidationBus(mock(ReactiveStringRedisTemplate.class), localCacheManager, cacheNamespace, new CacheProperties(), new ObjectMapper());
+    }
+
+    @Test
+    void testDeduplicateDropsRepeatsAndKeysCoveredByClear() {
+        // Given
+        List<CacheInvalidationBus.Invalidation> invalidations = List.of(
+            new CacheInvalidationBus.Invalidation("weather-current", "Lisboa"),
+            new CacheInvalidationBus.Invalidation("weather-current", "Lisboa"),
+            new CacheInvalidationBus.Invalidation("weather-forecast", "Porto"),
+            new CacheInvalidationBus.Invalidation("weather-forecast", null));
+
+        // When
+        List<CacheInvalidationBus.Invalidation> result = CacheInvalidationBus.deduplicate(invalidations);
+
+        // Then
+        assertEquals(List.of(
+            new CacheInvalidationBus.Invalidation("weather-current", "Lisboa"),
+            new CacheInvalidationBus.Invalidation("weather-forecast", null)), result);
+    }
+
+    @Test
+    void testMessageFromAnotherNodeEvictsLocalEntries() {
+        // Given
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        localCacheManager.getCache("weather-current").put(lisboa, "sunny");
+        localCacheManager.getCache("weather-forecast").put("Porto", "rain");
+
+        // When
+        bus.onMessage("1:{\"nodeId\":\"other\",\"invalidations\":["
+            + "{\"cacheName\":\"weather-current\",\"key\":\"" + lisboa.asString() + "\"},"
+            + "{\"cacheName\":\"weather-forecast\",\"key\":null}]}");
+
+        // Then
+        assertNull(localCacheManager.getCache("weather-current").get(lisboa));
+        assertNull(localCacheManager.getCache("weather-forecast").get("Porto"));
+        assertEquals(1L, bus.getStats().get("generation"));
+    }
+
+    @Test
+    void testOwnMessagesAreNotReapplied() {
+        // Given
+        String nodeId = (String) bus.getStats().get("nodeId");
+        localCacheManager.getCache("weather-current").put("Lisboa", "sunny");
+
+        // When
+        bus.onMessage("1:{\"nodeId\":\"" + nodeId + "\",\"invalidations\":["
+            + "{\"cacheName\":\"weather-current\",\"key\":\"Lisboa\"}]}");
+
+        // Then
+        assertNotNull(localCacheManager.getCache("weather-current").get("Lisboa"));
+    }
+
+    @Test
+    void testGenerationGapClearsWholeLocalCache() {
+        // Given
+        bus.onMessage("1:{\"nodeId\":\"other\",\"invalidations\":[]}");
+        localCacheManager.getCache("weather-current").put("Lisboa", "sunny");
+
+        // When
+        bus.onMessage("3:{\"nodeId\":\"other\",\"invalidations\":[]}");
+
+        // Then
+        assertNull(localCacheManager.getCache("weather-current").get("Lisboa"));
+        assertEquals(1L, bus.getStats().get("resyncs"));
+        assertEquals(3L, bus.getStats().get("generation"));
+    }
+}
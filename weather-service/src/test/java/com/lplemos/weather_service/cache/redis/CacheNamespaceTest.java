@@ -0,0 +1,86 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for CacheNamespace
+ */
+class CacheNamespaceTest {
+
+    private ReactiveValueOperations<String, String> valueOperations;
+    private CacheNamespace cacheNamespace;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cacheNamespace = new CacheNamespace(redisTemplate, new CacheProperties());
+    }
+
+    @Test
+    void testPrefixStartsAtVersionZero() {
+        // Then
+        assertEquals("v0.0", cacheNamespace.prefix(WeatherProviderType.OPENWEATHERMAP));
+    }
+
+    @Test
+    void testRefreshLoadsGlobalAndProviderVersions() {
+        // Given
+        String[] versions = new String[WeatherProviderType.values().length + 1];
+        versions[0] = "3";
+        versions[WeatherProviderType.METEO.ordinal() + 1] = "7";
+        when(valueOperations.multiGet(anyList())).thenReturn(Mono.just(Arrays.asList(versions)));
+
+        // When
+        StepVerifier.create(cacheNamespace.refresh()).verifyComplete();
+
+        // Then
+        assertEquals("v3.0", cacheNamespace.prefix(WeatherProviderType.OPENWEATHERMAP));
+        assertEquals("v3.7", cacheNamespace.prefix(WeatherProviderType.METEO));
+    }
+
+    @Test
+    void testBumpProviderOnlyMovesThatProvider() {
+        // Given
+        when(valueOperations.increment("weather-cache:namespace:weatherapi")).thenReturn(Mono.just(1L));
+
+        // When
+        StepVerifier.create(cacheNamespace.bumpProvider(WeatherProviderType.WEATHERAPI))
+            .expectNext(1L)
+            .verifyComplete();
+
+        // Then
+        assertEquals("v0.1", cacheNamespace.prefix(WeatherProviderType.WEATHERAPI));
+        assertEquals("v0.0", cacheNamespace.prefix(WeatherProviderType.OPENWEATHERMAP));
+    }
+
+    @Test
+    void testFailedRefreshKeepsCurrentVersions() {
+        // Given
+        when(valueOperations.increment("weather-cache:namespace")).thenReturn(Mono.just(4L));
+        when(valueOperations.multiGet(anyList())).thenReturn(Mono.error(new IllegalStateException("down")));
+        StepVerifier.create(cacheNamespace.bumpAll()).expectNext(4L).verifyComplete();
+
+        // When
+        StepVerifier.create(cacheNamespace.refresh()).verifyComplete();
+
+        // Then
+        assertEquals("v4.0", cacheNamespace.prefix(WeatherProviderType.OPENWEATHERMAP));
+        assertEquals(1L, cacheNamespace.getStats().get("refreshFailures"));
+    }
+}
@@ -0,0 +1,245 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.geo.GeoCell;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveSetOperations;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for RedisCacheTier
+ */
+class RedisCacheTierTest {
+
+    @Test
+    void testCoordinateEntriesAreIndexedUnderTheirCityToo() {
+        // Given
+        GeoCell cell = GeoCell.snap(38.7223, -9.1393, 5);
+        WeatherCacheKey current = WeatherCacheKey.cell(WeatherCacheKey.Kind.CURRENT, cell, WeatherProviderType.OPENWEATHERMAP, "pt", "metric");
+        WeatherCacheKey forecast = WeatherCacheKey.cell(WeatherCacheKey.Kind.FORECAST, cell, WeatherProviderType.OPENWEATHERMAP, "pt", "metric");
+
+        // When
+        Set<String> currentLocations = RedisCacheTier.indexLocations(current, new CachedWeather(Map.of("name", "Lisbon"), 1L));
+        Set<String> forecastLocations = RedisCacheTier.indexLocations(forecast,
+            new CachedWeather(Map.of("city", Map.of("name", "Lisbon"), "list", List.of()), 1L));
+
+        // Then
+        assertEquals(Set.of("geo:" + cell.geohash(), "city:lisbon"), currentLocations);
+        assertEquals(currentLocations, forecastLocations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvictLocationReturnsEveryDeletedVariant() {
+        // Given
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        CacheNamespace cacheNamespace = new CacheNamespace(stringTemplate, new CacheProperties());
+        RedisCacheTier tier = new RedisCacheTier(router(mock(ReactiveRedisTemplate.class), stringTemplate), new CacheProperties(), cacheNamespace);
+        WeatherCacheKey english = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey portuguese = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "pt", "metric");
+        when(stringTemplate.execute(any(RedisScript.class), eq(List.of("weather-cache:index:v0:city:lisboa",
+                "weather-current::v0.0::" + english.asString())), eq(List.of("weather-cache:index:v0:"))))
+            .thenReturn(Flux.just(
+                "weather-current::v0.0::" + portuguese.asString(),
+                "weather-current::v0.0::" + english.asString()));
+
+        // When / Then
+        StepVerifier.create(tier.evictLocation("city:lisboa", List.of(english)))
+            .expectNext(List.of(portuguese, english))
+            .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testEvictingTheRequestedNameFollowsTheProviderNameAlias() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveSetOperations<String, String> setOperations = mock(ReactiveSetOperations.class);
+        when(stringTemplate.opsForSet()).thenReturn(setOperations);
+        CacheProperties cacheProperties = new CacheProperties();
+        RedisShardRouter clusteredRouter = new RedisShardRouter(List.of(new RedisShard("default", cacheTemplate, stringTemplate, null,
+            cacheProperties.getSharding())), cacheProperties, true);
+        RedisCacheTier tier = new RedisCacheTier(clusteredRouter, cacheProperties, new CacheNamespace(stringTemplate, cacheProperties));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey byId = WeatherCacheKey.cityId(WeatherCacheKey.Kind.CURRENT, 2267057, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        when(setOperations.members("weather-cache:index:v0:city:lisboa"))
+            .thenReturn(Flux.just("weather-current::v0.0::" + lisboa.asString(), "@city:lisbon"));
+        when(setOperations.members("weather-cache:index:v0:city:lisbon"))
+            .thenReturn(Flux.just("weather-current::v0.0::" + lisboa.asString(), "weather-current::v0.0::" + byId.asString()));
+        when(cacheTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+        when(stringTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+
+        // When / Then
+        StepVerifier.create(tier.evictLocation("city:lisboa", List.of(lisboa)))
+            .expectNext(List.of(lisboa, byId))
+            .verifyComplete();
+        verify(cacheTemplate).delete("weather-current::v0.0::" + byId.asString());
+        verify(stringTemplate).delete("weather-cache:index:v0:city:lisbon");
+        verify(stringTemplate).delete("weather-cache:index:v0:city:lisboa");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMultiGetReadsEveryKeyInOneCall() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisCacheTier tier = new RedisCacheTier(router(cacheTemplate, stringTemplate), new CacheProperties(),
+            new CacheNamespace(stringTemplate, new CacheProperties()));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey porto = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Porto", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey faro = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Faro", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        CachedWeather lisboaEntry = new CachedWeather(Map.of("name", "Lisboa"), 1L);
+        when(valueOperations.multiGet(List.of(
+                "weather-current::v0.0::" + lisboa.asString(),
+                "weather-current::v0.0::" + porto.asString(),
+                "weather-current::v0.0::" + faro.asString())))
+            .thenReturn(Mono.just(Arrays.asList(lisboaEntry, null, Map.of("name", "Faro"))));
+
+        // When / Then
+        StepVerifier.create(tier.multiGet(List.of(lisboa, porto, faro)))
+            .assertNext(entries -> {
+                assertEquals(List.of(lisboa, faro), List.copyOf(entries.keySet()));
+                assertSame(lisboaEntry, entries.get(lisboa));
+                // Bare maps are read as legacy entries without a fetch time
+                assertEquals(0L, entries.get(faro).fetchedAt());
+            })
+            .verifyComplete();
+        verify(valueOperations, never()).get(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetReadsEntriesAndLegacyMaps() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisCacheTier tier = new RedisCacheTier(router(cacheTemplate, stringTemplate), new CacheProperties(),
+            new CacheNamespace(stringTemplate, new CacheProperties()));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        WeatherCacheKey faro = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Faro", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        CachedWeather lisboaEntry = new CachedWeather(Map.of("name", "Lisboa"), 1L);
+        when(valueOperations.get("weather-current::v0.0::" + lisboa.asString())).thenReturn(Mono.just(lisboaEntry));
+        when(valueOperations.get("weather-current::v0.0::" + faro.asString())).thenReturn(Mono.just(Map.of("name", "Faro")));
+
+        // When / Then
+        StepVerifier.create(tier.get(lisboa))
+            .expectNext(lisboaEntry)
+            .verifyComplete();
+        StepVerifier.create(tier.get(faro))
+            .assertNext(entry -> {
+                assertEquals(Map.of("name", "Faro"), entry.data());
+                assertEquals(0L, entry.fetchedAt());
+            })
+            .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetTreatsReadErrorsAsMisses() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisCacheTier tier = new RedisCacheTier(router(cacheTemplate, stringTemplate), new CacheProperties(),
+            new CacheNamespace(stringTemplate, new CacheProperties()));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        when(valueOperations.get(any())).thenReturn(Mono.error(new IllegalStateException("connection reset")));
+
+        // When / Then
+        StepVerifier.create(tier.get(lisboa))
+            .verifyComplete();
+        assertEquals(1L, tier.getStats().get("readErrors"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPutAsyncWritesTheEntryAndIndexesItsLocation() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisCacheTier tier = new RedisCacheTier(router(cacheTemplate, stringTemplate), new CacheProperties(),
+            new CacheNamespace(stringTemplate, new CacheProperties()));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        CachedWeather entry = new CachedWeather(Map.of("name", "Lisboa"), 1L);
+        String redisKey = "weather-current::v0.0::" + lisboa.asString();
+        when(valueOperations.set(redisKey, entry, Duration.ofMinutes(10))).thenReturn(Mono.just(true));
+        when(stringTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+
+        // When
+        tier.putAsync(lisboa, entry, Duration.ofMinutes(10));
+
+        // Then
+        verify(valueOperations).set(redisKey, entry, Duration.ofMinutes(10));
+        verify(stringTemplate).execute(any(RedisScript.class), eq(List.of("weather-cache:index:v0:city:lisboa")),
+            eq(List.of(redisKey, "600000")));
+        assertEquals(0L, tier.getStats().get("writeFailures"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRequestedNameIsIndexedAsAliasOfTheProviderName() {
+        // Given
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisCacheTier tier = new RedisCacheTier(router(cacheTemplate, stringTemplate), new CacheProperties(),
+            new CacheNamespace(stringTemplate, new CacheProperties()));
+        WeatherCacheKey lisboa = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        CachedWeather entry = new CachedWeather(Map.of("name", "Lisbon"), 1L);
+        String redisKey = "weather-current::v0.0::" + lisboa.asString();
+        when(valueOperations.set(redisKey, entry, Duration.ofMinutes(10))).thenReturn(Mono.just(true));
+        when(stringTemplate.execute(any(RedisScript.class), anyList(), anyList())).thenReturn(Flux.just(1L));
+
+        // When
+        tier.putAsync(lisboa, entry, Duration.ofMinutes(10));
+
+        // Then
+        verify(stringTemplate).execute(any(RedisScript.class), eq(List.of("weather-cache:index:v0:city:lisboa")),
+            eq(List.of(redisKey, "600000")));
+        verify(stringTemplate).execute(any(RedisScript.class), eq(List.of("weather-cache:index:v0:city:lisbon")),
+            eq(List.of(redisKey, "600000")));
+        verify(stringTemplate).execute(any(RedisScript.class), eq(List.of("weather-cache:index:v0:city:lisboa")),
+            eq(List.of("@city:lisbon", "600000")));
+        assertNull(RedisCacheTier.aliasLocation(WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisbon",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric"), entry));
+    }
+
+    private static RedisShardRouter router(ReactiveRedisTemplate<String, Object> cacheTemplate,
+                                           ReactiveStringRedisTemplate stringTemplate) {
+        CacheProperties cacheProperties = new CacheProperties();
+        return new RedisShardRouter(List.of(new RedisShard("default", cacheTemplate, stringTemplate, null,
+            cacheProperties.getSharding())), cacheProperties, false);
+    }
+}
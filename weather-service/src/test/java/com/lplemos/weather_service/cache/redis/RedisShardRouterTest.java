@@ -0,0 +1,103 @@
+package com.lplemos.weather_service.cache.redis;
+
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for RedisShardRouter
+ */
+class RedisShardRouterTest {
+
+    @Test
+    void testAddingShardOnlyMovesItsShareOfKeys() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        RedisShardRouter three = router(cacheProperties, "redis-a:6379", "redis-b:6379", "redis-c:6379");
+        RedisShardRouter four = router(cacheProperties, "redis-a:6379", "redis-b:6379", "redis-c:6379", "redis-d:6379");
+
+        // When
+        int moved = 0;
+        int total = 2000;
+        for (int i = 0; i < total; i++) {
+            String location = "city:city-" + i;
+            if (!three.shardFor(location).name().equals(four.shardFor(location).name())) {
+                moved++;
+                // Keys only ever move to the new shard
+                assertEquals("redis-d:6379", four.shardFor(location).name());
+            }
+        }
+
+        // Then
+        // The new shard takes roughly a quarter of the keys
+        assertTrue(moved > total / 8 && moved < total / 2, "moved " + moved);
+        assertEquals(three.shardFor("city:lisboa").name(), three.shardFor("city:lisboa").name());
+        assertEquals("sharded", four.getStats().get("mode"));
+    }
+
+    @Test
+    void testShardIsSkippedAfterConsecutiveFailures() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSharding().setFailureThreshold(2);
+        RedisShard shard = new RedisShard("default", null, null, null, cacheProperties.getSharding());
+
+        // When
+        StepVerifier.create(shard.track(Mono.error(new IllegalStateException("down")))).verifyError();
+        boolean afterOneFailure = shard.isAvailable();
+        StepVerifier.create(shard.track(Mono.error(new IllegalStateException("down")))).verifyError();
+
+        // Then
+        assertTrue(afterOneFailure);
+        assertFalse(shard.isAvailable());
+        assertEquals(1L, shard.getStats().get("trips"));
+        shard.onSuccess();
+        assertTrue(shard.isAvailable());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReadsOfDownShardMissWithoutCallingRedis() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSharding().setFailureThreshold(1);
+        ReactiveRedisTemplate<String, Object> cacheTemplate = mock(ReactiveRedisTemplate.class);
+        ReactiveValueOperations<String, Object> valueOperations = mock(ReactiveValueOperations.class);
+        when(cacheTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenReturn(Mono.error(new IllegalStateException("connection refused")));
+        ReactiveStringRedisTemplate stringTemplate = mock(ReactiveStringRedisTemplate.class);
+        RedisShard shard = new RedisShard("default", cacheTemplate, stringTemplate, null, cacheProperties.getSharding());
+        RedisCacheTier tier = new RedisCacheTier(new RedisShardRouter(List.of(shard), cacheProperties, false),
+            cacheProperties, new CacheNamespace(stringTemplate, cacheProperties));
+        WeatherCacheKey key = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisboa", WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+
+        // When
+        StepVerifier.create(tier.get(key)).verifyComplete();
+        StepVerifier.create(tier.get(key)).verifyComplete();
+
+        // Then
+        verify(valueOperations, times(1)).get(anyString());
+        assertEquals(1L, shard.getStats().get("skipped"));
+    }
+
+    private static RedisShardRouter router(CacheProperties cacheProperties, String... names) {
+        List<RedisShard> shards = new ArrayList<>();
+        for (String name : names) {
+            shards.add(new RedisShard(name, null, null, null, cacheProperties.getSharding()));
+        }
+        return new RedisShardRouter(shards, cacheProperties, false);
+    }
+}
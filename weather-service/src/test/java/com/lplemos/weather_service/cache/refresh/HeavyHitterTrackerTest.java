@@ -0,0 +1,87 @@
+package com.lplemos.weather_service.cache.refresh;
+
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for HeavyHitterTracker
+ */
+class HeavyHitterTrackerTest {
+
+    private HeavyHitterTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getHeavyHitters().setTopK(2);
+        cacheProperties.getHeavyHitters().setMinCount(10);
+        tracker = new HeavyHitterTracker(cacheProperties);
+    }
+
+    @Test
+    void testMostRequestedKeysBecomeHotAndLongTailDoesNot() {
+        // Given
+        record(key("Lisboa"), 500);
+        record(key("Porto"), 300);
+        for (int i = 0; i < 1_000; i++) {
+            record(key("village-" + i), 2);
+        }
+
+        // When
+        List<Map<String, Object>> topK = tracker.topK();
+
+        // Then
+        assertTrue(tracker.isHot(key("Lisboa")));
+        assertTrue(tracker.isHot(key("Porto")));
+        assertFalse(tracker.isHot(key("village-1")));
+        assertEquals(key("Lisboa").asString(), topK.get(0).get("key"));
+        assertEquals(2, topK.size());
+    }
+
+    @Test
+    void testFullTableOnlyAdmitsHotterKeys() {
+        // Given
+        record(key("Lisboa"), 100);
+        record(key("Porto"), 50);
+
+        // When
+        record(key("Faro"), 20);
+        record(key("Braga"), 80);
+
+        // Then
+        assertEquals(List.of(key("Lisboa"), key("Braga")), tracker.topK().stream()
+            .map(item -> WeatherCacheKey.parse((String) item.get("key"))).toList());
+    }
+
+    @Test
+    void testDecayDropsKeysThatCooledDown() {
+        // Given
+        record(key("Lisboa"), 15);
+        assertTrue(tracker.isHot(key("Lisboa")));
+
+        // When
+        tracker.decay();
+
+        // Then
+        assertFalse(tracker.isHot(key("Lisboa")));
+        assertEquals(1L, tracker.getStats().get("decays"));
+    }
+
+    private void record(WeatherCacheKey key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+
+    private static WeatherCacheKey key(String city) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, city, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+}
@@ -0,0 +1,109 @@
+package com.lplemos.weather_service.cache.refresh;
+
+import com.lplemos.weather_service.cache.AdaptiveTtlPolicy;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for RefreshAheadScheduler
+ */
+class RefreshAheadSchedulerTest {
+
+    private RefreshAheadScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getRefreshAhead().setHotKeys(2);
+        cacheProperties.getRefreshAhead().setLead(Duration.ofSeconds(60));
+        scheduler = new RefreshAheadScheduler(cacheProperties, mock(ProviderCallBudget.class),
+            new AdaptiveTtlPolicy(cacheProperties), new HeavyHitterTracker(cacheProperties));
+    }
+
+    @Test
+    void testHottestRanksKeysByAccessCount() {
+        // Given
+        access(key("Lisboa"), 5, 0L, Mono::empty);
+        access(key("Porto"), 1, 0L, Mono::empty);
+        access(key("Faro"), 3, 0L, Mono::empty);
+
+        // When
+        List<RefreshAheadScheduler.HotKey> hottest = scheduler.hottest(2);
+
+        // Then
+        assertEquals(List.of(key("Lisboa"), key("Faro")), hottest.stream().map(RefreshAheadScheduler.HotKey::key).toList());
+    }
+
+    @Test
+    void testTickRefreshesOnlyHotKeysCloseToSoftTtl() {
+        // Given
+        long now = System.currentTimeMillis();
+        AtomicInteger dueRefreshes = new AtomicInteger();
+        AtomicInteger freshRefreshes = new AtomicInteger();
+        AtomicInteger coldRefreshes = new AtomicInteger();
+        // without an observation time the 5 minute soft TTL applies:
+        // 4m30s old is within the 60s lead, 1 minute old is not
+        access(key("Lisboa"), 4, now - Duration.ofSeconds(270).toMillis(), () -> {
+            dueRefreshes.incrementAndGet();
+            return Mono.just(CachedWeather.fetchedNow(Map.of()));
+        });
+        access(key("Porto"), 3, now - Duration.ofMinutes(1).toMillis(), () -> {
+            freshRefreshes.incrementAndGet();
+            return Mono.empty();
+        });
+        access(key("Faro"), 1, now - Duration.ofMinutes(10).toMillis(), () -> {
+            coldRefreshes.incrementAndGet();
+            return Mono.empty();
+        });
+
+        // When
+        StepVerifier.create(scheduler.refreshHotKeys()).verifyComplete();
+
+        // Then
+        assertEquals(1, dueRefreshes.get());
+        assertEquals(0, freshRefreshes.get());
+        assertEquals(0, coldRefreshes.get());
+        assertEquals(1L, scheduler.getStats().get("refreshed"));
+        // Faro decayed to zero and is no longer tracked
+        assertEquals(2, scheduler.getStats().get("trackedKeys"));
+    }
+
+    @Test
+    void testEmptyRefreshIsCountedAsSkipped() {
+        // Given
+        access(key("Lisboa"), 2, 0L, Mono::empty);
+
+        // When
+        StepVerifier.create(scheduler.refreshHotKeys()).verifyComplete();
+
+        // Then
+        assertEquals(1L, scheduler.getStats().get("skipped"));
+        assertEquals(0L, scheduler.getStats().get("refreshed"));
+    }
+
+    private void access(WeatherCacheKey key, int times, long fetchedAt,
+                        Supplier<Mono<CachedWeather>> refresher) {
+        for (int i = 0; i < times; i++) {
+            scheduler.recordAccess(key, new CachedWeather(Map.of(), fetchedAt), refresher);
+        }
+    }
+
+    private static WeatherCacheKey key(String city) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, city, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+}
@@ -0,0 +1,150 @@
+package com.lplemos.weather_service.cache.warmup;
+
+import com.lplemos.weather_service.cache.ProviderCallGate;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.config.WeatherApiConfig;
+import com.lplemos.weather_service.exception.CityNotFoundException;
+import com.lplemos.weather_service.exception.WeatherServiceException;
+import com.lplemos.weather_service.model.City;
+import com.lplemos.weather_service.repository.CityRepository;
+import com.lplemos.weather_service.service.HierarchicalCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for CacheWarmupService
+ */
+class CacheWarmupServiceTest {
+
+    private CityRepository cityRepository;
+    private HierarchicalCacheService hierarchicalCacheService;
+    private CacheProperties cacheProperties;
+    private WeatherApiConfig weatherApiConfig;
+
+    @BeforeEach
+    void setUp() {
+        cityRepository = mock(CityRepository.class);
+        hierarchicalCacheService = mock(HierarchicalCacheService.class);
+        cacheProperties = new CacheProperties();
+        cacheProperties.getWarmup().setLanguages(List.of("en", "pt"));
+        cacheProperties.getWarmup().setCallsPerSecond(1000);
+        weatherApiConfig = new WeatherApiConfig();
+        weatherApiConfig.setDefaultProvider("OPENWEATHERMAP");
+    }
+
+    @Test
+    void testWarmUpLoadsEveryCityLanguageAndKind() {
+        // Given
+        when(cityRepository.findByIsActiveTrue()).thenReturn(Flux.just(city("Lisboa"), city("Porto")));
+        when(hierarchicalCacheService.getCurrentWeather(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        when(hierarchicalCacheService.getWeatherForecast(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        CacheWarmupService service = new CacheWarmupService(cityRepository, hierarchicalCacheService, cacheProperties, weatherApiConfig);
+        CacheWarmupHealthIndicator indicator = new CacheWarmupHealthIndicator(service);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().block().getStatus());
+
+        // When
+        StepVerifier.create(service.warmUp()).verifyComplete();
+
+        // Then
+        verify(hierarchicalCacheService).getCurrentWeather("Lisboa", "OPENWEATHERMAP", "pt");
+        verify(hierarchicalCacheService).getWeatherForecast("Porto", "OPENWEATHERMAP", "en");
+        verify(hierarchicalCacheService, times(4)).getCurrentWeather(anyString(), anyString(), anyString());
+        verify(hierarchicalCacheService, times(4)).getWeatherForecast(anyString(), anyString(), anyString());
+        assertEquals(CacheWarmupService.State.COMPLETED, service.getState());
+        assertEquals(8L, service.getStats().get("completed"));
+        assertEquals(Status.UP, indicator.health().block().getStatus());
+    }
+
+    @Test
+    void testFailedLoadsAreCountedAndDoNotStopWarmUp() {
+        // Given
+        when(cityRepository.findByIsActiveTrue()).thenReturn(Flux.just(city("Lisboa"), city("Atlantis")));
+        when(hierarchicalCacheService.getCurrentWeather(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        when(hierarchicalCacheService.getWeatherForecast(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        when(hierarchicalCacheService.getCurrentWeather(eq("Atlantis"), anyString(), anyString()))
+            .thenReturn(Mono.error(new CityNotFoundException("Atlantis")));
+        CacheWarmupService service = new CacheWarmupService(cityRepository, hierarchicalCacheService, cacheProperties, weatherApiConfig);
+
+        // When
+        StepVerifier.create(service.warmUp()).verifyComplete();
+
+        // Then
+        Map<String, Object> stats = service.getStats();
+        assertEquals(CacheWarmupService.State.COMPLETED, service.getState());
+        assertEquals(6L, stats.get("completed"));
+        assertEquals(2L, stats.get("failed"));
+        assertEquals(1.0, stats.get("progress"));
+    }
+
+    @Test
+    void testCacheHitsAreNotPaced() {
+        // Given
+        cacheProperties.getWarmup().setCallsPerSecond(1);
+        when(cityRepository.findByIsActiveTrue()).thenReturn(Flux.just(city("Lisboa"), city("Porto")));
+        when(hierarchicalCacheService.getCurrentWeather(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        when(hierarchicalCacheService.getWeatherForecast(anyString(), anyString(), anyString())).thenReturn(Mono.just(Map.of()));
+        CacheWarmupService service = new CacheWarmupService(cityRepository, hierarchicalCacheService, cacheProperties, weatherApiConfig);
+
+        // When
+        Duration elapsed = StepVerifier.create(service.warmUp()).verifyComplete();
+
+        // Then
+        assertEquals(8L, service.getStats().get("completed"));
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, "hits waited for call slots: " + elapsed);
+    }
+
+    @Test
+    void testRateLimitedProviderCallBacksOff() {
+        // Given
+        cacheProperties.getWarmup().setLanguages(List.of("en"));
+        cacheProperties.getWarmup().setRateLimitBackoff(Duration.ofMillis(10));
+        when(cityRepository.findByIsActiveTrue()).thenReturn(Flux.just(city("Lisboa")));
+        when(hierarchicalCacheService.getCurrentWeather(anyString(), anyString(), anyString()))
+            .thenReturn(ProviderCallGate.awaitFromContext()
+                .then(Mono.error(new WeatherServiceException("Rate limited", "RATE_LIMITED", 429))));
+        when(hierarchicalCacheService.getWeatherForecast(anyString(), anyString(), anyString()))
+            .thenReturn(Mono.just(Map.of()));
+        CacheWarmupService service = new CacheWarmupService(cityRepository, hierarchicalCacheService, cacheProperties, weatherApiConfig);
+
+        // When
+        StepVerifier.create(service.warmUp()).verifyComplete();
+
+        // Then
+        Map<String, Object> stats = service.getStats();
+        assertEquals(1L, stats.get("failed"));
+        assertEquals(1L, stats.get("rateLimited"));
+        assertEquals(1L, stats.get("completed"));
+    }
+
+    @Test
+    void testDisabledWarmUpIsReadyWithoutLoading() {
+        // Given
+        cacheProperties.getWarmup().setEnabled(false);
+        CacheWarmupService service = new CacheWarmupService(cityRepository, hierarchicalCacheService, cacheProperties, weatherApiConfig);
+
+        // When
+        StepVerifier.create(service.warmUp()).verifyComplete();
+
+        // Then
+        assertEquals(CacheWarmupService.State.DISABLED, service.getState());
+        assertEquals(Status.UP, new CacheWarmupHealthIndicator(service).health().block().getStatus());
+        verifyNoInteractions(cityRepository, hierarchicalCacheService);
+    }
+
+    private static City city(String name) {
+        return new City(null, name, "PT", 0.0, 0.0, null, true, null);
+    }
+}
@@ -0,0 +1,83 @@
+package com.lplemos.weather_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.CacheMetrics;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.cache.local.BoundedLocalCache;
+import com.lplemos.weather_service.service.WeatherServiceConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the local cache manager wiring
+ */
+class LocalCacheWiringTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(CacheBeans.class, LocalCacheConfig.class)
+            .withBean(CacheMetrics.class);
+
+    @Test
+    void testLocalCacheManagerIsInjectedDespitePrimaryManager() {
+        contextRunner.run(context -> {
+            // Given
+            CacheManager localCacheManager = context.getBean("localCacheManager", CacheManager.class);
+
+            // Then
+            assertInstanceOf(BoundedLocalCache.class,
+                localCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_CURRENT).getNativeCache());
+            assertInstanceOf(ConcurrentMapCacheManager.class, context.getBean(CacheManager.class));
+        });
+    }
+
+    @Test
+    void testCacheMetricsBindsLocalCacheGauges() {
+        contextRunner.run(context -> {
+            // Given
+            MeterRegistry registry = context.getBean(MeterRegistry.class);
+
+            // Then
+            assertNotNull(registry.find(CacheMetrics.SIZE)
+                .tag("cache", WeatherServiceConstants.CACHE_WEATHER_CURRENT).gauge());
+            assertNotNull(registry.find(CacheMetrics.SIZE)
+                .tag("cache", WeatherServiceConstants.CACHE_WEATHER_FORECAST).gauge());
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class CacheBeans {
+
+        @Bean
+        CacheProperties cacheProperties() {
+            return new CacheProperties();
+        }
+
+        @Bean
+        CacheValueCodec cacheValueCodec(CacheProperties cacheProperties) {
+            return new CacheValueCodec(cacheProperties, new ObjectMapper());
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        /**
+         * Stands in for any other primary cache manager on the context
+         */
+        @Bean
+        @Primary
+        CacheManager primaryCacheManager() {
+            return new ConcurrentMapCacheManager();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.lplemos.weather_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.PreEncodedWeather;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for PreEncodedWeatherMessageWriter
+ */
+class PreEncodedWeatherMessageWriterTest {
+
+    private static final ResolvableType MAP_TYPE = ResolvableType.forClassWithGenerics(Map.class, String.class, Object.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final PreEncodedWeatherMessageWriter writer = new PreEncodedWeatherMessageWriter(new Jackson2JsonEncoder(objectMapper));
+
+    @Test
+    void testWriterIsOnlyRegisteredWhenPreEncodingIsEnabled() {
+        // Given
+        CacheProperties cacheProperties = new CacheProperties();
+        ServerCodecConfigurer disabled = ServerCodecConfigurer.create();
+        ServerCodecConfigurer enabled = ServerCodecConfigurer.create();
+
+        // When
+        new WebFluxConfig(cacheProperties).configureHttpMessageCodecs(disabled);
+        cacheProperties.getPreEncoded().setEnabled(true);
+        new WebFluxConfig(cacheProperties).configureHttpMessageCodecs(enabled);
+
+        // Then
+        assertTrue(disabled.getWriters().stream().noneMatch(PreEncodedWeatherMessageWriter.class::isInstance));
+        assertTrue(enabled.getWriters().stream().anyMatch(PreEncodedWeatherMessageWriter.class::isInstance));
+    }
+
+    @Test
+    void testPreEncodedBodyIsWrittenAsIdenticalJson() throws IOException {
+        // Given
+        PreEncodedWeather body = PreEncodedWeather.of(payload(), 1_000_000);
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        // When
+        StepVerifier.create(write(body, MockServerHttpRequest.get("/current").build(), response))
+            .verifyComplete();
+
+        // Then
+        byte[] written = response.getBodyAsString().block().getBytes();
+        assertEquals(objectMapper.readTree(objectMapper.writeValueAsBytes(payload())), objectMapper.readTree(written));
+        assertSame(body.json(objectMapper), body.json(objectMapper));
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void testGzipVariantIsServedWhenAccepted() throws IOException {
+        // Given
+        PreEncodedWeather body = PreEncodedWeather.of(payload(), 16);
+        MockServerHttpRequest request = MockServerHttpRequest.get("/current")
+            .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8")
+            .build();
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        // When
+        StepVerifier.create(write(body, request, response)).verifyComplete();
+
+        // Then
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] compressed = response.getBody()
+            .reduce(new byte[0], (bytes, buffer) -> {
+                byte[] chunk = new byte[buffer.readableByteCount()];
+                buffer.read(chunk);
+                byte[] merged = new byte[bytes.length + chunk.length];
+                System.arraycopy(bytes, 0, merged, 0, bytes.length);
+                System.arraycopy(chunk, 0, merged, bytes.length, chunk.length);
+                return merged;
+            })
+            .block();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(body.json(objectMapper), in.readAllBytes());
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPreEncodedPayloadIsDeepCopied() throws IOException {
+        // Given
+        Map<String, Object> source = payload();
+        PreEncodedWeather body = PreEncodedWeather.of(source, 1_000_000);
+
+        // When
+        ((Map<String, Object>) source.get("main")).put("temp", 30.0);
+
+        // Then
+        assertEquals(21.5, objectMapper.readTree(body.json(objectMapper)).path("main").path("temp").asDouble());
+        assertThrows(UnsupportedOperationException.class, () -> ((Map<String, Object>) body.get("main")).put("temp", 30.0));
+    }
+
+    @Test
+    void testGzipWithZeroQualityIsNotAccepted() {
+        // Given
+        MockServerHttpRequest request = MockServerHttpRequest.get("/current")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity")
+            .build();
+
+        // Then
+        assertFalse(PreEncodedWeatherMessageWriter.acceptsGzip(request));
+    }
+
+    @Test
+    void testPlainMapsAreDelegatedToJackson() {
+        // Given
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        // When
+        StepVerifier.create(write(payload(), MockServerHttpRequest.get("/current").build(), response))
+            .verifyComplete();
+
+        // Then
+        assertTrue(response.getBodyAsString().block().contains("\"name\":\"Lisboa\""));
+        assertTrue(writer.canWrite(MAP_TYPE, MediaType.APPLICATION_JSON));
+        assertFalse(writer.canWrite(ResolvableType.forClass(String.class), MediaType.APPLICATION_JSON));
+    }
+
+    private Mono<Void> write(Object body, MockServerHttpRequest request, MockServerHttpResponse response) {
+        return writer.write(Mono.just(body), MAP_TYPE, MAP_TYPE, MediaType.APPLICATION_JSON,
+            request, response, Collections.emptyMap());
+    }
+
+    private static Map<String, Object> payload() {
+        Map<String, Object> main = new LinkedHashMap<>();
+        main.put("temp", 21.5);
+        main.put("humidity", 60);
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("name", "Lisboa");
+        payload.put("main", main);
+        return payload;
+    }
+}
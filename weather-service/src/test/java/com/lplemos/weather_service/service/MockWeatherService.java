@@ -134,6 +134,11 @@ public class MockWeatherService implements WeatherService {
         return new MockWeatherProvider();
     }
     
+    @Override
+    public WeatherProviderType getDefaultProviderType() {
+        return WeatherProviderType.OPENWEATHERMAP;
+    }
+    
     private Map<String, Object> createMockWeatherData(String cityName) {
         return Map.of(
             "coord", Map.of("lon", -8.4195, "lat", 40.2056),
@@ -0,0 +1,405 @@
+package com.lplemos.weather_service.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lplemos.weather_service.cache.AdaptiveTtlPolicy;
+import com.lplemos.weather_service.cache.CacheMetrics;
+import com.lplemos.weather_service.cache.CachedWeather;
+import com.lplemos.weather_service.cache.DerivedViewCache;
+import com.lplemos.weather_service.cache.PreEncodedWeather;
+import com.lplemos.weather_service.cache.ProviderCallGate;
+import com.lplemos.weather_service.cache.SingleFlightRegistry;
+import com.lplemos.weather_service.cache.WeatherCacheKey;
+import com.lplemos.weather_service.cache.bloom.KnownCityFilter;
+import com.lplemos.weather_service.cache.codec.CacheValueCodec;
+import com.lplemos.weather_service.cache.local.CoarseClock;
+import com.lplemos.weather_service.cache.local.OffHeapLocalCache;
+import com.lplemos.weather_service.cache.local.PersistentLocalCache;
+import com.lplemos.weather_service.cache.localization.ConditionLocalizer;
+import com.lplemos.weather_service.cache.redis.CacheInvalidationBus;
+import com.lplemos.weather_service.cache.redis.RedisCacheTier;
+import com.lplemos.weather_service.cache.refresh.HeavyHitterTracker;
+import com.lplemos.weather_service.cache.refresh.RefreshAheadScheduler;
+import com.lplemos.weather_service.config.CacheProperties;
+import com.lplemos.weather_service.config.LocalCacheConfig;
+import com.lplemos.weather_service.config.WeatherApiConfig;
+import com.lplemos.weather_service.exception.CityNotFoundException;
+import com.lplemos.weather_service.model.WeatherProviderType;
+import com.lplemos.weather_service.service.WeatherService;
+import com.lplemos.weather_service.service.WeatherServiceConstants;
+import com.lplemos.weather_service.validation.WeatherDataValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Test class for HierarchicalCacheServiceImpl
+ */
+class HierarchicalCacheServiceImplTest {
+
+    private static final WeatherCacheKey LISBON = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisbon",
+        WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+
+    private final AtomicLong time = new AtomicLong(System.currentTimeMillis());
+    private final CoarseClock clock = new CoarseClock(time::get);
+
+    private CacheProperties cacheProperties;
+    private RedisCacheTier redisCacheTier;
+    private WeatherService weatherService;
+    private KnownCityFilter knownCityFilter;
+    private LocalCacheConfig localCacheConfig;
+    private CacheManager localCacheManager;
+    private HierarchicalCacheServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        cacheProperties = new CacheProperties();
+        // Static TTLs: soft 5 minutes, hard 10 minutes for current weather
+        cacheProperties.getAdaptiveTtl().setEnabled(false);
+        redisCacheTier = mock(RedisCacheTier.class);
+        when(redisCacheTier.get(any())).thenReturn(Mono.empty());
+        weatherService = mock(WeatherService.class);
+        knownCityFilter = mock(KnownCityFilter.class);
+        when(knownCityFilter.admit(any())).thenReturn(Mono.empty());
+        service = createService();
+    }
+
+    @Test
+    void testFreshHitIsServedFromLocalCache() {
+        // Given
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(1)));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        verifyNoInteractions(weatherService);
+        verify(redisCacheTier, never()).get(any());
+    }
+
+    @Test
+    void testStaleHitIsServedWhileOneBackgroundRefreshRuns() {
+        // Given
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(6)));
+        Sinks.One<Map<String, Object>> refresh = Sinks.one();
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(refresh.asMono());
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        verify(weatherService, times(1)).getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+
+        refresh.tryEmitValue(Map.of("name", "Lisbon", "temp", 22));
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(22, data.get("temp")))
+            .verifyComplete();
+        verify(weatherService, times(1)).getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+    }
+
+    @Test
+    void testProviderCallGateIsOnlyAwaitedOnMiss() {
+        // Given
+        AtomicInteger acquired = new AtomicInteger();
+        ProviderCallGate gate = () -> Mono.fromRunnable(acquired::incrementAndGet);
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(1)));
+        when(weatherService.getCurrentWeather("Porto", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Porto", "temp", 18)));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en").contextWrite(gate::putIn))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        assertEquals(0, acquired.get());
+        StepVerifier.create(service.getCurrentWeather("Porto", "openweathermap", "en").contextWrite(gate::putIn))
+            .assertNext(data -> assertEquals(18, data.get("temp")))
+            .verifyComplete();
+        assertEquals(1, acquired.get());
+    }
+
+    @Test
+    void testHardExpiredEntryIsLoadedSynchronously() {
+        // Given
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(11)));
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Lisbon", "temp", 22)));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(22, data.get("temp")))
+            .verifyComplete();
+        verify(redisCacheTier).get(LISBON);
+        verify(redisCacheTier).putAsync(eq(LISBON), any(), eq(Duration.ofMinutes(10)));
+    }
+
+    @Test
+    void testFailedRefreshKeepsServingStaleEntry() {
+        // Given
+        CachedWeather stale = new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(6));
+        localCache().put(LISBON, stale);
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.error(new IllegalStateException("provider unavailable")));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        assertSame(stale, localCache().get(LISBON).get());
+        verify(redisCacheTier, never()).putAsync(any(), any(), any());
+    }
+
+    @Test
+    void testPreEncodedPayloadIsStoredAndServedFromLocalCache() {
+        // Given
+        cacheProperties.getPreEncoded().setEnabled(true);
+        service = createService();
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Lisbon", "temp", 22)));
+
+        // When
+        service.getCurrentWeather("Lisbon", "openweathermap", "en").block();
+
+        // Then
+        CachedWeather stored = (CachedWeather) localCache().get(LISBON).get();
+        assertInstanceOf(PreEncodedWeather.class, stored.data());
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertSame(stored.data(), data))
+            .verifyComplete();
+        verify(weatherService, times(1)).getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+    }
+
+    @Test
+    void testNegativeEntryShortCircuitsLookupsUntilItExpires() {
+        // Given
+        WeatherCacheKey atlantis = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Atlantis",
+            WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+        when(weatherService.getCurrentWeather("Atlantis", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.error(new CityNotFoundException("Atlantis")));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Atlantis", "openweathermap", "en"))
+            .expectError(CityNotFoundException.class)
+            .verify();
+        verify(redisCacheTier).putAsync(eq(atlantis), argThat(CachedWeather::isNegative), eq(Duration.ofMinutes(2)));
+        StepVerifier.create(service.getCurrentWeather("Atlantis", "openweathermap", "en"))
+            .expectError(CityNotFoundException.class)
+            .verify();
+        verify(weatherService, times(1)).getCurrentWeather("Atlantis", WeatherProviderType.OPENWEATHERMAP, "en");
+        verify(redisCacheTier, times(1)).get(atlantis);
+
+        time.addAndGet(Duration.ofMinutes(2).plusSeconds(1).toMillis());
+        clock.tick();
+        StepVerifier.create(service.getCurrentWeather("Atlantis", "openweathermap", "en"))
+            .expectError(CityNotFoundException.class)
+            .verify();
+        verify(weatherService, times(2)).getCurrentWeather("Atlantis", WeatherProviderType.OPENWEATHERMAP, "en");
+    }
+
+    @Test
+    void testBatchMixesTiersAndKeepsRequestOrder() {
+        // Given
+        WeatherCacheKey porto = cityKey("Porto");
+        WeatherCacheKey faro = cityKey("Faro");
+        localCache().put(porto, new CachedWeather(Map.of("name", "Porto"), minutesAgo(1)));
+        when(redisCacheTier.multiGet(List.of(faro, LISBON)))
+            .thenReturn(Mono.just(Map.of(faro, new CachedWeather(Map.of("name", "Faro"), minutesAgo(1)))));
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Lisbon")));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeatherBatch(List.of("Faro", "Porto", "Lisbon"), "openweathermap", "en"))
+            .assertNext(results -> {
+                assertEquals(List.of("Faro", "Porto", "Lisbon"), List.copyOf(results.keySet()));
+                results.forEach((city, data) -> assertEquals(city, data.get("name")));
+            })
+            .verifyComplete();
+        verify(redisCacheTier).multiGet(List.of(faro, LISBON));
+        verify(weatherService).getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+        verifyNoMoreInteractions(weatherService);
+        assertNotNull(localCache().get(faro));
+        assertNotNull(localCache().get(LISBON));
+    }
+
+    @Test
+    void testBatchLoadsDuplicateCitiesOnce() {
+        // Given
+        when(redisCacheTier.multiGet(any())).thenReturn(Mono.just(Map.of()));
+        when(weatherService.getCurrentWeather(any(), eq(WeatherProviderType.OPENWEATHERMAP), eq("en")))
+            .thenAnswer(invocation -> Mono.just(Map.of("name", "Lisbon")));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeatherBatch(List.of("Lisbon", "LISBON", "Lisbon"), "openweathermap", "en"))
+            .assertNext(results -> {
+                assertEquals(List.of("Lisbon", "LISBON"), List.copyOf(results.keySet()));
+                assertSame(results.get("Lisbon"), results.get("LISBON"));
+            })
+            .verifyComplete();
+        verify(redisCacheTier).multiGet(List.of(LISBON));
+        verify(weatherService, times(1)).getCurrentWeather(any(), eq(WeatherProviderType.OPENWEATHERMAP), eq("en"));
+    }
+
+    @Test
+    void testCityEvictionCoversUnindexedLocalVariants() {
+        // Given
+        WeatherCacheKey otherProvider = WeatherCacheKey.city(WeatherCacheKey.Kind.FORECAST, "Lisbon",
+            WeatherProviderType.WEATHERAPI, "en", "metric");
+        WeatherCacheKey indexedOnly = WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, "Lisbon",
+            WeatherProviderType.OPENWEATHERMAP, "zh_cn", "metric");
+        CachedWeather entry = new CachedWeather(Map.of("name", "Lisbon"), minutesAgo(1));
+        localCache().put(LISBON, entry);
+        localCacheManager.getCache(otherProvider.cacheName()).put(otherProvider, entry);
+        localCache().put(indexedOnly, entry);
+        // Entries written while Redis was unreachable are missing from the location index
+        when(redisCacheTier.evictLocation(eq("city:lisbon"), any())).thenReturn(Mono.just(List.of(indexedOnly)));
+
+        // When / Then
+        StepVerifier.create(service.evictCityCache("Lisbon"))
+            .expectNext(true)
+            .verifyComplete();
+        assertNull(localCache().get(LISBON));
+        assertNull(localCacheManager.getCache(otherProvider.cacheName()).get(otherProvider));
+        assertNull(localCache().get(indexedOnly));
+        verify(redisCacheTier).evictLocation(eq("city:lisbon"), argThat(keys -> keys.contains(LISBON) && keys.contains(otherProvider)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testForecastsAreServedFromOffHeapSlabsWhenEnabled() {
+        // Given
+        cacheProperties.getOffHeap().setEnabled(true);
+        service = createService();
+        Map<String, Object> forecast = Map.of("city", Map.of("name", "Lisbon"),
+            "list", List.of(Map.of("dt_txt", "2026-10-17 12:00:00")));
+        when(weatherService.getWeatherForecast("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(forecast));
+
+        // When
+        service.getWeatherForecast("Lisbon", "openweathermap", "en").block();
+
+        // Then
+        Cache forecastCache = localCacheManager.getCache(WeatherServiceConstants.CACHE_WEATHER_FORECAST);
+        OffHeapLocalCache offHeapCache = assertInstanceOf(OffHeapLocalCache.class, forecastCache.getNativeCache());
+        assertEquals(1L, ((Map<String, Object>) offHeapCache.getStats().get("offHeap")).get("liveValues"));
+        StepVerifier.create(service.getWeatherForecast("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(forecast, data))
+            .verifyComplete();
+        verify(weatherService, times(1)).getWeatherForecast("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+        verify(redisCacheTier, times(1)).get(any());
+    }
+
+    @Test
+    void testPersistedEntriesAreServedFromLocalCacheAfterRestart(@TempDir Path directory) {
+        // Given
+        cacheProperties.getPersistent().setEnabled(true);
+        cacheProperties.getPersistent().setDirectory(directory.toString());
+        cacheProperties.getPersistent().setSegmentSize(1024 * 1024);
+        service = createService();
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Lisbon", "temp", 22)));
+        service.getCurrentWeather("Lisbon", "openweathermap", "en").block();
+        assertInstanceOf(PersistentLocalCache.class, localCache().getNativeCache());
+
+        // When
+        localCacheConfig.closePersistentCaches();
+        service = createService();
+
+        // Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(22, data.get("temp")))
+            .verifyComplete();
+        verify(weatherService, times(1)).getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en");
+        verify(redisCacheTier, times(1)).get(any());
+        localCacheConfig.closePersistentCaches();
+    }
+
+    @Test
+    void testHeavyHittersOutliveTheHardTtlInLocalCache() {
+        // Given
+        cacheProperties.getHeavyHitters().setMinCount(3);
+        service = createService();
+        WeatherCacheKey porto = cityKey("Porto");
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(1)));
+        for (int i = 0; i < 3; i++) {
+            service.getCurrentWeather("Lisbon", "openweathermap", "en").block();
+        }
+        localCache().put(LISBON, new CachedWeather(Map.of("name", "Lisbon", "temp", 20), minutesAgo(11)));
+        localCache().put(porto, new CachedWeather(Map.of("name", "Porto", "temp", 18), minutesAgo(11)));
+        when(weatherService.getCurrentWeather("Lisbon", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.never());
+        when(weatherService.getCurrentWeather("Porto", WeatherProviderType.OPENWEATHERMAP, "en"))
+            .thenReturn(Mono.just(Map.of("name", "Porto", "temp", 19)));
+
+        // When / Then
+        StepVerifier.create(service.getCurrentWeather("Lisbon", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(20, data.get("temp")))
+            .verifyComplete();
+        StepVerifier.create(service.getCurrentWeather("Porto", "openweathermap", "en"))
+            .assertNext(data -> assertEquals(19, data.get("temp")))
+            .verifyComplete();
+        verify(redisCacheTier, never()).get(LISBON);
+        verify(redisCacheTier).get(porto);
+    }
+
+    private HierarchicalCacheServiceImpl createService() {
+        CacheValueCodec cacheValueCodec = new CacheValueCodec(cacheProperties, new ObjectMapper());
+        localCacheConfig = new LocalCacheConfig();
+        localCacheManager = localCacheConfig.localCacheManager(cacheProperties, cacheValueCodec, clock);
+        WeatherApiConfig weatherApiConfig = new WeatherApiConfig();
+        weatherApiConfig.setUnits("metric");
+        weatherApiConfig.setLanguage("en");
+        return new HierarchicalCacheServiceImpl(
+            localCacheManager,
+            redisCacheTier,
+            weatherService,
+            new WeatherDataValidator(),
+            new SingleFlightRegistry(cacheProperties),
+            cacheProperties,
+            mock(CacheInvalidationBus.class),
+            new CacheMetrics(new SimpleMeterRegistry(), localCacheManager),
+            mock(RefreshAheadScheduler.class),
+            new ConditionLocalizer(cacheProperties),
+            new AdaptiveTtlPolicy(cacheProperties),
+            new HeavyHitterTracker(cacheProperties),
+            new DerivedViewCache(cacheProperties, new ObjectMapper(), clock),
+            knownCityFilter,
+            clock,
+            weatherApiConfig);
+    }
+
+    private static WeatherCacheKey cityKey(String cityName) {
+        return WeatherCacheKey.city(WeatherCacheKey.Kind.CURRENT, cityName, WeatherProviderType.OPENWEATHERMAP, "en", "metric");
+    }
+
+    private Cache localCache() {
+        return localCacheManager.getCache(LISBON.cacheName());
+    }
+
+    private long minutesAgo(long minutes) {
+        return time.get() - Duration.ofMinutes(minutes).toMillis();
+    }
+}